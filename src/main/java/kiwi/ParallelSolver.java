@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+import kiwi.search.DFSearch;
+import kiwi.search.EPSearch;
+import kiwi.search.Heuristic;
+import kiwi.search.LNSearch;
+import kiwi.search.Neighborhood;
+import kiwi.search.ParallelSearch;
+import kiwi.search.SearchStats;
+import kiwi.search.Subproblem;
+
+/**
+ * A solver that explores the search tree with several threads.
+ * 
+ * <p>
+ * Each worker owns its own copy of the model. The copies are built by applying
+ * the model function on a new {@code Solver} for each worker. The function 
+ * posts the constraints, and possibly the objective and the solution actions, 
+ * and returns the search heuristic. It must build all the copies in the same 
+ * way so that the decisions taken by one worker can be replayed by the others.
+ * Note that the solution actions are executed by the worker threads.
+ * </p>
+ */
+public class ParallelSolver {
+
+  private final Solver[] solvers;
+  private final Heuristic[] heuristics;
+
+  public ParallelSolver(int nWorkers, Function<Solver, Heuristic> model) {
+    this.solvers = new Solver[nWorkers];
+    this.heuristics = new Heuristic[nWorkers];
+    for (int i = 0; i < nWorkers; i++) {
+      solvers[i] = new Solver();
+      heuristics[i] = model.apply(solvers[i]);
+    }
+  }
+
+  public boolean isFeasible() {
+    return solvers[0].isFeasible();
+  }
+
+  public SearchStats solve(Predicate<SearchStats> stopCondition) {
+    return new ParallelSearch(searches(), heuristics).search(stopCondition);
+  }
+
+  public SearchStats solve() {
+    return solve(s -> false);
+  }
+
+  /**
+   * Decomposes the problem into the subproblems to be solved by 
+   * {@link #solve(List, Predicate)}.
+   * 
+   * @param  depth the depth of the subproblems in the search tree.
+   * @return the list of subproblems.
+   * @see    EPSearch#decompose
+   */
+  public List<Subproblem> decompose(int depth) {
+    return new EPSearch(searches(), heuristics).decompose(depth);
+  }
+
+  /**
+   * Solves the subproblems that are not solved yet with an Embarrassingly 
+   * Parallel Search.
+   * 
+   * @see EPSearch#search
+   */
+  public SearchStats solve(List<Subproblem> subproblems, Predicate<SearchStats> stopCondition) {
+    return new EPSearch(searches(), heuristics).search(subproblems, stopCondition);
+  }
+
+  public SearchStats solve(List<Subproblem> subproblems) {
+    return solve(subproblems, s -> false);
+  }
+
+  /**
+   * Optimizes the objective with a Large Neighborhood Search in which each 
+   * worker explores its own neighborhoods.
+   * 
+   * @param neighborhoods builds the neighborhood of each worker from its index.
+   * @see   LNSearch
+   */
+  public SearchStats solveLNS(IntFunction<Neighborhood> neighborhoods, int failLimit,
+      Predicate<SearchStats> stopCondition) {
+    Neighborhood[] workerNeighborhoods = new Neighborhood[solvers.length];
+    for (int i = 0; i < solvers.length; i++) {
+      workerNeighborhoods[i] = neighborhoods.apply(i);
+    }
+    return new LNSearch(searches(), heuristics, workerNeighborhoods).search(failLimit, stopCondition);
+  }
+
+  private DFSearch[] searches() {
+    DFSearch[] searches = new DFSearch[solvers.length];
+    for (int i = 0; i < solvers.length; i++) {
+      searches[i] = solvers[i].search();
+    }
+    return searches;
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi;
+
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+import kiwi.search.DFSearch;
+import kiwi.search.Heuristic;
+import kiwi.search.PortfolioSearch;
+import kiwi.search.SearchStats;
+
+/**
+ * A solver that runs a portfolio of diverse searches concurrently.
+ * 
+ * <p>
+ * Each member of the portfolio owns its own copy of the model. The copies are
+ * built by applying the model function on a new {@code Solver} and on the 
+ * index of the member. The function posts the constraints, and possibly the 
+ * objective and the solution actions, and returns the search heuristic of the
+ * member. The index is typically used to select a different heuristic or a 
+ * different random seed for each member. Note that the solution actions are 
+ * executed by the member threads.
+ * </p>
+ * 
+ * @see PortfolioSearch
+ */
+public class PortfolioSolver {
+
+  private final Solver[] solvers;
+  private final Heuristic[] heuristics;
+
+  public PortfolioSolver(int nMembers, BiFunction<Solver, Integer, Heuristic> model) {
+    this.solvers = new Solver[nMembers];
+    this.heuristics = new Heuristic[nMembers];
+    for (int i = 0; i < nMembers; i++) {
+      solvers[i] = new Solver();
+      heuristics[i] = model.apply(solvers[i], i);
+    }
+  }
+
+  public boolean isFeasible() {
+    return solvers[0].isFeasible();
+  }
+
+  public SearchStats solve(Predicate<SearchStats> stopCondition) {
+    DFSearch[] searches = new DFSearch[solvers.length];
+    for (int i = 0; i < solvers.length; i++) {
+      searches[i] = solvers[i].search();
+    }
+    return new PortfolioSearch(searches, heuristics).search(stopCondition);
+  }
+
+  public SearchStats solve() {
+    return solve(s -> false);
+  }
+}
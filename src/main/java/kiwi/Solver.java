@@ -15,32 +15,64 @@
  */
 package kiwi;
 
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import kiwi.metrics.Metrics;
 import kiwi.propagation.PropagationQueue;
 import kiwi.propagation.Propagator;
 import kiwi.search.DFSearch;
+import kiwi.search.DichotomicSearch;
 import kiwi.search.Heuristic;
+import kiwi.search.LNSearch;
+import kiwi.search.Neighborhood;
 import kiwi.search.Objective;
+import kiwi.search.RestartPolicy;
+import kiwi.search.SearchLimits;
 import kiwi.search.SearchStats;
+import kiwi.search.SolutionIterator;
 import kiwi.trail.Trail;
 import kiwi.util.Action;
 import kiwi.variable.IntVar;
+import kiwi.variable.IntVarBitset;
 import kiwi.variable.IntVarImpl;
+import kiwi.variable.IntVarInterval;
 import kiwi.variable.IntVarSingleton;
+import kiwi.variable.ViewFactory;
 
 public class Solver {
 
+  /** Domains of at most this number of values are represented by bitsets. */
+  public static final int BITSET_MAX_SIZE = 256;
+
   private final Trail trail;
   private final PropagationQueue pQueue;
   private final DFSearch search;
+  private final ViewFactory views;
+
+  private Metrics metrics = null;
 
   private boolean feasible = true;
 
   public Solver() {
-    this.trail = new Trail();
+    this(false);
+  }
+
+  /**
+   * Creates a solver.
+   * 
+   * @param primitiveTrail {@code true} to store the trailed integers in the
+   *        primitive store of the trail.
+   * @see   Trail
+   */
+  public Solver(boolean primitiveTrail) {
+    this.trail = new Trail(primitiveTrail);
     this.pQueue = new PropagationQueue();
     this.search = new DFSearch(pQueue, trail);
+    this.views = new ViewFactory();
     this.feasible = true;
   }
 
@@ -52,35 +84,208 @@ public class Solver {
     return trail;
   }
 
+  DFSearch search() {
+    return search;
+  }
+
   public void setObjective(Objective obj) {
     this.search.setObjective(obj);
   }
 
+  public void setRestartPolicy(RestartPolicy policy) {
+    this.search.setRestartPolicy(policy);
+  }
+
+  /**
+   * Enables the collection of metrics on the propagation and the search.
+   * 
+   * <p>
+   * Metrics are disabled by default and cost nothing but a test of a null 
+   * reference. Calling this method again returns the same metrics.
+   * </p>
+   * 
+   * @return the metrics of the solver, which can be read during the search.
+   */
+  public Metrics enableMetrics() {
+    if (metrics == null) {
+      metrics = new Metrics();
+      pQueue.setMetrics(metrics);
+      search.setMetrics(metrics);
+    }
+    return metrics;
+  }
+
+  /**
+   * Returns the metrics of the solver.
+   * 
+   * @return the metrics, or {@code null} if they are not enabled.
+   */
+  public Metrics metrics() {
+    return metrics;
+  }
+
   public void onSolution(Action action) {
     search.addSolutionAction(action);
   }
 
   public SearchStats solve(Heuristic heuristic, Predicate<SearchStats> stopCondition) {
-    return search.search(heuristic, stopCondition);
+    return solve(heuristic, stopCondition, null);
+  }
+
+  /**
+   * Solves the problem within the specified limits. The search can be 
+   * cancelled from another thread with {@link SearchLimits#cancel}.
+   * 
+   * @see SearchLimits
+   */
+  public SearchStats solve(Heuristic heuristic, SearchLimits limits) {
+    return solve(heuristic, s -> false, limits);
+  }
+
+  public SearchStats solve(Heuristic heuristic, Predicate<SearchStats> stopCondition, 
+      SearchLimits limits) {
+    if (!feasible) {
+      // The model failed when posting a constraint.
+      SearchStats stats = new SearchStats();
+      stats.startTime = System.currentTimeMillis();
+      stats.completed = true;
+      return stats;
+    }
+    return search.search(heuristic, stopCondition, limits);
   }
 
   public SearchStats solve(Heuristic heuristic) {
     return solve(heuristic, s -> false);
   }
 
+  /**
+   * Returns the solutions of the problem as a lazy stream.
+   * 
+   * <p>
+   * The search is resumed each time the stream needs the next solution, in
+   * the thread of the consumer. Each solution is a new array that contains 
+   * the values of the variables. The state of the root node is restored when
+   * the stream is exhausted or closed, e.g., by a try-with-resources 
+   * statement if the consumer stops early.
+   * </p>
+   * 
+   * @see SolutionIterator
+   */
+  public Stream<int[]> solutions(Heuristic heuristic, IntVar[] variables) {
+    SolutionIterator iterator = solutionIterator(heuristic, variables, null);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, 
+        Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(iterator::close);
+  }
+
+  /**
+   * Returns an iterator on the solutions of the problem, found within the 
+   * specified limits.
+   * 
+   * @see SolutionIterator
+   */
+  public SolutionIterator solutionIterator(Heuristic heuristic, IntVar[] variables, 
+      SearchLimits limits) {
+    SolutionIterator iterator = new SolutionIterator(search, heuristic, variables, limits);
+    if (!feasible) {
+      // The model failed when posting a constraint.
+      iterator.close();
+      iterator.stats().completed = true;
+    }
+    return iterator;
+  }
+
+  /**
+   * Optimizes the objective with a Large Neighborhood Search.
+   * 
+   * @see LNSearch
+   */
+  public SearchStats solveLNS(Heuristic heuristic, Neighborhood neighborhood, int failLimit,
+      Predicate<SearchStats> stopCondition) {
+    return new LNSearch(search, heuristic, neighborhood).search(failLimit, stopCondition);
+  }
+
+  /**
+   * Optimizes the objective by bisection of its range.
+   * 
+   * @see DichotomicSearch
+   */
+  public SearchStats solveDichotomic(Heuristic heuristic, int nodeLimit,
+      Predicate<SearchStats> stopCondition) {
+    if (!feasible) {
+      return solve(heuristic);
+    }
+    return dichotomicSearch(heuristic).search(nodeLimit, stopCondition);
+  }
+
+  /**
+   * Returns a dichotomic search of the objective, whose bounds and 
+   * optimality gap can be read during and after the search.
+   * 
+   * @see DichotomicSearch
+   */
+  public DichotomicSearch dichotomicSearch(Heuristic heuristic) {
+    return new DichotomicSearch(search, heuristic);
+  }
+
+  /**
+   * Creates a variable whose domain is the range [min, max].
+   * 
+   * <p>
+   * Small domains are represented by a bitset and the other ones by a sparse
+   * set. Huge domains whose inner values are never removed should rather be
+   * created with {@link #intervalVar}.
+   * </p>
+   * 
+   * @see IntVarBitset
+   * @see IntVarImpl
+   */
   public IntVar intVar(int min, int max) {
+    long size = (long) max - min + 1;
+    if (size <= BITSET_MAX_SIZE) {
+      return new IntVarBitset(pQueue, trail, min, max);
+    }
     return new IntVarImpl(pQueue, trail, min, max);
   }
 
+  /**
+   * Creates a variable whose domain is the interval [min, max] and whose
+   * inner values cannot be removed. Its memory does not depend on the size of
+   * the domain, but it must only be used with propagators and heuristics 
+   * that do not remove inner values.
+   * 
+   * @see IntVarInterval
+   */
+  public IntVar intervalVar(int min, int max) {
+    return new IntVarInterval(pQueue, trail, min, max);
+  }
+
   public IntVar intVar(int value) {
     return new IntVarSingleton(pQueue, trail, value);
   }
 
   public IntVar intVar(int[] values) {
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int value : values) {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    if ((long) max - min < BITSET_MAX_SIZE) {
+      return new IntVarBitset(pQueue, trail, values);
+    }
     return new IntVarImpl(pQueue, trail, values);
   }
 
+  public IntVar offset(IntVar x, int k) {
+    return views.offset(x, k);
+  }
+
+  public IntVar opposite(IntVar x) {
+    return views.opposite(x);
+  }
+
   public boolean add(Propagator propagator) {
+    propagator.attach(trail);
     feasible = feasible && propagator.setup() && pQueue.propagate();
     return feasible;
   }
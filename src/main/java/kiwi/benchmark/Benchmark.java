@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.benchmark;
+
+import java.util.function.Supplier;
+
+/**
+ * A benchmark run by the {@code BenchmarkRunner}.
+ * 
+ * <p>
+ * Each iteration of a benchmark calls {@link #setup} to build a fresh state,
+ * which is not measured, and then {@link #run} which is measured and returns
+ * the number of operations it performed, e.g., the number of explored nodes.
+ * </p>
+ */
+public interface Benchmark {
+
+  /** Returns the unique name of the benchmark. */
+  public String name();
+
+  /** Builds the state of the next iteration. Does nothing by default. */
+  public default void setup() {}
+
+  /**
+   * Runs an iteration of the benchmark.
+   * 
+   * @return the number of operations performed by the iteration.
+   */
+  public long run();
+
+  /**
+   * Creates a benchmark from its name and its iteration.
+   * 
+   * @param name the name of the benchmark.
+   * @param setup builds the state of each iteration and returns the 
+   *        iteration to measure.
+   * @return the benchmark.
+   */
+  public static Benchmark of(String name, Supplier<Iteration> setup) {
+    return new Benchmark() {
+      private Iteration iteration;
+
+      @Override
+      public String name() {
+        return name;
+      }
+
+      @Override
+      public void setup() {
+        iteration = setup.get();
+      }
+
+      @Override
+      public long run() {
+        return iteration.run();
+      }
+    };
+  }
+
+  /** The measured part of an iteration. */
+  public interface Iteration {
+    /** Runs the iteration and returns its number of operations. */
+    public long run();
+  }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.benchmark;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the benchmarks of the solver and reports their results in JSON.
+ * 
+ * <p>
+ * Each benchmark is run for a number of warmup iterations and then for a 
+ * number of measured iterations. The setup of an iteration is not measured.
+ * The runner reports the throughput of each benchmark in operations per
+ * second, with its standard deviation over the measured iterations, and the 
+ * number of bytes allocated per operation when the JVM supports it.
+ * </p>
+ * 
+ * <p>
+ * The results are written in the JSON format of JMH, i.e., an array with an
+ * object per benchmark whose {@code primaryMetric} is the throughput and 
+ * whose {@code gc.alloc.rate.norm} secondary metric is the allocation rate,
+ * so that they can be compared with the usual tools.
+ * </p>
+ * 
+ * <pre>
+ * java kiwi.benchmark.BenchmarkRunner [-w warmup] [-i iterations] [-o file] [regex]
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+  private int warmup = 3;
+  private int iterations = 5;
+  private Pattern filter = Pattern.compile(".*");
+  private PrintStream log = System.err;
+
+  /** The result of a benchmark. */
+  public static class Result {
+    /** The name of the benchmark. */
+    public final String name;
+    /** The throughput of each measured iteration in operations per second. */
+    public final double[] scores;
+    /** The number of bytes allocated per operation, or -1 if unknown. */
+    public final double bytesPerOp;
+
+    Result(String name, double[] scores, double bytesPerOp) {
+      this.name = name;
+      this.scores = scores;
+      this.bytesPerOp = bytesPerOp;
+    }
+
+    /** Returns the mean throughput in operations per second. */
+    public double score() {
+      double sum = 0;
+      for (double score : scores) {
+        sum += score;
+      }
+      return sum / scores.length;
+    }
+
+    /** Returns the standard deviation of the throughput. */
+    public double scoreError() {
+      if (scores.length < 2) {
+        return 0;
+      }
+      double mean = score();
+      double sum = 0;
+      for (double score : scores) {
+        sum += (score - mean) * (score - mean);
+      }
+      return Math.sqrt(sum / (scores.length - 1));
+    }
+  }
+
+  public void setWarmup(int warmup) {
+    this.warmup = warmup;
+  }
+
+  public void setIterations(int iterations) {
+    if (iterations < 1) {
+      throw new IllegalArgumentException("at least one iteration is required");
+    }
+    this.iterations = iterations;
+  }
+
+  /** Runs only the benchmarks whose name matches the regular expression. */
+  public void setFilter(String regex) {
+    this.filter = Pattern.compile(regex);
+  }
+
+  /** Sets the stream on which the progress is printed. */
+  public void setLog(PrintStream log) {
+    this.log = log;
+  }
+
+  /**
+   * Runs the selected benchmarks.
+   * 
+   * @param  benchmarks the benchmarks to select from.
+   * @return the result of each selected benchmark.
+   */
+  public List<Result> run(List<Benchmark> benchmarks) {
+    List<Result> results = new ArrayList<>();
+    for (Benchmark benchmark : benchmarks) {
+      if (filter.matcher(benchmark.name()).find()) {
+        results.add(run(benchmark));
+      }
+    }
+    return results;
+  }
+
+  private Result run(Benchmark benchmark) {
+    for (int i = 0; i < warmup; i++) {
+      benchmark.setup();
+      long time = System.nanoTime();
+      long ops = benchmark.run();
+      time = System.nanoTime() - time;
+      log.printf(Locale.ROOT, "%s warmup %d: %.1f ops/s%n", benchmark.name(), 
+          i + 1, throughput(ops, time));
+    }
+    double[] scores = new double[iterations];
+    long totalOps = 0;
+    long totalBytes = 0;
+    for (int i = 0; i < iterations; i++) {
+      benchmark.setup();
+      long bytes = allocatedBytes();
+      long time = System.nanoTime();
+      long ops = benchmark.run();
+      time = System.nanoTime() - time;
+      bytes = allocatedBytes() - bytes;
+      scores[i] = throughput(ops, time);
+      totalOps += ops;
+      totalBytes += bytes;
+      log.printf(Locale.ROOT, "%s iteration %d: %.1f ops/s%n", benchmark.name(), 
+          i + 1, scores[i]);
+    }
+    double bytesPerOp = allocatedBytes() < 0 || totalOps == 0 ? -1 
+        : (double) totalBytes / totalOps;
+    return new Result(benchmark.name(), scores, bytesPerOp);
+  }
+
+  private static double throughput(long ops, long nanos) {
+    return ops * 1e9 / Math.max(1, nanos);
+  }
+
+  // Returns the number of bytes allocated by the current thread, or -1 if 
+  // the JVM does not measure it.
+  private static long allocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(
+          Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  /**
+   * Formats the results in the JSON format of JMH.
+   * 
+   * @param  results the results of the benchmarks.
+   * @return the JSON array of the results.
+   */
+  public String toJson(List<Result> results) {
+    StringBuilder json = new StringBuilder("[\n");
+    for (int i = 0; i < results.size(); i++) {
+      Result result = results.get(i);
+      json.append("  {\n");
+      json.append("    \"benchmark\": \"").append(result.name).append("\",\n");
+      json.append("    \"mode\": \"thrpt\",\n");
+      json.append("    \"warmupIterations\": ").append(warmup).append(",\n");
+      json.append("    \"measurementIterations\": ").append(iterations).append(",\n");
+      json.append("    \"primaryMetric\": {\n");
+      json.append("      \"score\": ").append(number(result.score())).append(",\n");
+      json.append("      \"scoreError\": ").append(number(result.scoreError())).append(",\n");
+      json.append("      \"scoreUnit\": \"ops/s\",\n");
+      json.append("      \"rawData\": [[");
+      for (int j = 0; j < result.scores.length; j++) {
+        json.append(j == 0 ? "" : ", ").append(number(result.scores[j]));
+      }
+      json.append("]]\n");
+      json.append("    },\n");
+      json.append("    \"secondaryMetrics\": {");
+      if (result.bytesPerOp >= 0) {
+        json.append("\n      \"gc.alloc.rate.norm\": {\n");
+        json.append("        \"score\": ").append(number(result.bytesPerOp)).append(",\n");
+        json.append("        \"scoreUnit\": \"B/op\"\n");
+        json.append("      }\n    ");
+      }
+      json.append("}\n");
+      json.append(i == results.size() - 1 ? "  }\n" : "  },\n");
+    }
+    return json.append("]\n").toString();
+  }
+
+  private static String number(double value) {
+    return String.format(Locale.ROOT, "%.3f", value);
+  }
+
+  /** Returns all the benchmarks of the solver. */
+  public static List<Benchmark> benchmarks() {
+    List<Benchmark> benchmarks = new ArrayList<>();
+    benchmarks.addAll(MicroBenchmarks.all());
+    benchmarks.addAll(SearchBenchmarks.all());
+    return benchmarks;
+  }
+
+  public static void main(String[] args) throws IOException {
+    BenchmarkRunner runner = new BenchmarkRunner();
+    String output = null;
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "-w":
+          runner.setWarmup(Integer.parseInt(args[++i]));
+          break;
+        case "-i":
+          runner.setIterations(Integer.parseInt(args[++i]));
+          break;
+        case "-o":
+          output = args[++i];
+          break;
+        default:
+          runner.setFilter(args[i]);
+      }
+    }
+    String json = runner.toJson(runner.run(benchmarks()));
+    if (output == null) {
+      System.out.print(json);
+    } else {
+      Files.write(Paths.get(output), json.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+}
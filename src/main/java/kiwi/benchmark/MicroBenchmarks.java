@@ -0,0 +1,253 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import kiwi.constraint.AllDifferent;
+import kiwi.constraint.Sum;
+import kiwi.propagation.Priority;
+import kiwi.propagation.PropagationQueue;
+import kiwi.propagation.Propagator;
+import kiwi.trail.Trail;
+import kiwi.trail.TrailedInt;
+import kiwi.variable.IntVar;
+import kiwi.variable.IntVarImpl;
+
+/**
+ * Microbenchmarks of the core data structures of the solver.
+ * 
+ * <p>
+ * Each benchmark repeats a basic operation in a loop of trail levels so that
+ * the state is restored at the end of each repetition. The reported 
+ * operations are the calls to the measured operation.
+ * </p>
+ */
+public class MicroBenchmarks {
+
+  private static final int REPEAT = 20000;
+
+  public static List<Benchmark> all() {
+    return Arrays.asList(
+        Benchmark.of("intvar.remove", MicroBenchmarks::remove),
+        Benchmark.of("intvar.update-min", MicroBenchmarks::updateMin),
+        Benchmark.of("intvar.assign", MicroBenchmarks::assign),
+        Benchmark.of("trail.undo-level", MicroBenchmarks::undoLevel),
+        Benchmark.of("trail.branches-object", () -> branches(false)),
+        Benchmark.of("trail.branches-primitive", () -> branches(true)),
+        Benchmark.of("queue.propagate", MicroBenchmarks::propagate),
+        Benchmark.of("sum.propagate", MicroBenchmarks::sum),
+        Benchmark.of("alldifferent.propagate", MicroBenchmarks::allDifferent));
+  }
+
+  // Removes the odd values of a sparse set domain.
+  private static Benchmark.Iteration remove() {
+    Trail trail = new Trail();
+    IntVar x = new IntVarImpl(new PropagationQueue(), trail, 0, 999);
+    return () -> {
+      long n = 0;
+      for (int r = 0; r < REPEAT; r++) {
+        trail.newLevel();
+        for (int v = 1; v < 1000; v += 2) {
+          x.remove(v);
+          n++;
+        }
+        trail.undoLevel();
+      }
+      return n;
+    };
+  }
+
+  // Increases the lower bound of a sparse set domain value by value.
+  private static Benchmark.Iteration updateMin() {
+    Trail trail = new Trail();
+    IntVar x = new IntVarImpl(new PropagationQueue(), trail, 0, 999);
+    return () -> {
+      long n = 0;
+      for (int r = 0; r < REPEAT; r++) {
+        trail.newLevel();
+        for (int v = 1; v < 1000; v++) {
+          x.updateMin(v);
+          n++;
+        }
+        trail.undoLevel();
+      }
+      return n;
+    };
+  }
+
+  // Assigns a sparse set domain to each of its values.
+  private static Benchmark.Iteration assign() {
+    Trail trail = new Trail();
+    IntVar x = new IntVarImpl(new PropagationQueue(), trail, 0, 999);
+    return () -> {
+      long n = 0;
+      for (int r = 0; r < REPEAT / 10; r++) {
+        for (int v = 0; v < 1000; v++) {
+          trail.newLevel();
+          x.assign(v);
+          trail.undoLevel();
+          n++;
+        }
+      }
+      return n;
+    };
+  }
+
+  // Modifies trailed integers and restores them level by level.
+  private static Benchmark.Iteration undoLevel() {
+    Trail trail = new Trail();
+    TrailedInt[] ints = new TrailedInt[100];
+    for (int i = 0; i < ints.length; i++) {
+      ints[i] = new TrailedInt(trail, 0);
+    }
+    return () -> {
+      long n = 0;
+      for (int r = 0; r < REPEAT * 10; r++) {
+        trail.newLevel();
+        ints[r % ints.length].setValue(r);
+        ints[(r + 7) % ints.length].setValue(r);
+        trail.undoLevel();
+        n++;
+      }
+      return n;
+    };
+  }
+
+  // Updates random trailed integers on 200 branches of depth 100, 50 per 
+  // level, and backtracks to the root after each branch.
+  private static Benchmark.Iteration branches(boolean primitive) {
+    Trail trail = new Trail(primitive);
+    TrailedInt[] ints = new TrailedInt[10000];
+    for (int i = 0; i < ints.length; i++) {
+      ints[i] = new TrailedInt(trail, i);
+    }
+    Random random = new Random(0);
+    return () -> {
+      long n = 0;
+      for (int b = 0; b < 200; b++) {
+        for (int d = 0; d < 100; d++) {
+          trail.newLevel();
+          for (int k = 0; k < 50; k++) {
+            TrailedInt x = ints[random.nextInt(ints.length)];
+            x.setValue(x.getValue() + 1);
+            n++;
+          }
+        }
+        trail.undoAll();
+      }
+      return n;
+    };
+  }
+
+  // Enqueues and propagates propagators of all the priorities.
+  private static Benchmark.Iteration propagate() {
+    PropagationQueue pQueue = new PropagationQueue();
+    Propagator[] propagators = new Propagator[50];
+    for (int i = 0; i < propagators.length; i++) {
+      propagators[i] = new Empty(Priority.values()[i % Priority.values().length]);
+    }
+    return () -> {
+      long n = 0;
+      for (int r = 0; r < REPEAT; r++) {
+        for (Propagator propagator : propagators) {
+          pQueue.enqueue(propagator);
+        }
+        pQueue.propagate();
+        n += propagators.length;
+      }
+      return n;
+    };
+  }
+
+  // Propagates a sum of 50 terms after each update of the bound of a term.
+  private static Benchmark.Iteration sum() {
+    Trail trail = new Trail();
+    PropagationQueue pQueue = new PropagationQueue();
+    IntVar[] terms = new IntVar[50];
+    for (int i = 0; i < terms.length; i++) {
+      terms[i] = new IntVarImpl(pQueue, trail, 0, 10);
+    }
+    IntVar sum = new IntVarImpl(pQueue, trail, 0, 250);
+    new Sum(terms, sum, 0).setup();
+    pQueue.propagate();
+    return () -> {
+      long n = 0;
+      for (int r = 0; r < REPEAT; r++) {
+        trail.newLevel();
+        for (int i = 0; i < terms.length; i += 5) {
+          terms[i].updateMin(5);
+          pQueue.propagate();
+          n++;
+        }
+        trail.undoLevel();
+      }
+      return n;
+    };
+  }
+
+  // Propagates an all-different of 50 variables after each assignment.
+  private static Benchmark.Iteration allDifferent() {
+    Trail trail = new Trail();
+    PropagationQueue pQueue = new PropagationQueue();
+    IntVar[] variables = new IntVar[50];
+    for (int i = 0; i < variables.length; i++) {
+      variables[i] = new IntVarImpl(pQueue, trail, 0, 99);
+    }
+    new AllDifferent(variables).setup();
+    pQueue.propagate();
+    return () -> {
+      long n = 0;
+      for (int r = 0; r < REPEAT / 10; r++) {
+        trail.newLevel();
+        for (int i = 0; i < variables.length; i++) {
+          variables[i].assign(2 * i);
+          pQueue.propagate();
+          n++;
+        }
+        trail.undoLevel();
+      }
+      return n;
+    };
+  }
+
+  // A propagator that does nothing, used to measure the queue overhead.
+  private static class Empty extends Propagator {
+
+    private final Priority priority;
+
+    Empty(Priority priority) {
+      this.priority = priority;
+    }
+
+    @Override
+    public Priority priority() {
+      return priority;
+    }
+
+    @Override
+    public boolean setup() {
+      return true;
+    }
+
+    @Override
+    public boolean propagate() {
+      return true;
+    }
+  }
+}
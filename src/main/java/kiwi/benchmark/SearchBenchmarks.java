@@ -0,0 +1,213 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.benchmark;
+
+import static kiwi.modeling.Constraints.allDifferent;
+import static kiwi.modeling.Constraints.lower;
+import static kiwi.modeling.Constraints.sum;
+import static kiwi.modeling.Constraints.table;
+import static kiwi.modeling.Heuristics.binaryFirstFail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import kiwi.Solver;
+import kiwi.example.NQueens;
+import kiwi.modeling.Consistency;
+import kiwi.search.Objective;
+import kiwi.variable.IntVar;
+
+/**
+ * Node throughput of {@code DFSearch} on classic problems.
+ * 
+ * <p>
+ * Each iteration explores the first nodes of the search tree of a fresh 
+ * model, built by the setup, and reports the number of explored nodes. The
+ * n-queens problem is also entirely explored with the different modes of the
+ * trail, which explore the same tree.
+ * </p>
+ * 
+ * <p>
+ * The all different benchmarks compare the consistencies of the constraint,
+ * which explore different trees: they report the number of complete 
+ * searches instead of the number of nodes.
+ * </p>
+ */
+public class SearchBenchmarks {
+
+  public static List<Benchmark> all() {
+    List<Benchmark> benchmarks = new ArrayList<>();
+    benchmarks.add(Benchmark.of("search.queens-12", 
+        () -> solve(queens(new Solver(), 12, Consistency.VALUE), 200000)));
+    benchmarks.add(Benchmark.of("search.queens-10-object", 
+        () -> solve(queens(new Solver(false), 10, Consistency.VALUE), Integer.MAX_VALUE)));
+    benchmarks.add(Benchmark.of("search.queens-10-primitive", 
+        () -> solve(queens(new Solver(true), 10, Consistency.VALUE), Integer.MAX_VALUE)));
+    for (int interval : new int[]{1, 4, 16}) {
+      benchmarks.add(Benchmark.of("search.queens-10-copying-" + interval, () -> {
+        Solver solver = new Solver(true);
+        solver.trail().setSnapshotInterval(interval);
+        return solve(queens(solver, 10, Consistency.VALUE), Integer.MAX_VALUE);
+      }));
+    }
+    benchmarks.add(Benchmark.of("search.golomb-9", 
+        () -> solve(golomb(9, Consistency.BOUNDS), 50000)));
+    benchmarks.add(Benchmark.of("search.magic-square-4", () -> solve(magicSquare(4), 100000)));
+    benchmarks.add(Benchmark.of("search.random-csp-30", 
+        () -> solve(randomCsp(30, 10, 0.25, 0.4, 0), 10000)));
+    for (Consistency consistency : Consistency.values()) {
+      String suffix = "-" + consistency.name().toLowerCase(Locale.ROOT);
+      benchmarks.add(Benchmark.of("alldifferent.queens-10" + suffix, 
+          () -> complete(queens(new Solver(), 10, consistency))));
+      benchmarks.add(Benchmark.of("alldifferent.pigeons-8" + suffix, 
+          () -> complete(pigeons(8, consistency))));
+      benchmarks.add(Benchmark.of("alldifferent.golomb-8" + suffix, 
+          () -> complete(golomb(8, consistency))));
+    }
+    return benchmarks;
+  }
+
+  // A model and its decision variables.
+  private static class Model {
+    final Solver solver;
+    final IntVar[] variables;
+
+    Model(Solver solver, IntVar[] variables) {
+      this.solver = solver;
+      this.variables = variables;
+    }
+  }
+
+  // Explores the first nodes of the search tree of the model.
+  private static Benchmark.Iteration solve(Model model, int nodes) {
+    return () -> model.solver.solve(binaryFirstFail(model.variables), 
+        s -> s.nNodes >= nodes).nNodes;
+  }
+
+  // Explores the whole search tree of the model, counted as one operation.
+  private static Benchmark.Iteration complete(Model model) {
+    return () -> {
+      model.solver.solve(binaryFirstFail(model.variables));
+      return 1;
+    };
+  }
+
+  private static Model queens(Solver solver, int n, Consistency consistency) {
+    return new Model(solver, NQueens.model(solver, n, consistency));
+  }
+
+  // Places n + 1 pigeons in n holes.
+  private static Model pigeons(int n, Consistency consistency) {
+    Solver solver = new Solver();
+    IntVar[] pigeons = new IntVar[n + 1];
+    for (int i = 0; i <= n; i++) {
+      pigeons[i] = solver.intVar(0, n - 1);
+    }
+    solver.add(allDifferent(pigeons, consistency));
+    return new Model(solver, pigeons);
+  }
+
+  // Minimizes the length of a ruler with n marks whose pairwise distances 
+  // are all different.
+  private static Model golomb(int n, Consistency consistency) {
+    Solver solver = new Solver();
+    int maxLength = n * n;
+    IntVar[] marks = new IntVar[n];
+    marks[0] = solver.intVar(0);
+    for (int i = 1; i < n; i++) {
+      marks[i] = solver.intVar(0, maxLength);
+      solver.add(lower(marks[i - 1], marks[i]));
+    }
+    IntVar[] distances = new IntVar[n * (n - 1) / 2];
+    int k = 0;
+    for (int i = 0; i < n; i++) {
+      for (int j = i + 1; j < n; j++) {
+        distances[k] = solver.intVar(1, maxLength);
+        solver.add(sum(new IntVar[]{marks[i], distances[k]}, marks[j], 0));
+        k++;
+      }
+    }
+    solver.add(allDifferent(distances, consistency));
+    solver.setObjective(new Objective(marks[n - 1], true));
+    return new Model(solver, marks);
+  }
+
+  // Fills an n x n square with the numbers 1 to n^2 such that the rows, the 
+  // columns, and the diagonals have the same sum.
+  private static Model magicSquare(int n) {
+    Solver solver = new Solver();
+    int magic = n * (n * n + 1) / 2;
+    IntVar[][] square = new IntVar[n][n];
+    IntVar[] cells = new IntVar[n * n];
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        square[i][j] = solver.intVar(1, n * n);
+        cells[i * n + j] = square[i][j];
+      }
+    }
+    solver.add(allDifferent(cells));
+    IntVar total = solver.intVar(magic);
+    IntVar[] diagonal1 = new IntVar[n];
+    IntVar[] diagonal2 = new IntVar[n];
+    for (int i = 0; i < n; i++) {
+      IntVar[] column = new IntVar[n];
+      for (int j = 0; j < n; j++) {
+        column[j] = square[j][i];
+      }
+      solver.add(sum(square[i], total, 0));
+      solver.add(sum(column, total, 0));
+      diagonal1[i] = square[i][i];
+      diagonal2[i] = square[i][n - 1 - i];
+    }
+    solver.add(sum(diagonal1, total, 0));
+    solver.add(sum(diagonal2, total, 0));
+    return new Model(solver, cells);
+  }
+
+  // A random binary CSP with n variables of domain size d. Each pair of 
+  // variables is constrained with the given density and each constraint 
+  // forbids the given ratio of pairs of values.
+  private static Model randomCsp(int n, int d, double density, double tightness, long seed) {
+    Random random = new Random(seed);
+    Solver solver = new Solver();
+    IntVar[] variables = new IntVar[n];
+    for (int i = 0; i < n; i++) {
+      variables[i] = solver.intVar(0, d - 1);
+    }
+    for (int i = 0; i < n; i++) {
+      for (int j = i + 1; j < n; j++) {
+        if (random.nextDouble() >= density) {
+          continue;
+        }
+        int[][] tuples = new int[d * d][];
+        int nTuples = 0;
+        for (int a = 0; a < d; a++) {
+          for (int b = 0; b < d; b++) {
+            if (random.nextDouble() >= tightness) {
+              tuples[nTuples++] = new int[]{a, b};
+            }
+          }
+        }
+        IntVar[] scope = new IntVar[]{variables[i], variables[j]};
+        solver.add(table(scope, Arrays.copyOf(tuples, nTuples)));
+      }
+    }
+    return new Model(solver, variables);
+  }
+}
@@ -17,53 +17,111 @@ package kiwi.constraint;
 
 import kiwi.propagation.Propagator;
 import kiwi.trail.TrailedInt;
+import kiwi.variable.EventMask;
 import kiwi.variable.IntVar;
 
+/**
+ * Forward checking propagator of the AllDifferent constraint.
+ * 
+ * <p>
+ * The value of each assigned variable is removed from the domain of the 
+ * unassigned ones. The propagator is told which variables have been assigned
+ * since its last propagation so that a propagation costs the number of 
+ * newly assigned variables times the number of unassigned ones, instead of
+ * a scan of all the variables.
+ * </p>
+ */
 public class AllDifferent extends Propagator {
 
-  private final IntVar[] unassigned;
+  private final IntVar[] variables;
+
+  // Sparse set of the indices of the unassigned variables.
+  private final int[] unassigned;
+  private final int[] positions;
   private final TrailedInt nUnassignedT;
 
+  // Indices of the variables that changed since the last propagation.
+  private final int[] changed;
+  private final boolean[] isChanged;
+  private int nChanged = 0;
+
   public AllDifferent(IntVar[] variables) {
-    unassigned = variables.clone();
-    nUnassignedT = new TrailedInt(unassigned[0].trail(), variables.length);
+    int n = variables.length;
+    this.variables = variables.clone();
+    this.unassigned = new int[n];
+    this.positions = new int[n];
+    for (int i = 0; i < n; i++) {
+      unassigned[i] = i;
+      positions[i] = i;
+    }
+    this.nUnassignedT = new TrailedInt(variables[0].trail(), n);
+    this.changed = new int[n];
+    this.isChanged = new boolean[n];
   }
 
+  @Override
   public boolean setup() {
-    for (int i = 0; i < unassigned.length; i++) {
-      unassigned[i].watchAssign(this);
+    for (int i = 0; i < variables.length; i++) {
+      variables[i].watchAssign(this, i);
+      advise(i, EventMask.ASSIGN);
     }
     return propagate();
   }
 
+  @Override
+  public boolean advise(int index, int events) {
+    if (!isChanged[index]) {
+      isChanged[index] = true;
+      changed[nChanged++] = index;
+    }
+    return true;
+  }
+
+  @Override
   public boolean propagate() {
     int nUnassigned = nUnassignedT.getValue();
-    if (nUnassigned == 1)
-      return true;
-    boolean reduce = true;
-    while (reduce) {
-      reduce = false;
-      for (int i = nUnassigned - 1; i >= 0; i--) {
-        IntVar variable = unassigned[i];
-        if (variable.isAssigned()) {
-          //
-          nUnassigned--;
-          unassigned[i] = unassigned[nUnassigned];
-          unassigned[nUnassigned] = variable;
-          //
-          int value = variable.min();
-          for (int j = 0; j < nUnassigned; j++) {
-            IntVar var = unassigned[j];
-            if (var.contains(value)) {
-              if (!var.remove(value))
-                return false;
-              reduce |= var.isAssigned();
-            }
-          }
+    // Removing values can assign other variables which are then added to 
+    // the changed ones.
+    while (nChanged > 0) {
+      int index = changed[--nChanged];
+      isChanged[index] = false;
+      IntVar variable = variables[index];
+      // The variable might have been unassigned by a backtrack since it
+      // changed, or already be processed.
+      if (!variable.isAssigned() || positions[index] >= nUnassigned) {
+        continue;
+      }
+      nUnassigned--;
+      swap(positions[index], nUnassigned);
+      int value = variable.min();
+      for (int j = 0; j < nUnassigned; j++) {
+        IntVar var = variables[unassigned[j]];
+        if (var.contains(value) && !var.remove(value)) {
+          clearChanged();
+          return false;
         }
       }
     }
     nUnassignedT.setValue(nUnassigned);
+    // The constraint is entailed once at most one variable is unassigned.
+    if (nUnassigned <= 1) {
+      deactivate(variables[0].trail());
+    }
     return true;
   }
+
+  private void swap(int pos1, int pos2) {
+    int id1 = unassigned[pos1];
+    int id2 = unassigned[pos2];
+    unassigned[pos1] = id2;
+    unassigned[pos2] = id1;
+    positions[id1] = pos2;
+    positions[id2] = pos1;
+  }
+
+  private void clearChanged() {
+    while (nChanged > 0) {
+      isChanged[changed[--nChanged]] = false;
+    }
+  }
 }
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.constraint;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import kiwi.propagation.Propagator;
+import kiwi.trail.TrailedInt;
+import kiwi.variable.IntVar;
+
+/**
+ * Bounds consistent all different constraint.
+ * 
+ * <p>
+ * This propagator achieves bounds consistency in O(n log n) by detecting the
+ * Hall intervals of the domains, i.e., intervals that contain as many 
+ * domains as values. The bounds of the domains that are not contained in a
+ * Hall interval are pushed out of it. The sorted orders of the bounds are 
+ * kept between calls and restored with an insertion sort as they usually
+ * change little from one call to the next. The intervals are sorted again
+ * with a merge sort when more than log(n) of them changed, to keep the
+ * O(n log n) bound.
+ * </p>
+ * 
+ * <p>
+ * Bounds consistency does not remove the value of an assigned variable from
+ * the inside of the other domains. The propagator thus also performs the
+ * forward checking of {@code AllDifferent} so that it never prunes less.
+ * </p>
+ * 
+ * Reference: A. Lopez-Ortiz, C.-G. Quimper, J. Tromp, P. van Beek, A fast
+ * and simple algorithm for bounds consistency of the alldifferent 
+ * constraint, IJCAI 2003.
+ */
+public class AllDifferentBC extends Propagator {
+
+  private static final Comparator<Interval> BY_MIN = Comparator.comparingInt(i -> i.min);
+  private static final Comparator<Interval> BY_MAX = Comparator.comparingInt(i -> i.max);
+
+  private final Interval[] intervals;
+  private final Interval[] minSorted;
+  private final Interval[] maxSorted;
+
+  // Sparse set of the variables whose value has not been removed yet from
+  // the other domains.
+  private final IntVar[] unassigned;
+  private final TrailedInt nUnassignedT;
+
+  // Sorted distinct bounds and the union-find like structures of the 
+  // algorithm, indexed by the rank of the bounds.
+  private final int[] bounds;
+  private final int[] t; // tree links
+  private final int[] d; // diffs between critical capacities
+  private final int[] h; // Hall interval links
+  private int nBounds;
+
+  public AllDifferentBC(IntVar[] variables) {
+    int n = variables.length;
+    intervals = new Interval[n];
+    for (int i = 0; i < n; i++) {
+      intervals[i] = new Interval(variables[i]);
+    }
+    minSorted = intervals.clone();
+    maxSorted = intervals.clone();
+    unassigned = variables.clone();
+    nUnassignedT = new TrailedInt(variables[0].trail(), n);
+    bounds = new int[2 * n + 2];
+    t = new int[2 * n + 2];
+    d = new int[2 * n + 2];
+    h = new int[2 * n + 2];
+  }
+
+  @Override
+  public boolean setup() {
+    for (int i = 0; i < intervals.length; i++) {
+      intervals[i].variable.watchBounds(this);
+    }
+    return propagate();
+  }
+
+  @Override
+  public boolean propagate() {
+    if (intervals.length <= 1) {
+      return true;
+    }
+    if (!forwardCheck()) {
+      return false;
+    }
+    int nChanged = 0;
+    for (int i = 0; i < intervals.length; i++) {
+      Interval interval = intervals[i];
+      int min = interval.variable.min();
+      int max = interval.variable.max();
+      if (min != interval.min || max != interval.max) {
+        interval.min = min;
+        interval.max = max;
+        nChanged++;
+      }
+    }
+    sort(nChanged);
+    // Changes made by a filtering awake this propagator again so that the 
+    // fixed point is reached by the propagation queue.
+    return filterLower() && filterUpper();
+  }
+
+  // Removes the value of the assigned variables from the other domains.
+  private boolean forwardCheck() {
+    int nUnassigned = nUnassignedT.getValue();
+    for (int i = nUnassigned - 1; i >= 0; i--) {
+      IntVar variable = unassigned[i];
+      if (variable.isAssigned()) {
+        nUnassigned--;
+        unassigned[i] = unassigned[nUnassigned];
+        unassigned[nUnassigned] = variable;
+        int value = variable.min();
+        for (int j = 0; j < nUnassigned; j++) {
+          if (!unassigned[j].remove(value)) {
+            return false;
+          }
+        }
+        // Removals might have assigned variables that were already visited.
+        i = nUnassigned;
+      }
+    }
+    nUnassignedT.setValue(nUnassigned);
+    return true;
+  }
+
+  // Sorts the intervals and computes the ranks of their bounds. The insertion
+  // sort takes O(n) per changed interval.
+  private void sort(int nChanged) {
+    int n = intervals.length;
+    if (nChanged > 31 - Integer.numberOfLeadingZeros(n)) {
+      Arrays.sort(minSorted, BY_MIN);
+      Arrays.sort(maxSorted, BY_MAX);
+    } else {
+      insertionSort(minSorted, true);
+      insertionSort(maxSorted, false);
+    }
+    int min = minSorted[0].min;
+    int max = maxSorted[0].max + 1;
+    int last = min - 2;
+    int nb = 0;
+    bounds[0] = last;
+    int i = 0;
+    int j = 0;
+    while (true) {
+      if (i < n && min <= max) {
+        if (min != last) {
+          bounds[++nb] = last = min;
+        }
+        minSorted[i].minRank = nb;
+        if (++i < n) {
+          min = minSorted[i].min;
+        }
+      } else {
+        if (max != last) {
+          bounds[++nb] = last = max;
+        }
+        maxSorted[j].maxRank = nb;
+        if (++j == n) {
+          break;
+        }
+        max = maxSorted[j].max + 1;
+      }
+    }
+    nBounds = nb;
+    bounds[nb + 1] = bounds[nb] + 2;
+  }
+
+  private boolean filterLower() {
+    for (int i = 1; i <= nBounds + 1; i++) {
+      t[i] = h[i] = i - 1;
+      d[i] = bounds[i] - bounds[i - 1];
+    }
+    for (int i = 0; i < maxSorted.length; i++) {
+      Interval interval = maxSorted[i];
+      int x = interval.minRank;
+      int y = interval.maxRank;
+      int z = pathMax(t, x + 1);
+      int j = t[z];
+      if (--d[z] == 0) {
+        t[z] = z + 1;
+        z = pathMax(t, t[z]);
+        t[z] = j;
+      }
+      pathSet(t, x + 1, z, z);
+      if (d[z] < bounds[z] - bounds[y]) {
+        return false; // more variables than values
+      }
+      if (h[x] > x) {
+        int w = pathMax(h, h[x]);
+        if (!interval.variable.updateMin(bounds[w])) {
+          return false;
+        }
+        pathSet(h, x, w, w);
+      }
+      if (d[z] == bounds[z] - bounds[y]) {
+        pathSet(h, h[y], j - 1, y); // found a Hall interval
+        h[y] = j - 1;
+      }
+    }
+    return true;
+  }
+
+  private boolean filterUpper() {
+    for (int i = 0; i <= nBounds; i++) {
+      t[i] = h[i] = i + 1;
+      d[i] = bounds[i + 1] - bounds[i];
+    }
+    for (int i = minSorted.length - 1; i >= 0; i--) {
+      Interval interval = minSorted[i];
+      int x = interval.maxRank;
+      int y = interval.minRank;
+      int z = pathMin(t, x - 1);
+      int j = t[z];
+      if (--d[z] == 0) {
+        t[z] = z - 1;
+        z = pathMin(t, t[z]);
+        t[z] = j;
+      }
+      pathSet(t, x - 1, z, z);
+      if (d[z] < bounds[y] - bounds[z]) {
+        return false; // more variables than values
+      }
+      if (h[x] < x) {
+        int w = pathMin(h, h[x]);
+        if (!interval.variable.updateMax(bounds[w] - 1)) {
+          return false;
+        }
+        pathSet(h, x, w, w);
+      }
+      if (d[z] == bounds[y] - bounds[z]) {
+        pathSet(h, h[y], j + 1, y); // found a Hall interval
+        h[y] = j + 1;
+      }
+    }
+    return true;
+  }
+
+  private static void pathSet(int[] links, int start, int end, int to) {
+    int k;
+    int l = start;
+    while ((k = l) != end) {
+      l = links[k];
+      links[k] = to;
+    }
+  }
+
+  private static int pathMin(int[] links, int i) {
+    while (links[i] < i) {
+      i = links[i];
+    }
+    return i;
+  }
+
+  private static int pathMax(int[] links, int i) {
+    while (links[i] > i) {
+      i = links[i];
+    }
+    return i;
+  }
+
+  private static void insertionSort(Interval[] array, boolean byMin) {
+    for (int i = 1; i < array.length; i++) {
+      Interval interval = array[i];
+      int key = byMin ? interval.min : interval.max;
+      int j = i - 1;
+      while (j >= 0 && (byMin ? array[j].min : array[j].max) > key) {
+        array[j + 1] = array[j];
+        j--;
+      }
+      array[j + 1] = interval;
+    }
+  }
+
+  private static final class Interval {
+    final IntVar variable;
+    int min;
+    int max;
+    int minRank;
+    int maxRank;
+
+    Interval(IntVar variable) {
+      this.variable = variable;
+    }
+  }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.constraint;
+
+import java.util.Arrays;
+
+import kiwi.propagation.Priority;
+import kiwi.propagation.Propagator;
+import kiwi.variable.IntVar;
+
+/**
+ * Domain consistent all different constraint.
+ * 
+ * <p>
+ * This propagator maintains a maximum matching between the variables and the
+ * values of their domains. A value can be assigned to a variable if and only
+ * if the corresponding edge belongs to some maximum matching, which is the
+ * case if the edge is in the matching or if both ends are in the same 
+ * strongly connected component of the residual graph. Other values are
+ * removed.
+ * </p>
+ * 
+ * <p>
+ * The matching is repaired incrementally: only the variables whose matched
+ * value has been removed are matched again with augmenting paths. The
+ * matching is not restored on backtrack since backtracking only extends the
+ * domains and thus keeps the matching valid and maximum.
+ * </p>
+ * 
+ * Reference: J.-C. Regin, A filtering algorithm for constraints of 
+ * difference in CSPs, AAAI 1994.
+ */
+public class AllDifferentDC extends Propagator {
+
+  // Unmatched variables and values.
+  private static final int NO_VALUE = Integer.MIN_VALUE;
+  private static final int NONE = -1;
+
+  private final IntVar[] variables;
+  private final int nVariables;
+  private final int minValue;
+  private final int nValues;
+
+  // The matching.
+  private final int[] varToVal;
+  private final int[] valToVar;
+
+  // Copies of the domains, refreshed at each propagation.
+  private final int[][] domains;
+  private final int[] sizes;
+
+  // Augmenting paths.
+  private final int[] valStamps;
+  private int stamp = 0;
+
+  // Residual graph: variables, then values, then a sink linked to the free
+  // values. Tarjan's algorithm is iterative to support large instances.
+  private final int nNodes;
+  private final int sink;
+  private final int[] index;
+  private final int[] lowLink;
+  private final int[] component;
+  private final boolean[] onStack;
+  private final int[] stack;
+  private final int[] callStack;
+  private final int[] edgeIds;
+
+  public AllDifferentDC(IntVar[] variables) {
+    this.variables = variables.clone();
+    this.nVariables = variables.length;
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    int maxSize = 0;
+    for (int i = 0; i < nVariables; i++) {
+      min = Math.min(min, variables[i].min());
+      max = Math.max(max, variables[i].max());
+      maxSize = Math.max(maxSize, variables[i].size());
+    }
+    this.minValue = min;
+    this.nValues = nVariables == 0 ? 0 : max - min + 1;
+    this.varToVal = new int[nVariables];
+    this.valToVar = new int[nValues];
+    this.domains = new int[nVariables][maxSize];
+    this.sizes = new int[nVariables];
+    this.valStamps = new int[nValues];
+    this.nNodes = nVariables + nValues + 1;
+    this.sink = nNodes - 1;
+    this.index = new int[nNodes];
+    this.lowLink = new int[nNodes];
+    this.component = new int[nNodes];
+    this.onStack = new boolean[nNodes];
+    this.stack = new int[nNodes];
+    this.callStack = new int[nNodes];
+    this.edgeIds = new int[nNodes];
+    Arrays.fill(varToVal, NO_VALUE);
+    Arrays.fill(valToVar, NONE);
+    // The pruning is complete after each propagation.
+    this.idempotent = true;
+  }
+
+  @Override
+  public Priority priority() {
+    return Priority.QUADRATIC;
+  }
+
+  @Override
+  public boolean setup() {
+    for (int i = 0; i < nVariables; i++) {
+      variables[i].watchChange(this);
+    }
+    return propagate();
+  }
+
+  @Override
+  public boolean propagate() {
+    if (nVariables <= 1) {
+      return true;
+    }
+    for (int i = 0; i < nVariables; i++) {
+      sizes[i] = variables[i].copyDomain(domains[i]);
+    }
+    if (!repairMatching()) {
+      return false;
+    }
+    computeComponents();
+    for (int i = 0; i < nVariables; i++) {
+      int[] domain = domains[i];
+      for (int j = 0; j < sizes[i]; j++) {
+        int value = domain[j];
+        if (value != varToVal[i] && component[i] != component[valueNode(value)]) {
+          if (!variables[i].remove(value)) {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  private int valueNode(int value) {
+    return nVariables + value - minValue;
+  }
+
+  private boolean repairMatching() {
+    // Unmatch the variables whose value has been removed.
+    for (int i = 0; i < nVariables; i++) {
+      int value = varToVal[i];
+      if (value != NO_VALUE && !variables[i].contains(value)) {
+        varToVal[i] = NO_VALUE;
+        valToVar[value - minValue] = NONE;
+      }
+    }
+    // Match them again.
+    for (int i = 0; i < nVariables; i++) {
+      if (varToVal[i] == NO_VALUE) {
+        stamp++;
+        if (!augment(i)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  // Searches for an augmenting path from the unmatched variable.
+  private boolean augment(int var) {
+    int[] domain = domains[var];
+    int size = sizes[var];
+    // Prefer a free value.
+    for (int j = 0; j < size; j++) {
+      int value = domain[j];
+      if (valToVar[value - minValue] == NONE) {
+        match(var, value);
+        return true;
+      }
+    }
+    for (int j = 0; j < size; j++) {
+      int value = domain[j];
+      int id = value - minValue;
+      if (valStamps[id] != stamp) {
+        valStamps[id] = stamp;
+        if (augment(valToVar[id])) {
+          match(var, value);
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private void match(int var, int value) {
+    varToVal[var] = value;
+    valToVar[value - minValue] = var;
+  }
+
+  // Returns the number of successors of the node in the residual graph.
+  private int nEdges(int node) {
+    if (node < nVariables) {
+      return sizes[node]; // the matched value is skipped
+    } else if (node == sink) {
+      return nValues;
+    } else {
+      return 1;
+    }
+  }
+
+  // Returns the k-th successor of the node or -1 if there is none.
+  private int edge(int node, int k) {
+    if (node < nVariables) {
+      // Variable to the values of its domain, but the matched one.
+      int value = domains[node][k];
+      return value == varToVal[node] ? -1 : valueNode(value);
+    } else if (node == sink) {
+      // Sink to the matched values.
+      return valToVar[k] == NONE ? -1 : nVariables + k;
+    } else {
+      // Matched value to its variable, free value to the sink.
+      int var = valToVar[node - nVariables];
+      return var == NONE ? sink : var;
+    }
+  }
+
+  private void computeComponents() {
+    Arrays.fill(index, -1);
+    int nextIndex = 0;
+    int stackSize = 0;
+    for (int root = 0; root < nNodes; root++) {
+      if (index[root] != -1) {
+        continue;
+      }
+      int callSize = 0;
+      callStack[callSize++] = root;
+      edgeIds[root] = 0;
+      index[root] = lowLink[root] = nextIndex++;
+      stack[stackSize++] = root;
+      onStack[root] = true;
+      while (callSize > 0) {
+        int node = callStack[callSize - 1];
+        if (edgeIds[node] < nEdges(node)) {
+          int next = edge(node, edgeIds[node]++);
+          if (next == -1) {
+            continue;
+          }
+          if (index[next] == -1) {
+            // Visit the successor.
+            edgeIds[next] = 0;
+            index[next] = lowLink[next] = nextIndex++;
+            stack[stackSize++] = next;
+            onStack[next] = true;
+            callStack[callSize++] = next;
+          } else if (onStack[next]) {
+            lowLink[node] = Math.min(lowLink[node], index[next]);
+          }
+        } else {
+          // All the successors have been visited.
+          callSize--;
+          if (lowLink[node] == index[node]) {
+            int member;
+            do {
+              member = stack[--stackSize];
+              onStack[member] = false;
+              component[member] = node;
+            } while (member != node);
+          }
+          if (callSize > 0) {
+            int parent = callStack[callSize - 1];
+            lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+          }
+        }
+      }
+    }
+  }
+}
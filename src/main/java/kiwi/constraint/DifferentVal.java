@@ -15,6 +15,7 @@
  */
 package kiwi.constraint;
 
+import kiwi.propagation.Priority;
 import kiwi.propagation.Propagator;
 import kiwi.variable.IntVar;
 
@@ -28,6 +29,11 @@ public class DifferentVal extends Propagator {
     this.k = k;
   }
 
+  @Override
+  public Priority priority() {
+    return Priority.UNARY;
+  }
+
   @Override 
   public boolean setup() {
     return x.remove(k);
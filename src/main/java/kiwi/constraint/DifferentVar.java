@@ -15,6 +15,7 @@
  */
 package kiwi.constraint;
 
+import kiwi.propagation.Priority;
 import kiwi.propagation.Propagator;
 import kiwi.variable.IntVar;
 
@@ -29,6 +30,11 @@ public class DifferentVar extends Propagator {
     this.y = y;
   }
   
+  @Override
+  public Priority priority() {
+    return Priority.BINARY;
+  }
+
   public boolean setup() {
     x.watchAssign(this);
     y.watchAssign(this);
@@ -37,11 +43,22 @@ public class DifferentVar extends Propagator {
   
   public boolean propagate() {
     if (x.isAssigned()) {
-      return y.remove(x.min());
+      return y.remove(x.min()) && entailed(y, x.min());
     } 
     if (y.isAssigned()) {
-      return x.remove(y.min());
+      return x.remove(y.min()) && entailed(x, y.min());
+    }
+    return true;
+  }
+
+  // The constraint is entailed once one variable is assigned and its value
+  // removed from the other one. Interval variables keep their inner values,
+  // in which case the constraint stays active until the other variable is
+  // assigned.
+  private boolean entailed(IntVar other, int value) {
+    if (!other.contains(value)) {
+      deactivate(x.trail());
     }
-    return false;
+    return true;
   }
 }
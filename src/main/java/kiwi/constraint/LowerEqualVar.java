@@ -15,6 +15,7 @@
  */
 package kiwi.constraint;
 
+import kiwi.propagation.Priority;
 import kiwi.propagation.Propagator;
 import kiwi.variable.IntVar;
 
@@ -30,15 +31,34 @@ public class LowerEqualVar extends Propagator {
     this.k = strict ? 1 : 0;
   }
 
+  @Override
+  public Priority priority() {
+    return Priority.BINARY;
+  }
+
   @Override 
   public boolean setup() {
-    x.watchBounds(this);
-    y.watchBounds(this);
+    x.watchBounds(this, 0);
+    y.watchBounds(this, 1);
     return propagate();
   }
+
+  @Override
+  public boolean advise(int index, int events) {
+    // Only the minimum of x and the maximum of y are propagated.
+    return index == 0 ? x.min() + k > y.min() : y.max() - k < x.max();
+  }
   
   @Override 
   public boolean propagate() {
-    return x.updateMax(y.max() - k) && y.updateMin(x.min() + k);
+    if (!x.updateMax(y.max() - k) || !y.updateMin(x.min() + k)) {
+      return false;
+    }
+    // The constraint is entailed if all the values of x are lower than the
+    // values of y.
+    if (x.max() + k <= y.min()) {
+      deactivate(x.trail());
+    }
+    return true;
   }
 }
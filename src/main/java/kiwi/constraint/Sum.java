@@ -17,64 +17,112 @@ package kiwi.constraint;
 
 import kiwi.propagation.Propagator;
 import kiwi.trail.TrailedInt;
+import kiwi.variable.EventMask;
 import kiwi.variable.IntVar;
 
+/**
+ * Bounds consistent propagator of the constraint 
+ * {@code sum(terms) + offset = sum}.
+ * 
+ * <p>
+ * The propagator maintains the sums of the minimum and maximum values of the
+ * terms incrementally: it is advised of which term changed and updates the 
+ * sums with the difference between the new and the last bounds of that term.
+ * The terms are only scanned when their bounds can actually be filtered, 
+ * which is detected with the largest difference between the bounds of a 
+ * term, recorded by the last scan. The propagator is not even scheduled if
+ * neither the sum nor the terms can be filtered.
+ * </p>
+ */
 public class Sum extends Propagator {
 
   private final IntVar sum;
-  private final IntVar[] assigned;
-  private final TrailedInt nAssignedT;
-  private final TrailedInt sumAssignedT;
+  private final IntVar[] terms;
+
+  // The last bounds of each term and their sums, offset included.
+  private final TrailedInt[] minsT;
+  private final TrailedInt[] maxsT;
+  private final TrailedInt sumMinT;
+  private final TrailedInt sumMaxT;
+
+  // An upper bound on the largest difference between the bounds of a term.
+  private final TrailedInt maxDiffT;
 
   public Sum(IntVar[] variables, IntVar sum, int offset) {
     this.sum = sum;
-    this.assigned = variables.clone();
-    this.nAssignedT = new TrailedInt(sum.trail(), 0);
-    this.sumAssignedT = new TrailedInt(sum.trail(), offset);
+    this.terms = variables.clone();
+    this.minsT = new TrailedInt[terms.length];
+    this.maxsT = new TrailedInt[terms.length];
+    int sumMin = offset;
+    int sumMax = offset;
+    int maxDiff = 0;
+    for (int i = 0; i < terms.length; i++) {
+      int min = terms[i].min();
+      int max = terms[i].max();
+      minsT[i] = new TrailedInt(sum.trail(), min);
+      maxsT[i] = new TrailedInt(sum.trail(), max);
+      sumMin += min;
+      sumMax += max;
+      maxDiff = Math.max(maxDiff, max - min);
+    }
+    this.sumMinT = new TrailedInt(sum.trail(), sumMin);
+    this.sumMaxT = new TrailedInt(sum.trail(), sumMax);
+    this.maxDiffT = new TrailedInt(sum.trail(), maxDiff);
   }
 
+  @Override
   public boolean setup() {
-    sum.watchBounds(this);
-    for (int i = 0; i < assigned.length; i++) {
-      assigned[i].watchBounds(this);
+    sum.watchBounds(this, terms.length);
+    for (int i = 0; i < terms.length; i++) {
+      terms[i].watchBounds(this, i);
+      advise(i, EventMask.BOUNDS);
     }
     return propagate();
   }
 
-  public boolean propagate() {
-    // Cache trailed values for fast access and update.
-    int nAssigned = nAssignedT.getValue();
-    int sumAssigned = sumAssignedT.getValue();
+  @Override
+  public boolean advise(int index, int events) {
+    if (index < terms.length) {
+      updateSums(index);
+    }
+    // Skip the propagation if it cannot filter anything.
+    int sumTermsMin = sumMinT.getValue();
+    int sumTermsMax = sumMaxT.getValue();
+    int sumMin = sum.min();
+    int sumMax = sum.max();
+    int maxDiff = maxDiffT.getValue();
+    return sumTermsMin > sumMin || sumTermsMax < sumMax 
+        || sumTermsMax - maxDiff < sumMin || sumTermsMin + maxDiff > sumMax;
+  }
+
+  // Updates the sums of the bounds with the new bounds of the term.
+  private void updateSums(int index) {
+    IntVar term = terms[index];
+    int min = term.min();
+    int lastMin = minsT[index].getValue();
+    if (min != lastMin) {
+      minsT[index].setValue(min);
+      sumMinT.setValue(sumMinT.getValue() + min - lastMin);
+    }
+    int max = term.max();
+    int lastMax = maxsT[index].getValue();
+    if (max != lastMax) {
+      maxsT[index].setValue(max);
+      sumMaxT.setValue(sumMaxT.getValue() + max - lastMax);
+    }
+  }
 
+  @Override
+  public boolean propagate() {
     // Repeat until the propagator reaches its fixed-point.
     boolean reduce = true;
     while (reduce) {
       reduce = false;
 
-      int sumTermsMin = sumAssigned;
-      int sumTermsMax = sumAssigned;
-      int maxDiff = 0;
-
-      // Update the set of assigned variables and compute the sum
-      // of the minimum and maximum values of all the variables.
-      for (int i = nAssigned; i < assigned.length; i++) {
-        IntVar term = assigned[i];
-        int min = term.min();
-        int max = term.max();
-        sumTermsMin += min;
-        sumTermsMax += max;
-        int diff = max - min;
-        if (diff == 0) {
-          sumAssigned += min;
-          // The term is assigned we thus include it in the
-          // range [0, nAssigned[.
-          assigned[i] = assigned[nAssigned];
-          assigned[nAssigned] = term;
-          nAssigned++;
-          continue;
-        }
-        maxDiff = Math.max(maxDiff, diff);
-      }
+      // The sums are kept up to date by advise, also when this propagator 
+      // filters the terms.
+      int sumTermsMin = sumMinT.getValue();
+      int sumTermsMax = sumMaxT.getValue();
 
       // We update the sum variable to be contained in the range
       // made by the sum of all the minimum and all the maximum.
@@ -87,37 +135,41 @@ public class Sum extends Propagator {
       // the range [sumTermsMin, sumTermsMax].
       int sumMax = sum.max();
       int sumMin = sum.min();
+      int maxDiff = maxDiffT.getValue();
 
-      if (sumTermsMax - maxDiff < sumMin) {
-        for (int i = nAssigned; i < assigned.length; i++) {
-          IntVar term = assigned[i];
-          int oldMin = term.min();
-          int newMin = sumMin - sumTermsMax + term.max();
-          if (newMin > oldMin) {
-            if (!term.updateMin(newMin))
-              return false;
-            reduce |= newMin != term.min();
-          }
-        }
+      // No term can be filtered if the slack of the sum is larger than the
+      // difference between the bounds of each term.
+      if (sumTermsMax - maxDiff >= sumMin && sumTermsMin + maxDiff <= sumMax) {
+        break;
       }
 
-      if (sumTermsMin - maxDiff > sumMax) {
-        for (int i = nAssigned; i < assigned.length; i++) {
-          IntVar term = assigned[i];
-          int oldMax = term.max();
-          int newMax = sumMax - sumTermsMin + term.min();
-          if (newMax < oldMax) {
-            if (!term.updateMax(newMax))
-              return false;
-            reduce |= newMax != term.max();
-          }
+      maxDiff = 0;
+      for (int i = 0; i < terms.length; i++) {
+        IntVar term = terms[i];
+        int min = term.min();
+        int max = term.max();
+        int newMin = sumMin - sumTermsMax + max;
+        if (newMin > min) {
+          if (!term.updateMin(newMin))
+            return false;
+          reduce |= newMin != term.min();
         }
+        int newMax = sumMax - sumTermsMin + min;
+        if (newMax < max) {
+          if (!term.updateMax(newMax))
+            return false;
+          reduce |= newMax != term.max();
+        }
+        maxDiff = Math.max(maxDiff, term.max() - term.min());
       }
+      maxDiffT.setValue(maxDiff);
+    }
+    // The constraint is entailed once all the terms are assigned and the sum
+    // is assigned to their sum.
+    int total = sumMinT.getValue();
+    if (total == sumMaxT.getValue() && sum.min() == total && sum.max() == total) {
+      deactivate(sum.trail());
     }
-
-    // Save the updated trailed values.
-    nAssignedT.setValue(nAssigned);
-    sumAssignedT.setValue(sumAssigned);
     return true;
   }
 }
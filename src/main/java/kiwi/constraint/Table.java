@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.constraint;
+
+import kiwi.propagation.Priority;
+import kiwi.propagation.Propagator;
+import kiwi.trail.TrailedInt;
+import kiwi.trail.TrailedSparseBitSet;
+import kiwi.variable.IntVar;
+
+/**
+ * Extensional constraint implemented with Compact-Table.
+ * 
+ * <p>
+ * The propagator maintains the set of tuples that are still valid in a
+ * trailed sparse bitset. Each pair of variable and value is associated to
+ * the mask of the tuples in which it appears. When the domain of a variable
+ * changes, the set is intersected either with the union of the masks of the
+ * removed values (complemented) or with the union of the masks of the 
+ * remaining values, depending on which is smaller. A value is then removed
+ * if its mask does not intersect the set anymore. The last intersecting word
+ * of each value, its residue, is checked first.
+ * </p>
+ * 
+ * Reference: J. Demeulenaere, R. Hartert, C. Lecoutre, G. Perez, L. Perron,
+ * J.-C. Regin, P. Schaus, Compact-Table: Efficiently Filtering Table 
+ * Constraints with Reversible Sparse Bit-Sets, CP 2016.
+ */
+public class Table extends Propagator {
+
+  private final IntVar[] variables;
+  private final int[] offsets;
+
+  // supports[i][v - offsets[i]] is the mask of the tuples in which the i-th
+  // variable takes value v, or null if there is none.
+  private final long[][][] supports;
+  private final int[][] residues;
+
+  private final TrailedSparseBitSet validTuples;
+  private final TrailedInt[] lastSizes;
+  private final int[] values;
+
+  public Table(IntVar[] variables, int[][] tuples) {
+    int arity = variables.length;
+    this.variables = variables.clone();
+    this.offsets = new int[arity];
+
+    // Keep only the tuples that are valid with respect to the initial domains.
+    int nTuples = 0;
+    int[][] filtered = new int[tuples.length][];
+    for (int[] tuple : tuples) {
+      if (isValid(variables, tuple)) {
+        filtered[nTuples++] = tuple;
+      }
+    }
+
+    int nWords = (nTuples + 63) >>> 6;
+    int maxSize = 0;
+    this.supports = new long[arity][][];
+    this.residues = new int[arity][];
+    for (int i = 0; i < arity; i++) {
+      offsets[i] = variables[i].min();
+      int range = variables[i].max() - offsets[i] + 1;
+      supports[i] = new long[range][];
+      residues[i] = new int[range];
+      maxSize = Math.max(maxSize, variables[i].size());
+    }
+    for (int t = 0; t < nTuples; t++) {
+      for (int i = 0; i < arity; i++) {
+        int id = filtered[t][i] - offsets[i];
+        if (supports[i][id] == null) {
+          supports[i][id] = new long[nWords];
+        }
+        supports[i][id][t >>> 6] |= 1L << t;
+      }
+    }
+
+    this.validTuples = new TrailedSparseBitSet(variables[0].trail(), nTuples);
+    this.lastSizes = new TrailedInt[arity];
+    for (int i = 0; i < arity; i++) {
+      lastSizes[i] = new TrailedInt(variables[0].trail(), variables[i].size());
+    }
+    this.values = new int[maxSize];
+  }
+
+  @Override
+  public Priority priority() {
+    return Priority.QUADRATIC;
+  }
+
+  @Override
+  public boolean setup() {
+    for (int i = 0; i < variables.length; i++) {
+      variables[i].watchChange(this);
+    }
+    return propagate();
+  }
+
+  @Override
+  public boolean propagate() {
+    return updateTable() && filterDomains();
+  }
+
+  // Removes the tuples that are no longer valid.
+  private boolean updateTable() {
+    for (int i = 0; i < variables.length; i++) {
+      IntVar variable = variables[i];
+      int lastSize = lastSizes[i].getValue();
+      int size = variable.size();
+      if (size == lastSize) {
+        continue;
+      }
+      long[][] varSupports = supports[i];
+      int offset = offsets[i];
+      validTuples.clearMask();
+      if (lastSize - size < size) {
+        // Incremental update from the removed values.
+        int nRemoved = variable.copyDelta(values, lastSize);
+        for (int j = 0; j < nRemoved; j++) {
+          long[] support = varSupports[values[j] - offset];
+          if (support != null) {
+            validTuples.addToMask(support);
+          }
+        }
+        validTuples.reverseMask();
+      } else {
+        // Reset update from the remaining values.
+        variable.copyDomain(values);
+        for (int j = 0; j < size; j++) {
+          long[] support = varSupports[values[j] - offset];
+          if (support != null) {
+            validTuples.addToMask(support);
+          }
+        }
+      }
+      validTuples.intersectWithMask();
+      if (validTuples.isEmpty()) {
+        return false;
+      }
+      lastSizes[i].setValue(size);
+    }
+    return true;
+  }
+
+  // Removes the values that have no valid tuple.
+  private boolean filterDomains() {
+    for (int i = 0; i < variables.length; i++) {
+      IntVar variable = variables[i];
+      long[][] varSupports = supports[i];
+      int[] varResidues = residues[i];
+      int offset = offsets[i];
+      int size = variable.copyDomain(values);
+      for (int j = 0; j < size; j++) {
+        int id = values[j] - offset;
+        long[] support = varSupports[id];
+        if (support != null && validTuples.intersects(support, varResidues[id])) {
+          continue;
+        }
+        int wordId = support == null ? -1 : validTuples.intersectIndex(support);
+        if (wordId != -1) {
+          varResidues[id] = wordId;
+        } else if (!variable.remove(values[j])) {
+          return false;
+        }
+      }
+      // The removed values had no valid tuple so that the table does not
+      // need to be updated.
+      lastSizes[i].setValue(variable.size());
+    }
+    return true;
+  }
+
+  private static boolean isValid(IntVar[] variables, int[] tuple) {
+    for (int i = 0; i < variables.length; i++) {
+      if (!variables[i].contains(tuple[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
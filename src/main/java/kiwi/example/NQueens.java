@@ -17,11 +17,11 @@ package kiwi.example;
 
 import static kiwi.modeling.Constraints.allDifferent;
 import static kiwi.modeling.Heuristics.binaryFirstFail;
-import static kiwi.modeling.Views.offset;
 
 import java.util.Arrays;
 
 import kiwi.Solver;
+import kiwi.modeling.Consistency;
 import kiwi.variable.IntVar;
 
 public class NQueens {
@@ -30,20 +30,7 @@ public class NQueens {
     
     Solver solver = new Solver();
 
-    int n = 10;
-    IntVar[] queens = new IntVar[n];
-    IntVar[] queensUp = new IntVar[n];
-    IntVar[] queensDown = new IntVar[n];
-
-    for (int i = 0; i < n; i++) {
-      queens[i] = solver.intVar(0, n - 1);
-      queensUp[i] = offset(queens[i], i);
-      queensDown[i] = offset(queens[i], -i);
-    }
-
-    solver.add(allDifferent(queens));
-    solver.add(allDifferent(queensUp));
-    solver.add(allDifferent(queensDown));
+    IntVar[] queens = model(solver, 10);
 
     solver.onSolution(() -> {
       System.out.println("Solution: " + Arrays.toString(queens));
@@ -51,4 +38,42 @@ public class NQueens {
     
     solver.solve(binaryFirstFail(queens));
   }
+
+  /**
+   * Creates the n-queens problem in the solver and returns the queens, the
+   * i-th queen being the row of the queen placed in the i-th column.
+   */
+  public static IntVar[] model(Solver solver, int n) {
+    return model(solver, n, Consistency.VALUE);
+  }
+
+  /**
+   * Creates the n-queens problem in the solver with the given consistency for
+   * its all-different constraints and returns the queens.
+   */
+  public static IntVar[] model(Solver solver, int n, Consistency consistency) {
+    IntVar[] queens = new IntVar[n];
+    for (int i = 0; i < n; i++) {
+      queens[i] = solver.intVar(0, n - 1);
+    }
+    post(solver, queens, consistency);
+    return queens;
+  }
+
+  /**
+   * Posts the constraints of the n-queens problem on queens created by the
+   * caller, each of them having to take its value in {@code [0, n - 1]}.
+   */
+  public static void post(Solver solver, IntVar[] queens, Consistency consistency) {
+    int n = queens.length;
+    IntVar[] queensUp = new IntVar[n];
+    IntVar[] queensDown = new IntVar[n];
+    for (int i = 0; i < n; i++) {
+      queensUp[i] = solver.offset(queens[i], i);
+      queensDown[i] = solver.offset(queens[i], -i);
+    }
+    solver.add(allDifferent(queens, consistency));
+    solver.add(allDifferent(queensUp, consistency));
+    solver.add(allDifferent(queensDown, consistency));
+  }
 }
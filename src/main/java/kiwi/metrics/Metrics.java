@@ -0,0 +1,254 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.metrics;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import kiwi.propagation.Propagator;
+
+/**
+ * Collects metrics on the propagation and the search of a solver.
+ * 
+ * <p>
+ * Metrics are disabled by default: the propagation queue and the search only
+ * test that they have no {@code Metrics} to collect. Once enabled with 
+ * {@code Solver.enableMetrics}, the solver records for each propagator its 
+ * number of calls, the time spent in it, the number of domain updates it 
+ * performed and its number of failures, as well as the length of the 
+ * propagation queue, the size and the depth of the trail at each node, and 
+ * the time and value of each solution.
+ * </p>
+ * 
+ * <p>
+ * The metrics are written by the thread that runs the search and can be read
+ * from any thread with {@link #snapshot}, in which case the counters may lag
+ * slightly behind. The metrics are also reported as Flight Recorder events
+ * when a recording is running.
+ * </p>
+ * 
+ * @see MetricsSnapshot
+ */
+public class Metrics {
+
+  /** Number of buckets of the queue length histogram. */
+  public static final int QUEUE_BUCKETS = 32;
+
+  // Counters of the propagators, in order of first propagation. The array is
+  // replaced when it grows so that readers always see a consistent prefix.
+  private final IdentityHashMap<Propagator, Counters> counters = new IdentityHashMap<>();
+  private volatile Counters[] propagators = new Counters[0];
+
+  // The counters of the propagator being propagated, if any.
+  private Counters current = null;
+
+  private final long[] queueLengths = new long[QUEUE_BUCKETS];
+  private final List<MetricsSnapshot.Improvement> improvements = new CopyOnWriteArrayList<>();
+
+  private long nNodes = 0;
+  private long nFails = 0;
+  private long nSolutions = 0;
+  private int maxTrailSize = 0;
+  private int maxDepth = 0;
+
+  // Times in nanoseconds, -1 if not reached yet.
+  private volatile long startTime = -1;
+  private volatile long endTime = -1;
+  private volatile long firstSolutionTime = -1;
+
+  private SearchEvent searchEvent = null;
+
+  /** The counters of a propagator. */
+  static final class Counters {
+    final String name;
+    long nCalls;
+    long time;
+    long nPrunes;
+    long nFailures;
+
+    Counters(String name) {
+      this.name = name;
+    }
+  }
+
+  /**
+   * Records that the propagator is about to be propagated while the queue
+   * contains the specified number of propagators.
+   * 
+   * @param propagator the propagator to be propagated.
+   * @param queueLength the number of propagators in the queue, including 
+   *        this one.
+   */
+  public void propagationStarted(Propagator propagator, int queueLength) {
+    Counters c = counters.get(propagator);
+    if (c == null) {
+      int id = propagators.length;
+      c = new Counters(propagator.getClass().getSimpleName() + "#" + id);
+      counters.put(propagator, c);
+      Counters[] array = Arrays.copyOf(propagators, id + 1);
+      array[id] = c;
+      propagators = array;
+    }
+    current = c;
+    queueLengths[31 - Integer.numberOfLeadingZeros(Math.max(1, queueLength))]++;
+  }
+
+  /**
+   * Records the end of the current propagation.
+   * 
+   * @param time the duration of the propagation in nanoseconds.
+   * @param feasible {@code false} if the propagation failed.
+   */
+  public void propagationEnded(long time, boolean feasible) {
+    if (current == null) {
+      // The metrics were enabled during the propagation.
+      return;
+    }
+    current.nCalls++;
+    current.time += time;
+    if (!feasible) {
+      current.nFailures++;
+    }
+    current = null;
+  }
+
+  /** Records a domain update, attributed to the current propagator if any. */
+  public void domainChanged() {
+    if (current != null) {
+      current.nPrunes++;
+    }
+  }
+
+  /** Records the start of a search. */
+  public void searchStarted() {
+    long time = System.nanoTime();
+    if (startTime < 0) {
+      startTime = time;
+    }
+    endTime = -1;
+    searchEvent = new SearchEvent();
+    searchEvent.begin();
+  }
+
+  /**
+   * Records a node of the search tree.
+   * 
+   * @param depth the depth of the node, i.e., the level of the trail.
+   * @param trailSize the number of entries of the trail.
+   */
+  public void node(int depth, int trailSize) {
+    nNodes++;
+    if (depth > maxDepth) {
+      maxDepth = depth;
+    }
+    if (trailSize > maxTrailSize) {
+      maxTrailSize = trailSize;
+    }
+  }
+
+  /** Records a failed node. */
+  public void fail() {
+    nFails++;
+  }
+
+  /**
+   * Records a solution.
+   * 
+   * @param hasObjective {@code true} if the problem has an objective.
+   * @param value the value of the objective in the solution, if any.
+   */
+  public void solution(boolean hasObjective, int value) {
+    if (startTime < 0) {
+      // The metrics were enabled during the search.
+      startTime = System.nanoTime();
+    }
+    long time = System.nanoTime() - startTime;
+    nSolutions++;
+    if (firstSolutionTime < 0) {
+      firstSolutionTime = time;
+    }
+    if (hasObjective) {
+      improvements.add(new MetricsSnapshot.Improvement(time, nNodes, value));
+    }
+    SolutionEvent event = new SolutionEvent();
+    if (event.isEnabled()) {
+      event.nodes = nNodes;
+      event.hasObjective = hasObjective;
+      event.objective = value;
+      event.commit();
+    }
+  }
+
+  /**
+   * Records the end of a search and reports the metrics to the Flight 
+   * Recorder.
+   * 
+   * @param completed {@code true} if the search space has been explored.
+   */
+  public void searchEnded(boolean completed) {
+    endTime = System.nanoTime();
+    // There's no search event if the metrics were enabled during the search.
+    if (searchEvent != null) {
+      searchEvent.end();
+      if (searchEvent.shouldCommit()) {
+        searchEvent.completed = completed;
+        searchEvent.nodes = nNodes;
+        searchEvent.fails = nFails;
+        searchEvent.solutions = nSolutions;
+        searchEvent.maxDepth = maxDepth;
+        searchEvent.maxTrailSize = maxTrailSize;
+        searchEvent.commit();
+      }
+      searchEvent = null;
+    }
+    for (Counters c : propagators) {
+      PropagatorEvent event = new PropagatorEvent();
+      if (!event.isEnabled()) {
+        break;
+      }
+      event.propagator = c.name;
+      event.calls = c.nCalls;
+      event.time = c.time;
+      event.prunes = c.nPrunes;
+      event.failures = c.nFailures;
+      event.commit();
+    }
+  }
+
+  /**
+   * Returns a copy of the current metrics. This method can be called while
+   * the search is running.
+   * 
+   * @return the current metrics.
+   */
+  public MetricsSnapshot snapshot() {
+    Counters[] array = propagators;
+    MetricsSnapshot.PropagatorStats[] stats = new MetricsSnapshot.PropagatorStats[array.length];
+    for (int i = 0; i < array.length; i++) {
+      Counters c = array[i];
+      stats[i] = new MetricsSnapshot.PropagatorStats(c.name, c.nCalls, c.time, c.nPrunes, 
+          c.nFailures);
+    }
+    long start = startTime;
+    long end = endTime;
+    long elapsed = start < 0 ? 0 : (end < 0 ? System.nanoTime() : end) - start;
+    return new MetricsSnapshot(Arrays.asList(stats), queueLengths.clone(), nNodes, nFails, 
+        nSolutions, maxDepth, maxTrailSize, elapsed, firstSolutionTime, 
+        Arrays.asList(improvements.toArray(new MetricsSnapshot.Improvement[0])));
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.metrics;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable copy of the metrics collected by a {@code Metrics}.
+ * 
+ * <p>
+ * Times are in nanoseconds and measured from the start of the first search.
+ * </p>
+ */
+public class MetricsSnapshot {
+
+  /** The metrics of each propagator, in order of first propagation. */
+  public final List<PropagatorStats> propagators;
+
+  /**
+   * The histogram of the length of the propagation queue, measured each time
+   * a propagator is dequeued: the k-th bucket counts the lengths in 
+   * [2^k, 2^(k+1)).
+   */
+  private final long[] queueLengths;
+
+  public final long nNodes;
+  public final long nFails;
+  public final long nSolutions;
+
+  /** The maximum depth of the search tree. */
+  public final int maxDepth;
+
+  /** The maximum number of entries of the trail. */
+  public final int maxTrailSize;
+
+  /** The time spent since the start of the first search. */
+  public final long elapsedTime;
+
+  /** The time of the first solution, or -1 if there's no solution yet. */
+  public final long firstSolutionTime;
+
+  /** The solutions of the objective, in order of discovery. */
+  public final List<Improvement> improvements;
+
+  /** A solution that improved the objective. */
+  public static class Improvement {
+    /** The time of the solution. */
+    public final long time;
+    /** The number of nodes explored before the solution. */
+    public final long nNodes;
+    /** The value of the objective. */
+    public final int value;
+
+    Improvement(long time, long nNodes, int value) {
+      this.time = time;
+      this.nNodes = nNodes;
+      this.value = value;
+    }
+  }
+
+  /** The metrics of a propagator. */
+  public static class PropagatorStats {
+    /** The class of the propagator followed by its number. */
+    public final String name;
+    /** The number of calls to {@code propagate}. */
+    public final long nCalls;
+    /** The total time spent in {@code propagate}. */
+    public final long time;
+    /** The number of domain updates performed by the propagator. */
+    public final long nPrunes;
+    /** The number of failed propagations. */
+    public final long nFailures;
+
+    PropagatorStats(String name, long nCalls, long time, long nPrunes, long nFailures) {
+      this.name = name;
+      this.nCalls = nCalls;
+      this.time = time;
+      this.nPrunes = nPrunes;
+      this.nFailures = nFailures;
+    }
+
+    @Override
+    public String toString() {
+      return name + ": " + nCalls + " calls, " + time / 1000 + " us, " + nPrunes + " prunes, " 
+          + nFailures + " failures";
+    }
+  }
+
+  MetricsSnapshot(List<PropagatorStats> propagators, long[] queueLengths, long nNodes, 
+      long nFails, long nSolutions, int maxDepth, int maxTrailSize, long elapsedTime, 
+      long firstSolutionTime, List<Improvement> improvements) {
+    this.propagators = Collections.unmodifiableList(propagators);
+    this.queueLengths = queueLengths;
+    this.nNodes = nNodes;
+    this.nFails = nFails;
+    this.nSolutions = nSolutions;
+    this.maxDepth = maxDepth;
+    this.maxTrailSize = maxTrailSize;
+    this.elapsedTime = elapsedTime;
+    this.firstSolutionTime = firstSolutionTime;
+    this.improvements = Collections.unmodifiableList(improvements);
+  }
+
+  /**
+   * Returns the number of times the length of the queue was in the range
+   * [2^k, 2^(k+1)) when a propagator was dequeued.
+   * 
+   * @param  k the bucket of the histogram, from 0 to 
+   *         {@code Metrics.QUEUE_BUCKETS - 1}.
+   * @return the number of dequeues in this range of lengths.
+   */
+  public long queueLengths(int k) {
+    return queueLengths[k];
+  }
+
+  /**
+   * Returns the number of explored nodes per second since the start of the
+   * first search.
+   * 
+   * @return the node throughput.
+   */
+  public double nodesPerSecond() {
+    return elapsedTime == 0 ? 0 : nNodes * 1e9 / elapsedTime;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder bf = new StringBuilder();
+    bf.append("#nodes/s    : " + (long) nodesPerSecond() + "\n");
+    bf.append("first sol.  : " + (firstSolutionTime < 0 ? "none" 
+        : firstSolutionTime / 1000000 + " ms") + "\n");
+    bf.append("max depth   : " + maxDepth + "\n");
+    bf.append("max trail   : " + maxTrailSize + "\n");
+    for (PropagatorStats stats : propagators) {
+      bf.append(stats + "\n");
+    }
+    return bf.toString();
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** 
+ * The Flight Recorder event that reports the metrics of a propagator at the
+ * end of a search.
+ */
+@Name("kiwi.PropagatorStatistics")
+@Label("Propagator Statistics")
+@Category("Kiwi")
+@Description("Cumulated metrics of a propagator")
+class PropagatorEvent extends Event {
+
+  @Label("Propagator")
+  String propagator;
+
+  @Label("Calls")
+  long calls;
+
+  @Label("Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long time;
+
+  @Label("Prunes")
+  long prunes;
+
+  @Label("Failures")
+  long failures;
+}
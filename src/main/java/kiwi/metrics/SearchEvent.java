@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** The Flight Recorder event of a search, from its start to its end. */
+@Name("kiwi.Search")
+@Label("Search")
+@Category("Kiwi")
+@Description("A tree search of the solver")
+class SearchEvent extends Event {
+
+  @Label("Completed")
+  boolean completed;
+
+  @Label("Nodes")
+  @Description("Number of nodes explored since metrics are enabled")
+  long nodes;
+
+  @Label("Fails")
+  long fails;
+
+  @Label("Solutions")
+  long solutions;
+
+  @Label("Max Depth")
+  int maxDepth;
+
+  @Label("Max Trail Size")
+  int maxTrailSize;
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** The Flight Recorder event of a solution. */
+@Name("kiwi.Solution")
+@Label("Solution")
+@Category("Kiwi")
+class SolutionEvent extends Event {
+
+  @Label("Nodes")
+  long nodes;
+
+  @Label("Has Objective")
+  boolean hasObjective;
+
+  @Label("Objective")
+  int objective;
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.modeling;
+
+/**
+ * The level of filtering achieved by a propagator.
+ */
+public enum Consistency {
+
+  /** Prunes values once variables are assigned (forward checking). */
+  VALUE,
+
+  /** Ensures that the bounds of the domains are consistent. */
+  BOUNDS,
+
+  /** Ensures that each value of each domain is consistent. */
+  DOMAIN
+}
@@ -17,15 +17,21 @@ package kiwi.modeling;
 
 import kiwi.Solver;
 import kiwi.constraint.AllDifferent;
+import kiwi.constraint.AllDifferentBC;
+import kiwi.constraint.AllDifferentDC;
 import kiwi.constraint.DifferentVal;
 import kiwi.constraint.DifferentVar;
 import kiwi.constraint.LowerEqualVal;
 import kiwi.constraint.LowerEqualVar;
 import kiwi.constraint.Sum;
+import kiwi.constraint.Table;
 import kiwi.propagation.Propagator;
 import kiwi.variable.IntVar;
 
 public class Constraints {
+
+  /** Size above which the result of a sum is an interval variable. */
+  private static final int SUM_INTERVAL_SIZE = 1 << 16;
   
   public static Propagator lowerEqual(IntVar x, IntVar y) {
     return new LowerEqualVar(x, y, false);
@@ -71,7 +77,30 @@ public class Constraints {
     return new AllDifferent(variables);
   }
 
-  public IntVar sum(Solver solver, IntVar[] variables, int k) {
+  public static Propagator allDifferent(IntVar[] variables, Consistency consistency) {
+    switch (consistency) {
+      case BOUNDS:
+        return new AllDifferentBC(variables);
+      case DOMAIN:
+        return new AllDifferentDC(variables);
+      default:
+        return new AllDifferent(variables);
+    }
+  }
+
+  /**
+   * Returns a new variable equal to the sum of the variables plus k.
+   * 
+   * <p>
+   * The domain of the new variable is the range of the sum. Wide ranges are
+   * represented by an interval variable, the sum propagator only updating
+   * its bounds.
+   * </p>
+   * 
+   * @see Solver#intVar(int, int)
+   * @see Solver#intervalVar(int, int)
+   */
+  public static IntVar sum(Solver solver, IntVar[] variables, int k) {
     int min = k;
     int max = k;
     for (int i = 0; i < variables.length; i++) {
@@ -79,7 +108,10 @@ public class Constraints {
       min += variables[i].min();
       max += variables[i].max();
     }
-    final IntVar result = solver.intVar(min, max);
+    long size = (long) max - min + 1;
+    final IntVar result = size > SUM_INTERVAL_SIZE 
+        ? solver.intervalVar(min, max) 
+        : solver.intVar(min, max);
     solver.add(sum(variables, result, k)); // should not fail.
     return result;
   }
@@ -87,4 +119,15 @@ public class Constraints {
   public static Propagator sum(IntVar[] variables, IntVar sum, int k) {
     return new Sum(variables, sum, k);
   }
+
+  /**
+   * Constrains the variables to take the values of one of the tuples.
+   * 
+   * @param variables the variables of the constraint.
+   * @param tuples the allowed tuples, each one having a value per variable.
+   * @return a Compact-Table propagator.
+   */
+  public static Propagator table(IntVar[] variables, int[][] tuples) {
+    return new Table(variables, tuples);
+  }
 }
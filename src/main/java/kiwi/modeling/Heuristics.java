@@ -15,10 +15,15 @@
  */
 package kiwi.modeling;
 
+import java.util.Random;
 import java.util.function.IntUnaryOperator;
 
+import kiwi.propagation.Propagator;
+import kiwi.search.ActivityBased;
 import kiwi.search.BinaryVarVal;
 import kiwi.search.Heuristic;
+import kiwi.search.ImpactBased;
+import kiwi.util.Stack;
 import kiwi.variable.IntVar;
 
 public class Heuristics {
@@ -27,8 +32,87 @@ public class Heuristics {
     return new BinaryVarVal(vars, i -> vars[i].size(), i -> vars[i].min());
   }
 
+  /**
+   * Domain over weighted degree heuristic.
+   * 
+   * <p>
+   * Selects the variable that minimizes the ratio between the size of its
+   * domain and the sum of the weights of its propagators. The weight of a
+   * propagator is incremented each time it fails so that the search focuses
+   * on the hard parts of the problem. Values are tried in increasing order.
+   * </p>
+   * 
+   * @param vars the variables to assign.
+   * @return a dom/wdeg heuristic.
+   */
+  public static Heuristic binaryDomWDeg(IntVar[] vars) {
+    return BinaryVarVal.withRealCost(vars, i -> (double) vars[i].size() / weightedDegree(vars[i]),
+        i -> vars[i].min());
+  }
+
+  /**
+   * Activity-based heuristic initialized with random dives from the root.
+   * 
+   * @param vars the variables to assign.
+   * @param nProbes the number of dives used to initialize the activities.
+   * @param seed the seed of the dives.
+   * @return an activity-based heuristic.
+   * @see ActivityBased
+   */
+  public static Heuristic binaryActivity(IntVar[] vars, int nProbes, long seed) {
+    ActivityBased heuristic = new ActivityBased(vars, 0.999);
+    heuristic.probe(nProbes, seed);
+    return heuristic;
+  }
+
+  /**
+   * Impact-based heuristic initialized with random dives from the root.
+   * 
+   * @param vars the variables to assign.
+   * @param nProbes the number of dives used to initialize the impacts.
+   * @param seed the seed of the dives.
+   * @return an impact-based heuristic.
+   * @see ImpactBased
+   */
+  public static Heuristic binaryImpact(IntVar[] vars, int nProbes, long seed) {
+    ImpactBased heuristic = new ImpactBased(vars);
+    heuristic.probe(nProbes, seed);
+    return heuristic;
+  }
+
+  public static Heuristic binaryRandom(IntVar[] vars, long seed) {
+    Random random = new Random(seed);
+    int[] domain = new int[maxSize(vars)];
+    return new BinaryVarVal(vars, i -> random.nextInt(), i -> {
+      int size = vars[i].copyDomain(domain);
+      return domain[random.nextInt(size)];
+    });
+  }
+
   public static Heuristic binary(IntVar[] vars, IntUnaryOperator varCost,
       IntUnaryOperator valSelector) {
     return new BinaryVarVal(vars, varCost, valSelector);
   }
+
+  private static int weightedDegree(IntVar var) {
+    Stack<Propagator> propagators = var.propagators();
+    int wdeg = 0;
+    for (int i = 0; i < propagators.getSize(); i++) {
+      Propagator propagator = propagators.get(i);
+      // Entailed propagators do not constrain the variable anymore.
+      if (propagator.isActive()) {
+        wdeg += propagator.weight();
+      }
+    }
+    // A variable without active propagator is ranked by its size only.
+    return wdeg == 0 ? 1 : wdeg;
+  }
+
+  private static int maxSize(IntVar[] vars) {
+    int max = 0;
+    for (int i = 0; i < vars.length; i++) {
+      max = Math.max(max, vars[i].size());
+    }
+    return max;
+  }
 }
@@ -15,40 +15,27 @@
  */
 package kiwi.modeling;
 
-import java.util.HashMap;
-
-import kiwi.util.Tuple;
 import kiwi.variable.IntVar;
-import kiwi.variable.IntVarOffset;
-import kiwi.variable.IntVarOpposite;
+import kiwi.variable.ViewFactory;
 
+/**
+ * Static factories of views.
+ * 
+ * <p>
+ * Nested views are collapsed but not cached. Use the views of a 
+ * {@code Solver}, e.g., {@link kiwi.Solver#offset}, to reuse the views that 
+ * have already been created for this solver.
+ * </p>
+ */
 public class Views {
 
-  // Contain all the opposite views.
-  private static HashMap<IntVar, IntVar> oppositeViews = new HashMap<>();
-  
-  // Contain all the offset views.
-  private static HashMap<Tuple<IntVar, Integer>, IntVar> offsetViews = new HashMap<>();
-  
+  private static final ViewFactory views = ViewFactory.uncached();
+
   public static IntVar opposite(IntVar x) {
-    IntVar view = oppositeViews.get(x);
-    if (view == null) {
-      view = new IntVarOpposite(x);
-      oppositeViews.put(x, view);
-      oppositeViews.put(view, x);
-    }
-    return view;
+    return views.opposite(x);
   }
 
   public static IntVar offset(IntVar x, int k) {
-    Tuple<IntVar, Integer> t = new Tuple<>(x, k);
-    IntVar view = offsetViews.get(x);
-    if (view == null) {
-      view = new IntVarOffset(x, k);
-      offsetViews.put(t, view);
-      t = new Tuple<>(view, -k);
-      offsetViews.put(t, x);
-    }
-    return view;
+    return views.offset(x, k);
   }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.propagation;
+
+/**
+ * The cost class of a propagator.
+ * 
+ * <p>
+ * The {@code PropagationQueue} always propagates the pending propagators of
+ * the cheapest class first so that expensive propagators run on domains 
+ * already reduced by the cheap ones. Classes are listed from the cheapest to
+ * the most expensive.
+ * </p>
+ */
+public enum Priority {
+
+  /** Propagators on a single variable. */
+  UNARY,
+
+  /** Propagators on two variables. */
+  BINARY,
+
+  /** Propagators that are linear in the number of their variables. */
+  LINEAR,
+
+  /** Propagators that are quadratic in the number of their variables. */
+  QUADRATIC,
+
+  /** Propagators that are more than quadratic. */
+  EXPENSIVE
+}
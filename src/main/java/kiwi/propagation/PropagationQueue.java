@@ -17,26 +17,104 @@ package kiwi.propagation;
 
 import java.util.ArrayDeque;
 
-/** PropagQueue */
+import kiwi.metrics.Metrics;
+
+/** 
+ * The queue of the propagators waiting for propagation.
+ * 
+ * <p>
+ * The queue has one FIFO list per {@link Priority} and always propagates
+ * the first propagator of the cheapest non-empty list. The number of 
+ * propagations of each class is counted for tuning.
+ * </p>
+ */
 public class PropagationQueue {
-  
-  // The propagation queue that contains all the propagators waiting for
-  // propagation. A propagator is considered to be enqueued only if its
-  // enqueued boolean is set to true.
-  private final ArrayDeque<Propagator> queue = new ArrayDeque<Propagator>();
+
+  private static final Priority[] PRIORITIES = Priority.values();
+
+  // The propagation queues that contain all the propagators waiting for
+  // propagation, by priority. A propagator is considered to be enqueued only
+  // if its enqueued boolean is set to true.
+  @SuppressWarnings("unchecked")
+  private final ArrayDeque<Propagator>[] queues = 
+      (ArrayDeque<Propagator>[]) new ArrayDeque<?>[PRIORITIES.length];
+
+  // The number of propagations of each priority.
+  private final long[] nPropagations = new long[PRIORITIES.length];
+
+  // The propagator that failed during the last propagation, if any.
+  private Propagator failed = null;
+
+  // The metrics of the propagations, null if disabled.
+  private Metrics metrics = null;
+
+  public PropagationQueue() {
+    for (int i = 0; i < queues.length; i++) {
+      queues[i] = new ArrayDeque<Propagator>();
+    }
+  }
+
+  /**
+   * Returns the propagator that failed during the last propagation.
+   * 
+   * @return the propagator whose propagation failed or {@code null} if the 
+   *         last propagation succeeded.
+   */
+  public Propagator failedPropagator() {
+    return failed;
+  }
+
+  /**
+   * Returns the number of propagations of the propagators of the specified
+   * priority since the creation of the queue or the last reset.
+   * 
+   * @param  priority the priority of the propagators.
+   * @return the number of calls to {@code propagate} of these propagators.
+   */
+  public long nPropagations(Priority priority) {
+    return nPropagations[priority.ordinal()];
+  }
+
+  /** Resets the numbers of propagations. */
+  public void resetCounters() {
+    for (int i = 0; i < nPropagations.length; i++) {
+      nPropagations[i] = 0;
+    }
+  }
+
+  /**
+   * Sets the metrics in which the propagations are recorded, or {@code null}
+   * to disable them.
+   * 
+   * @param metrics the metrics to collect.
+   */
+  public void setMetrics(Metrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Notifies the queue that the domain of a variable changed. The change is
+   * attributed to the propagator being propagated if metrics are enabled.
+   */
+  public void domainChanged() {
+    if (metrics != null) {
+      metrics.domainChanged();
+    }
+  }
 
   /**
    * Enqueues the propagator for propagation.
    * 
    * <p>
-   * This method does nothing if the propagator is already enqueued.
+   * This method does nothing if the propagator is already enqueued or if it
+   * is not active.
    * </p>
    * 
    * @param propagator the propagator to be scheduled for propagation.
    */
   public void enqueue(Propagator propagator) {
-    if (!propagator.enqueued) {
-      queue.addLast(propagator);
+    if (!propagator.enqueued && propagator.isActive()) {
+      queues[propagator.priority().ordinal()].addLast(propagator);
       propagator.enqueued = true;
     }
   }
@@ -45,10 +123,11 @@ public class PropagationQueue {
    * Propagates the pending propagators.
    * 
    * <p>
-   * Propagate all the propagators contained in the propagation queue.
-   * Propagation is likely to enqueue additional propagators while it is
-   * running. The propagation stops either when the queue is empty, or if a
-   * propagator failed (meaning that the problem is infeasible).
+   * Propagate all the propagators contained in the propagation queue, the 
+   * cheapest ones first. Propagation is likely to enqueue additional 
+   * propagators while it is running. The propagation stops either when the 
+   * queue is empty, or if a propagator failed (meaning that the problem is 
+   * infeasible).
    * </p>
    * 
    * <p>
@@ -62,17 +141,51 @@ public class PropagationQueue {
    */
   public boolean propagate() {
     boolean feasible = true;
-    while (!queue.isEmpty()) {
-      Propagator propagator = queue.removeFirst();
+    failed = null;
+    int priority;
+    while ((priority = nextPriority()) >= 0) {
+      Propagator propagator = queues[priority].removeFirst();
       // Dequeue the propagator only if it is not idempotent. This allows the
       // propagator to enqueue itself back in the propagation queue if it
       // changed the domain of at least one of its variable.
       propagator.enqueued = propagator.idempotent;
-      // Propagate only if the problem is still feasible.
-      feasible = feasible && propagator.propagate();
+      // Propagate only if the problem is still feasible and if the propagator
+      // has not been deactivated since it was enqueued.
+      if (feasible && propagator.isActive()) {
+        nPropagations[priority]++;
+        if (metrics == null ? !propagator.propagate() : !propagateMeasured(propagator)) {
+          // Record the failure for conflict-driven heuristics.
+          feasible = false;
+          failed = propagator;
+          propagator.weight++;
+        }
+      }
       // Dequeue the propagator no matter what.
       propagator.enqueued = false;
     }
     return feasible;
   }
+
+  // Propagates the propagator and records the propagation in the metrics.
+  private boolean propagateMeasured(Propagator propagator) {
+    int length = 1;
+    for (int i = 0; i < queues.length; i++) {
+      length += queues[i].size();
+    }
+    metrics.propagationStarted(propagator, length);
+    long time = System.nanoTime();
+    boolean feasible = propagator.propagate();
+    metrics.propagationEnded(System.nanoTime() - time, feasible);
+    return feasible;
+  }
+
+  // Returns the cheapest priority with a pending propagator, -1 if none.
+  private int nextPriority() {
+    for (int i = 0; i < queues.length; i++) {
+      if (!queues[i].isEmpty()) {
+        return i;
+      }
+    }
+    return -1;
+  }
 }
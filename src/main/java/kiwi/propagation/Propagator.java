@@ -15,6 +15,9 @@
  */
 package kiwi.propagation;
 
+import kiwi.trail.Change;
+import kiwi.trail.Trail;
+
 /**
  * Superclass to be instantiated by any propagator.
  */
@@ -31,6 +34,119 @@ public abstract class Propagator {
    */  
   protected boolean idempotent;
 
+  /**
+   * The number of times the propagator failed plus one. Incremented by the
+   * {@code PropagationQueue} each time the propagation of this propagator 
+   * fails.
+   */
+  int weight = 1;
+
+  // Indicates if the propagator is active, restored by the trail. The flag
+  // is a slot of the primitive store once the propagator is attached to a 
+  // primitive trail.
+  private boolean active = true;
+  private final Change reactivate = () -> active = true;
+  private Trail trail = null;
+  private int activeSlot = -1;
+
+  /**
+   * Returns the weight of the propagator, i.e., the number of times it failed
+   * plus one.
+   * 
+   * @return the weight of the propagator.
+   */
+  public int weight() {
+    return weight;
+  }
+
+  /**
+   * Returns {@code true} if the propagator is active, i.e., if it has not 
+   * been deactivated in the current branch of the search.
+   * 
+   * @return {@code true} if and only if the propagator is active.
+   */
+  public boolean isActive() {
+    return activeSlot < 0 ? active : trail.getInt(activeSlot) != 0;
+  }
+
+  /**
+   * Attaches the propagator to the trail of its variables. If the trail is
+   * primitive, the active flag of the propagator is then stored in its 
+   * primitive store and thus belongs to its snapshots. Does nothing if the
+   * propagator is already attached or if the trail is not primitive.
+   * 
+   * <p>
+   * The solver attaches the propagators when they are posted, before their
+   * setup.
+   * </p>
+   * 
+   * @param trail the trail of the variables of the propagator.
+   */
+  public void attach(Trail trail) {
+    if (activeSlot < 0 && trail.isPrimitive()) {
+      this.trail = trail;
+      this.activeSlot = trail.newInt(active ? 1 : 0);
+    }
+  }
+
+  /**
+   * Deactivates the propagator until the trail restores a state in which 
+   * it was active.
+   * 
+   * <p>
+   * A propagator is typically deactivated once it is entailed, i.e., once 
+   * it cannot filter anything anymore in the current branch. Inactive 
+   * propagators are neither advised nor enqueued, and the variables drop
+   * them from their watchers when they meet them.
+   * </p>
+   * 
+   * @param trail the trail of the variables of the propagator.
+   */
+  protected void deactivate(Trail trail) {
+    if (activeSlot >= 0) {
+      if (this.trail.getInt(activeSlot) != 0) {
+        this.trail.setInt(activeSlot, 0);
+      }
+    } else if (active) {
+      active = false;
+      trail.store(reactivate);
+    }
+  }
+
+  /**
+   * Returns the cost class of the propagator, used by the 
+   * {@code PropagationQueue} to propagate cheap propagators first. The class
+   * must not change once the propagator is posted. Propagators are linear by
+   * default.
+   * 
+   * @return the priority of the propagator.
+   */
+  public Priority priority() {
+    return Priority.LINEAR;
+  }
+
+  /**
+   * Advises the propagator that one of its variables changed.
+   * 
+   * <p>
+   * This method is only called for the variables registered with an index,
+   * each time a watched event occurs and before the propagator is enqueued.
+   * Incremental propagators use it to record which variables changed since 
+   * their last propagation instead of scanning all of them. The propagator
+   * is enqueued only if this method returns {@code true}, which allows it to
+   * skip the propagations that cannot filter anything. The domains must not
+   * be modified by this method. Returns {@code true} by default.
+   * </p>
+   * 
+   * @param  index the index with which the variable was registered.
+   * @param  events the events raised by the domain update, as defined in
+   *         {@code EventMask}.
+   * @return {@code true} if the propagator must be enqueued.
+   */
+  public boolean advise(int index, int events) {
+    return true;
+  }
+
   /**
    * Initializes the propagator and performs its initial propagation
    * 
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import kiwi.util.Stack;
+import kiwi.variable.DomainListener;
+import kiwi.variable.IntVar;
+
+/**
+ * Activity-based search.
+ * 
+ * <p>
+ * The activity of a variable is the number of nodes in which its domain has 
+ * been reduced, decayed at each node so that recent reductions matter more.
+ * The heuristic branches on the variable that maximizes the ratio between 
+ * its activity and the size of its domain, trying values in increasing
+ * order. Activities can be initialized by probing the root node.
+ * </p>
+ * 
+ * <p>
+ * The heuristic registers itself as the {@code DomainListener} of its
+ * variables. 
+ * </p>
+ * 
+ * Reference: L. Michel, P. Van Hentenryck, Activity-Based Search for 
+ * Black-Box Constraint Programming Solvers, CPAIOR 2012.
+ */
+public class ActivityBased implements Heuristic, DomainListener {
+
+  // Activities are rescaled above this threshold to avoid overflows.
+  private static final double MAX_ACTIVITY = 1e100;
+
+  private final IntVar[] variables;
+  private final double[] activities;
+  private final int[] stamps;
+  private final double decay;
+  private final BinaryVarVal heuristic;
+
+  // Instead of decaying all the activities at each node, the increment grows
+  // by the inverse of the decay.
+  private double increment = 1;
+  private int node = 0;
+
+  /**
+   * Creates an activity-based heuristic.
+   * 
+   * @param variables the variables to assign.
+   * @param decay the factor in (0, 1] by which activities decay at each node.
+   */
+  public ActivityBased(IntVar[] variables, double decay) {
+    if (decay <= 0 || decay > 1) {
+      throw new IllegalArgumentException("decay must be in (0, 1].");
+    }
+    this.variables = variables;
+    this.activities = new double[variables.length];
+    this.stamps = new int[variables.length];
+    this.decay = decay;
+    this.heuristic = BinaryVarVal.withRealCost(variables, i -> variables[i].size() / activities[i],
+        i -> variables[i].min());
+    for (int i = 0; i < variables.length; i++) {
+      activities[i] = 1;
+      stamps[i] = -1;
+      variables[i].setListener(this, i);
+    }
+  }
+
+  /**
+   * Initializes the activities with random dives from the root node.
+   * 
+   * @param nProbes the number of dives.
+   * @param seed the seed of the random dives.
+   */
+  public void probe(int nProbes, long seed) {
+    Probing.dive(variables, nProbes, seed, new Probing.Observer() {
+      @Override public void beforeAssign(int varId, int value) {
+        node++;
+      }
+
+      @Override public void afterAssign(int varId, int value, boolean feasible) {}
+    });
+  }
+
+  /**
+   * Returns the current activity of a variable.
+   * 
+   * @param varId the index of the variable.
+   * @return the activity of the variable, relative to the other ones.
+   */
+  public double activity(int varId) {
+    return activities[varId];
+  }
+
+  @Override
+  public void domainReduced(int id) {
+    // Each variable is counted at most once per node.
+    if (stamps[id] != node) {
+      stamps[id] = node;
+      activities[id] += increment;
+      if (activities[id] > MAX_ACTIVITY) {
+        rescale();
+      }
+    }
+  }
+
+  @Override
+  public boolean pushNextDecisions(Stack<Decision> decisions) {
+    newNode();
+    return heuristic.pushNextDecisions(decisions);
+  }
+
+  @Override
+  public boolean pushNextDecisions(DecisionStack decisions) {
+    newNode();
+    return heuristic.pushNextDecisions(decisions);
+  }
+
+  private void newNode() {
+    node++;
+    increment /= decay;
+    if (increment > MAX_ACTIVITY) {
+      rescale();
+    }
+  }
+
+  @Override
+  public IntVar[] variables() {
+    return variables;
+  }
+
+  private void rescale() {
+    for (int i = 0; i < activities.length; i++) {
+      activities[i] /= MAX_ACTIVITY;
+    }
+    increment /= MAX_ACTIVITY;
+  }
+}
@@ -15,6 +15,7 @@
  */
 package kiwi.search;
 
+import java.util.function.IntToDoubleFunction;
 import java.util.function.IntUnaryOperator;
 
 import kiwi.trail.TrailedInt;
@@ -28,10 +29,25 @@ public class BinaryVarVal implements Heuristic {
 
   private final int[] unassigned;
   private final TrailedInt nUnassignedT;
-  private final IntUnaryOperator varCost;
+  private final IntToDoubleFunction varCost;
   private final IntUnaryOperator valSelector;
 
+  /**
+   * Creates a binary heuristic that branches on the unassigned variable of
+   * minimal cost, ties being broken by smallest index.
+   * 
+   * @param variables the variables to assign.
+   * @param varCost the cost of each variable given its index.
+   * @param valSelector the value to try first given the index of a variable.
+   */
   public BinaryVarVal(IntVar[] variables, IntUnaryOperator varCost, IntUnaryOperator valSelector) {
+    this(variables, (IntToDoubleFunction) varCost::applyAsInt, valSelector);
+  }
+
+  // Not an overload of the public constructor, which would make the calls
+  // with implicitly typed lambdas ambiguous.
+  private BinaryVarVal(IntVar[] variables, IntToDoubleFunction varCost,
+      IntUnaryOperator valSelector) {
     this.variables = variables;
     this.unassigned = Array.makeInt(variables.length, i -> i);
     this.nUnassignedT = new TrailedInt(variables[0].trail(), variables.length);
@@ -39,23 +55,60 @@ public class BinaryVarVal implements Heuristic {
     this.valSelector = valSelector;
   }
 
+  /**
+   * Creates a binary heuristic that branches on the unassigned variable of
+   * minimal real cost, such as a ratio, ties being broken by smallest index.
+   * 
+   * @param variables the variables to assign.
+   * @param varCost the cost of each variable given its index.
+   * @param valSelector the value to try first given the index of a variable.
+   * @return the heuristic.
+   */
+  public static BinaryVarVal withRealCost(IntVar[] variables, IntToDoubleFunction varCost,
+      IntUnaryOperator valSelector) {
+    return new BinaryVarVal(variables, varCost, valSelector);
+  }
+
+  @Override
   public boolean pushNextDecisions(Stack<Decision> decisions) {
+    return pushNextDecisions(decisions, null);
+  }
+
+  @Override
+  public boolean pushNextDecisions(DecisionStack decisions) {
+    return pushNextDecisions(null, decisions);
+  }
+
+  // Pushes the next decisions on objects if it is not null, or as primitives
+  // on decisions otherwise.
+  private boolean pushNextDecisions(Stack<Decision> objects, DecisionStack decisions) {
     int varId = selectVar();
     if (varId == -1) {
       return true;
     }
-    IntVar variable = variables[varId];
     int value = valSelector.applyAsInt(varId);
-    decisions.push(() -> variable.remove(value));
-    decisions.push(() -> variable.assign(value));
+    if (objects != null) {
+      objects.push(new VarValDecision(variables, varId, value, VarValDecision.REMOVE));
+      objects.push(new VarValDecision(variables, varId, value, VarValDecision.ASSIGN));
+    } else {
+      decisions.push(variables, varId, value, VarValDecision.REMOVE);
+      decisions.push(variables, varId, value, VarValDecision.ASSIGN);
+    }
     return false;
   }
 
-  private int selectVar() {
+  @Override
+  public IntVar[] variables() {
+    return variables;
+  }
+
+  // Returns the index of the unassigned variable of minimal cost or -1 if all
+  // the variables are assigned.
+  int selectVar() {
     int minId = -1;
-    int minCost = Integer.MAX_VALUE;
+    double minCost = Double.MAX_VALUE;
     int nUnassigned = nUnassignedT.getValue();
-    if (nUnassigned == 1)
+    if (nUnassigned == 1 && !variables[unassigned[0]].isAssigned())
       return unassigned[0];
     for (int i = nUnassigned - 1; i >= 0; i--) {
       int varId = unassigned[i];
@@ -64,7 +117,7 @@ public class BinaryVarVal implements Heuristic {
         unassigned[i] = unassigned[nUnassigned];
         unassigned[nUnassigned] = varId;
       } else {
-        int cost = varCost.applyAsInt(varId);
+        double cost = varCost.applyAsDouble(varId);
         if (cost < minCost) {
           minId = varId;
           minCost = cost;
@@ -17,6 +17,7 @@ package kiwi.search;
 
 import java.util.function.Predicate;
 
+import kiwi.metrics.Metrics;
 import kiwi.propagation.PropagationQueue;
 import kiwi.trail.Trail;
 import kiwi.util.Action;
@@ -27,10 +28,15 @@ public class DFSearch {
   private final PropagationQueue pQueue;
   private final Trail trail;
 
-  private final Stack<Decision> decisions = new Stack<>();
+  private final DecisionStack decisions = new DecisionStack();
   private final Stack<Action> solutionActions = new Stack<>();
   
   private Objective objective = null;
+  private RestartPolicy restartPolicy = null;
+  private Metrics metrics = null;
+
+  // The search that is running or suspended, if any.
+  private Run active = null;
 
   public DFSearch(PropagationQueue pQueue, Trail trail) {
     this.pQueue = pQueue;
@@ -43,6 +49,9 @@ public class DFSearch {
   
   public void foundSolution(SearchStats stats) {
     stats.nSolutions++;
+    if (metrics != null) {
+      metrics.solution(objective != null, objective == null ? 0 : objective.value());
+    }
     solutionActions.forEach(action -> action.execute());
     if (objective != null) {
       objective.tighten();
@@ -52,8 +61,44 @@ public class DFSearch {
   public void setObjective(Objective obj) {
     this.objective = obj;
   }
+
+  /**
+   * Sets the policy used to restart the search, or {@code null} to disable
+   * restarts.
+   * 
+   * <p>
+   * Each restart undoes all the decisions and restarts the search from its
+   * root node, i.e., the node in which it started. The levels opened before
+   * the search, e.g., to replay a subproblem, are kept. The state of the heuristic and the bound of the objective are
+   * kept. Solutions can thus be found several times: restarts are meant to 
+   * find a first solution or to optimize, not to enumerate all the solutions.
+   * </p>
+   * 
+   * @param policy the restart policy.
+   */
+  public void setRestartPolicy(RestartPolicy policy) {
+    this.restartPolicy = policy;
+  }
   
-  private boolean propagate() {
+  /**
+   * Sets the metrics in which the nodes and the solutions are recorded, or 
+   * {@code null} to disable them.
+   * 
+   * @param metrics the metrics to collect.
+   */
+  public void setMetrics(Metrics metrics) {
+    this.metrics = metrics;
+  }
+
+  Trail trail() {
+    return trail;
+  }
+
+  Objective objective() {
+    return objective;
+  }
+
+  boolean propagate() {
     // Propagate the objective only if it is not null.
     boolean feasible = objective == null || objective.propagate();
     // Propagate the propagators only if the problem is still feasible.
@@ -69,61 +114,267 @@ public class DFSearch {
    *         to this tree search.
    */
   public SearchStats search(Heuristic heuristic, Predicate<SearchStats> stopCondition) {
-    SearchStats stats = new SearchStats();
-    
-    stats.startTime = System.currentTimeMillis();
-     
-    // Return if the root node is unfeasible.
-    if (!propagate()) {
-      stats.completed = true;
-      return stats;
+    return search(heuristic, stopCondition, null);
+  }
+
+  /** 
+   * Starts the search within the specified limits.
+   * 
+   * @param  heuristic the search heursitic used to build the search tree.
+   * @param  stopCondition a predicate to stop the search.
+   * @param  limits the limits of the search, or {@code null} for none.
+   * @return A {@code SearchStats} object that contains some metrics related
+   *         to this tree search.
+   */
+  public SearchStats search(Heuristic heuristic, Predicate<SearchStats> stopCondition,
+      SearchLimits limits) {
+    return search(heuristic, stopCondition, limits, null);
+  }
+
+  /**
+   * Starts a search with a solution action of its own. Unlike the actions 
+   * added by {@link #addSolutionAction}, the action is only executed on the 
+   * solutions of this search.
+   * 
+   * @param  heuristic the search heursitic used to build the search tree.
+   * @param  stopCondition a predicate to stop the search.
+   * @param  limits the limits of the search, or {@code null} for none.
+   * @param  solutionAction executed on each solution after the solution 
+   *         actions of the search, or {@code null} for none.
+   * @return A {@code SearchStats} object that contains some metrics related
+   *         to this tree search.
+   */
+  SearchStats search(Heuristic heuristic, Predicate<SearchStats> stopCondition,
+      SearchLimits limits, Action solutionAction) {
+    Run run = new Run(heuristic, stopCondition, limits, solutionAction);
+    while (run.next()) {
+      // Continue until the end of the search.
     }
+    return run.stats;
+  }
 
-    // Return if the root node is already a solution.
-    if (heuristic.pushNextDecisions(decisions)) {
-      foundSolution(stats);
-      stats.completed = true; 
-      return stats;
+  /**
+   * Starts a search that is suspended after each solution.
+   * 
+   * <p>
+   * Starting a search, suspended or not, terminates the suspended search of
+   * this {@code DFSearch} if any.
+   * </p>
+   * 
+   * @param  heuristic the search heursitic used to build the search tree.
+   * @param  stopCondition a predicate to stop the search.
+   * @param  limits the limits of the search, or {@code null} for none.
+   * @param  solutionAction executed on each solution, before the search 
+   *         backtracks and after the solution actions of the search.
+   * @return the suspended search, whose first node is explored by the first
+   *         call to {@code next}.
+   */
+  Run suspendedSearch(Heuristic heuristic, Predicate<SearchStats> stopCondition,
+      SearchLimits limits, Action solutionAction) {
+    return new Run(heuristic, stopCondition, limits, solutionAction);
+  }
+
+  /**
+   * A search that can be suspended at each solution and resumed. The state
+   * of the search is the trail and the stack of decisions of the 
+   * {@code DFSearch}, which can thus run a single search at a time.
+   */
+  final class Run {
+
+    final SearchStats stats = new SearchStats();
+
+    private final Heuristic heuristic;
+    private final Predicate<SearchStats> stopCondition;
+    private final SearchLimits limits;
+    private final Action solutionAction;
+
+    // Number of fails after which the current run is restarted.
+    private int failLimit;
+    private boolean started = false;
+    private boolean done = false;
+
+    // Level of the trail in which the search started.
+    private int rootLevel;
+
+    Run(Heuristic heuristic, Predicate<SearchStats> stopCondition, SearchLimits limits, 
+        Action solutionAction) {
+      this.heuristic = heuristic;
+      this.stopCondition = stopCondition;
+      this.limits = limits;
+      this.solutionAction = solutionAction;
+    }
+
+    /**
+     * Explores the search tree until the next solution or the end of the 
+     * search.
+     * 
+     * @return {@code true} if a solution has been found, {@code false} if the
+     *         search is over.
+     */
+    boolean next() {
+      if (done) {
+        return false;
+      }
+      if (!started) {
+        return start();
+      }
+
+      // Continue the search. The search terminates if the stack of decisions
+      // is empty (meaning that the search tree has been entirely explored) or 
+      // if the stop condition is met or a limit is reached.
+      while (!decisions.isEmpty() && !stopCondition.test(stats) 
+          && (limits == null || !limits.isReached(stats, trail))) {
+
+        // Restart from the root node if the fail limit of the run is reached
+        // or if a restart has been requested.
+        if (stats.nFails >= failLimit || stats.restartRequested) {
+          stats.nRestarts++;
+          stats.restartRequested = false;
+          failLimit = nextFailLimit(stats);
+          trail.undoUntilLevel(rootLevel);
+          decisions.clear();
+          // The root node is saved before being propagated again as the bound
+          // of the objective might have been tightened since the previous run.
+          trail.newLevel();
+          if (!propagate()) {
+            break;
+          }
+          if (heuristic.pushNextDecisions(decisions)) {
+            solution();
+            // The root node is a solution: there's nothing left to explore.
+            decisions.clear();
+            return true;
+          }
+          trail.newLevel();
+          continue;
+        }
+
+        stats.nNodes++;
+        if (metrics != null) {
+          metrics.node(trail.getLevel(), trail.size());
+        }
+
+        // Apply the next decision and propagate. This can result in a failed
+        // node in which case we restore the previous state.
+        if (!decisions.applyTop() || !propagate()) {
+          stats.nFails++;
+          if (metrics != null) {
+            metrics.fail();
+          }
+          trail.undoLevel();
+          continue;
+        }
+
+        // At this point we know that the new node is not failed and we check 
+        // that it is a solution or not. 
+        if (heuristic.pushNextDecisions(decisions)) {
+          solution();
+          trail.undoLevel();
+          return true;
+        }
+
+        // The node is neither a failed node or a solution so we continue to 
+        // explore the branch.
+        trail.newLevel();
+      }
+
+      // The search is complete if there's no remaining decisions to be 
+      // applied.
+      end(decisions.isEmpty());
+      return false;
+    }
+
+    /**
+     * Terminates the search and restores the state of the root node. Does 
+     * nothing if the search is already over.
+     */
+    void close() {
+      if (!done) {
+        if (started) {
+          end(false);
+        } else {
+          done = true;
+        }
+      }
+    }
+
+    boolean isDone() {
+      return done;
     }
 
-    // Save the root state.
-    trail.newLevel();
-
-    // Start the search. The search terminates if the stack of decisions
-    // is empty (meaning that the search tree has been entirely explored) or 
-    // if the stop condition is met.
-    while (!decisions.isEmpty() && !stopCondition.test(stats)) {
-      stats.nNodes++;
-
-      // Apply the next decision and propagate. This can result in a failed
-      // node in which case we restore the previous state.
-      if (!decisions.pop().apply() || !propagate()) {
-        stats.nFails++;
-        trail.undoLevel();
-        continue;
+    // Propagates the root node. Returns true if it is a solution.
+    private boolean start() {
+      if (active != null) {
+        active.close();
+      }
+      active = this;
+      started = true;
+      rootLevel = trail.getLevel();
+      if (limits != null) {
+        limits.reset();
+      }
+      if (metrics != null) {
+        metrics.searchStarted();
+      }
+      stats.startTime = System.currentTimeMillis();
+
+      // The root node is propagated in its own level so that the search, 
+      // whose last decision is applied in the level of the root node, never
+      // undoes the level in which it started.
+      trail.newLevel();
+
+      // Return if the root node is unfeasible.
+      if (!propagate()) {
+        trail.undoUntilLevel(rootLevel);
+        stop(true);
+        return false;
       }
 
-      // At this point we know that the new node is not failed and we check 
-      // that it is a solution or not. 
+      // Return if the root node is already a solution.
       if (heuristic.pushNextDecisions(decisions)) {
-        foundSolution(stats);
-        trail.undoLevel();
-        continue;
+        solution();
+        trail.undoUntilLevel(rootLevel);
+        stop(true);
+        return true;
       }
 
-      // The node is neither a failed node or a solution so we continue to 
-      // explore the branch.
+      // Save the root state.
       trail.newLevel();
+      failLimit = nextFailLimit(stats);
+      return next();
+    }
+
+    private void solution() {
+      foundSolution(stats);
+      if (solutionAction != null) {
+        solutionAction.execute();
+      }
+    }
+
+    private void end(boolean completed) {
+      // Clear the remaining decisions (if the search is incomplete) and 
+      // restore the state of the root node.
+      trail.undoUntilLevel(rootLevel);
+      decisions.clear();
+      stop(completed);
     }
 
-    // The search is complete if there's no remaining decisions to be applied.
-    stats.completed = decisions.isEmpty();
-    
-    // Clear the remaining decisions (if the search is incomplete) and restore
-    // the state of the root node.
-    trail.undoAll();
-    decisions.clear();
-    
-    return stats;
+    private void stop(boolean completed) {
+      stats.completed = completed;
+      done = true;
+      active = null;
+      if (metrics != null) {
+        metrics.searchEnded(completed);
+      }
+    }
+  }
+
+  // Returns the total number of fails after which the next run is restarted.
+  private int nextFailLimit(SearchStats stats) {
+    if (restartPolicy == null) {
+      return Integer.MAX_VALUE;
+    }
+    long limit = (long) stats.nFails + restartPolicy.failLimit(stats.nRestarts);
+    return (int) Math.min(limit, Integer.MAX_VALUE);
   }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import java.util.Arrays;
+
+import kiwi.trail.Trail;
+import kiwi.util.Stack;
+import kiwi.variable.IntVar;
+
+/**
+ * A stack of decisions encoded with primitives.
+ * 
+ * <p>
+ * {@code VarValDecision}s are pushed as the array of variables of their 
+ * heuristic, the index of their variable, their value, and their operation,
+ * in parallel arrays. Pushing and applying them thus allocates nothing. 
+ * Other decisions are pushed as objects. The last pushed decision is the 
+ * first to be applied.
+ * </p>
+ * 
+ * @see Heuristic#pushNextDecisions(DecisionStack)
+ */
+public final class DecisionStack {
+
+  private IntVar[][] variables = new IntVar[16][];
+  private int[] varIds = new int[16];
+  private int[] values = new int[16];
+  private int[] ops = new int[16];
+  private Decision[] objects = new Decision[16];
+  private int size = 0;
+
+  // Receives the decisions of the heuristics that push objects.
+  private final Stack<Decision> buffer = new Stack<Decision>();
+
+  public int getSize() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    while (size > 0) {
+      size--;
+      objects[size] = null;
+    }
+  }
+
+  /**
+   * Pushes a {@code VarValDecision} without creating it.
+   * 
+   * @param variables the variables of the heuristic.
+   * @param varId the index of the variable of the decision.
+   * @param value the value of the decision.
+   * @param op the operation of the decision, as defined in 
+   *        {@code VarValDecision}.
+   */
+  public void push(IntVar[] variables, int varId, int value, int op) {
+    if (size == ops.length) {
+      grow();
+    }
+    this.variables[size] = variables;
+    varIds[size] = varId;
+    values[size] = value;
+    ops[size] = op;
+    size++;
+  }
+
+  /**
+   * Pushes a decision of any kind.
+   * 
+   * @param decision the decision to push.
+   */
+  public void push(Decision decision) {
+    if (size == ops.length) {
+      grow();
+    }
+    variables[size] = null;
+    objects[size] = decision;
+    size++;
+  }
+
+  /**
+   * Removes the last pushed decision and applies it.
+   * 
+   * @return {@code true} if and only if the decision did not fail directly.
+   */
+  public boolean applyTop() {
+    size--;
+    IntVar[] vars = variables[size];
+    if (vars == null) {
+      Decision decision = objects[size];
+      objects[size] = null;
+      return decision.apply();
+    }
+    int varId = varIds[size];
+    IntVar variable = vars[varId];
+    Trail trail = variable.trail();
+    if (trail.isRecording()) {
+      // The trail needs an object to replay the decision.
+      return new VarValDecision(vars, varId, values[size], ops[size]).apply();
+    }
+    return VarValDecision.apply(variable, values[size], ops[size]);
+  }
+
+  // Returns the stack used to collect the decisions of the heuristics that 
+  // push objects. 
+  Stack<Decision> buffer() {
+    return buffer;
+  }
+
+  private void grow() {
+    int capacity = size * 2;
+    variables = Arrays.copyOf(variables, capacity);
+    varIds = Arrays.copyOf(varIds, capacity);
+    values = Arrays.copyOf(values, capacity);
+    ops = Arrays.copyOf(ops, capacity);
+    objects = Arrays.copyOf(objects, capacity);
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+import kiwi.trail.Trail;
+import kiwi.variable.IntVar;
+
+/**
+ * Dichotomic optimization of the objective.
+ * 
+ * <p>
+ * The search first looks for an initial solution. It then bisects the range
+ * between the proven bound of the objective and the best solution: each 
+ * phase restricts the objective to the better half of the range and explores
+ * it with a depth-first search limited in number of nodes. A solution 
+ * improves the best value, while an exhausted half improves the proven bound.
+ * The range is thus halved by each conclusive phase, which converges in a
+ * logarithmic number of phases when the objective has a wide range, e.g., a 
+ * makespan, instead of improving the best solution by one at a time.
+ * </p>
+ * 
+ * <p>
+ * A phase that reaches its node limit without solution is inconclusive: the 
+ * next phase probes the half of the remaining range that is closest to the
+ * best solution, and the node limit is doubled once the probe cannot get any
+ * closer. The bounds are recorded after each phase in a history that can be
+ * read while the search is running, along with the optimality gap.
+ * </p>
+ */
+public class DichotomicSearch {
+
+  private final DFSearch search;
+  private final Heuristic heuristic;
+  private final Objective objective;
+  private final boolean minimize;
+
+  // The best and proven values, as costs to minimize, read by other threads.
+  private volatile long best = Long.MAX_VALUE;
+  private volatile long bound = Long.MIN_VALUE;
+  private boolean found = false;
+  private long startTime;
+
+  private final List<Bounds> history = new CopyOnWriteArrayList<>();
+
+  /** The bounds of the objective at a given time of the search. */
+  public static class Bounds {
+    /** The time since the start of the search in milliseconds. */
+    public final long time;
+    /** The value of the best solution. */
+    public final int best;
+    /** The proven bound on the optimal value. */
+    public final int bound;
+
+    Bounds(long time, int best, int bound) {
+      this.time = time;
+      this.best = best;
+      this.bound = bound;
+    }
+
+    /**
+     * Returns the optimality gap, i.e., the difference between the best value 
+     * and the bound relative to the best value.
+     * 
+     * @return the relative gap, 0 if the best solution is optimal.
+     */
+    public double gap() {
+      return relativeGap(best, bound);
+    }
+
+    @Override
+    public String toString() {
+      return time + " ms: best " + best + ", bound " + bound;
+    }
+  }
+
+  public DichotomicSearch(DFSearch search, Heuristic heuristic) {
+    this.search = search;
+    this.heuristic = heuristic;
+    this.objective = search.objective();
+    if (objective == null) {
+      throw new IllegalStateException("dichotomic search requires an objective");
+    }
+    this.minimize = objective.isMinimization();
+  }
+
+  // Records the solutions of the phases. Passed to each phase rather than 
+  // added to the search so that it does not outlive this search.
+  private void improve() {
+    found = true;
+    best = Math.min(best, cost(objective.value()));
+  }
+
+  /**
+   * Returns the value of the best solution found so far.
+   * 
+   * @return the best value, or the worst value of the objective if no 
+   *         solution has been found.
+   */
+  public int bestValue() {
+    return value(best);
+  }
+
+  /**
+   * Returns the best bound proven so far on the optimal value: a lower bound
+   * when minimizing, an upper bound when maximizing.
+   * 
+   * @return the proven bound.
+   */
+  public int bound() {
+    return value(bound);
+  }
+
+  /**
+   * Returns the current optimality gap, i.e., the difference between the 
+   * best value and the proven bound relative to the best value.
+   * 
+   * @return the relative gap, 0 if the best solution is optimal, or 
+   *         infinity if no solution has been found.
+   */
+  public double gap() {
+    long b = best;
+    return b == Long.MAX_VALUE ? Double.POSITIVE_INFINITY : relativeGap(value(b), bound());
+  }
+
+  /**
+   * Returns the bounds recorded after each phase, in chronological order.
+   * This method can be called while the search is running.
+   * 
+   * @return the history of the bounds.
+   */
+  public List<Bounds> history() {
+    return history;
+  }
+
+  /** 
+   * Starts the search 
+   * 
+   * @param  nodeLimit the number of nodes after which the first bisection 
+   *         phases are stopped.
+   * @param  stopCondition a predicate to stop the search, tested at each node
+   *         of the search of the initial solution and then before each phase
+   *         on the statistics cumulated over all the phases.
+   * @return A {@code SearchStats} object that contains the metrics related to
+   *         all the phases. The search is complete if the optimality of the 
+   *         best solution, or the infeasibility of the problem, is proven.
+   */
+  public SearchStats search(int nodeLimit, Predicate<SearchStats> stopCondition) {
+    SearchStats stats = new SearchStats();
+    stats.startTime = startTime = System.currentTimeMillis();
+    Trail trail = search.trail();
+    IntVar objVar = objective.variable();
+    bound = cost(minimize ? objVar.min() : objVar.max());
+    best = Long.MAX_VALUE;
+    found = false;
+    history.clear();
+
+    // Search for an initial solution. As in the phases, the search is run in
+    // a new level so that the root state is entirely restored afterwards.
+    trail.newLevel();
+    SearchStats initial = search.search(heuristic, s -> s.nSolutions > 0 
+        || stopCondition.test(s), null, this::improve);
+    trail.undoLevel();
+    stats.add(initial);
+    if (initial.completed) {
+      // The search proved that there's no (better) solution.
+      stats.completed = true;
+      if (found) {
+        bound = best;
+        record();
+      }
+      return stats;
+    }
+    if (!found) {
+      return stats;
+    }
+    record();
+
+    // Bisect the range between the proven bound and the best solution. The
+    // probe is the lowest value of the range not known to be hard to reach.
+    long probe = bound;
+    int limit = nodeLimit;
+    while (bound < best && !stopCondition.test(stats)) {
+      long upper = best - 1;
+      long mid = probe + (upper - probe) / 2;
+      trail.newLevel();
+      boolean feasible = minimize ? objVar.updateMax((int) mid) : objVar.updateMin((int) -mid);
+      long previous = best;
+      SearchStats phase;
+      if (feasible) {
+        int phaseLimit = limit;
+        phase = search.search(heuristic, s -> s.nSolutions > 0 || s.nNodes >= phaseLimit, 
+            null, this::improve);
+      } else {
+        phase = new SearchStats();
+        phase.completed = true;
+      }
+      trail.undoLevel();
+      stats.add(phase);
+      if (phase.completed) {
+        // There's no better solution than the best one in the half.
+        bound = Math.max(bound, Math.min(mid, best - 1) + 1);
+        probe = bound;
+      } else if (best < previous) {
+        probe = bound;
+      } else if (mid < upper) {
+        probe = mid + 1;
+      } else {
+        // The probe cannot get closer to the best solution.
+        probe = bound;
+        limit = (int) Math.min(2L * limit, Integer.MAX_VALUE);
+      }
+      record();
+    }
+    stats.completed = bound >= best;
+    return stats;
+  }
+
+  // Records the current bounds in the history.
+  private void record() {
+    long time = System.currentTimeMillis() - startTime;
+    history.add(new Bounds(time, value(best), value(bound)));
+  }
+
+  private long cost(int value) {
+    return minimize ? value : -(long) value;
+  }
+
+  private int value(long cost) {
+    if (cost == Long.MAX_VALUE) {
+      return minimize ? IntVar.MAX_VALUE : IntVar.MIN_VALUE;
+    }
+    return (int) (minimize ? cost : -cost);
+  }
+
+  private static double relativeGap(int best, int bound) {
+    double diff = Math.abs((double) best - bound);
+    return diff == 0 ? 0 : diff / Math.max(1, Math.abs((double) best));
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import kiwi.trail.Trail;
+import kiwi.util.Stack;
+
+/**
+ * Embarrassingly Parallel Search (EPS).
+ * 
+ * <p>
+ * The search tree is first expanded up to a given depth. Each open node at that
+ * depth is saved as a {@code Subproblem}. The subproblems are then solved 
+ * independently by a pool of workers, each one with its own copy of the model 
+ * and its own {@code DFSearch}. Workers never synchronize their trails: they 
+ * only share the index of the next subproblem to solve and, in optimization, 
+ * the bound of the objective.
+ * </p>
+ * 
+ * <p>
+ * Reference:
+ * - Regin, Rezgui, and Malapert. Embarrassingly Parallel Search. CP 2013.
+ * </p>
+ */
+public class EPSearch {
+
+  private final DFSearch[] searches;
+  private final Heuristic[] heuristics;
+
+  private volatile boolean stopped;
+
+  /**
+   * Creates an EPS with one worker for each search.
+   * 
+   * @param searches   the searches of the copies of the model.
+   * @param heuristics the heuristics of the copies of the model, in the same 
+   *                   order as {@code searches}.
+   */
+  public EPSearch(DFSearch[] searches, Heuristic[] heuristics) {
+    this.searches = searches;
+    this.heuristics = heuristics;
+  }
+
+  /**
+   * Decomposes the problem into subproblems.
+   * 
+   * <p>
+   * The subproblems are the nodes at the specified depth of the search tree, 
+   * and the solutions found before that depth. Failed nodes are discarded. The
+   * subproblems are returned in the order in which a depth-first search would
+   * have visited them.
+   * </p>
+   * 
+   * @param  depth the depth of the subproblems in the search tree.
+   * @return the list of subproblems.
+   */
+  public List<Subproblem> decompose(int depth) {
+    List<Subproblem> subproblems = new ArrayList<>();
+    DFSearch search = searches[0];
+    if (search.propagate()) {
+      expand(search.trail(), new Decision[depth], 0, subproblems);
+    }
+    search.trail().undoAll();
+    return subproblems;
+  }
+
+  private void expand(Trail trail, Decision[] path, int depth, List<Subproblem> subproblems) {
+    Stack<Decision> children = new Stack<>();
+    if (depth == path.length || heuristics[0].pushNextDecisions(children)) {
+      Subproblem subproblem = Subproblem.encode(path, depth);
+      if (subproblem == null) {
+        throw new IllegalStateException("EPS requires a heuristic that takes VarValDecisions");
+      }
+      subproblems.add(subproblem);
+      return;
+    }
+    while (!children.isEmpty()) {
+      Decision decision = children.pop();
+      path[depth] = decision;
+      trail.newLevel();
+      if (decision.apply() && searches[0].propagate()) {
+        expand(trail, path, depth + 1, subproblems);
+      }
+      trail.undoLevel();
+    }
+  }
+
+  /**
+   * Solves the subproblems that are not solved yet.
+   * 
+   * <p>
+   * Subproblems are marked as solved as soon as their search is complete. A 
+   * partially processed batch can thus be resumed by calling this method with
+   * the same subproblems. The stop condition is tested on the statistics of 
+   * each subproblem. The first worker that meets it stops all the others.
+   * </p>
+   * 
+   * @param  subproblems the subproblems to solve.
+   * @param  stopCondition a predicate to stop the search.
+   * @return A {@code SearchStats} object that contains the metrics related to
+   *         the search of all the subproblems. The search is complete if all
+   *         the subproblems are solved.
+   */
+  public SearchStats search(List<Subproblem> subproblems, Predicate<SearchStats> stopCondition) {
+    SearchStats stats = new SearchStats();
+    stats.startTime = System.currentTimeMillis();
+    stopped = false;
+
+    SharedBound.share(searches);
+
+    AtomicInteger next = new AtomicInteger();
+    SearchStats[] workerStats = new SearchStats[searches.length];
+    Runnable[] workers = new Runnable[searches.length];
+    for (int i = 0; i < searches.length; i++) {
+      DFSearch search = searches[i];
+      Heuristic heuristic = heuristics[i];
+      SearchStats local = workerStats[i] = new SearchStats();
+      workers[i] = () -> {
+        int index;
+        while (!stopped && (index = next.getAndIncrement()) < subproblems.size()) {
+          Subproblem subproblem = subproblems.get(index);
+          if (!subproblem.isSolved()) {
+            solve(search, heuristic, subproblem, local, stopCondition);
+          }
+        }
+      };
+    }
+    Workers.run("kiwi-eps", workers, () -> stopped = true);
+
+    stats.completed = true;
+    for (SearchStats local : workerStats) {
+      stats.add(local);
+    }
+    for (Subproblem subproblem : subproblems) {
+      stats.completed &= subproblem.isSolved();
+    }
+    return stats;
+  }
+
+  private void solve(DFSearch search, Heuristic heuristic, Subproblem subproblem, 
+      SearchStats stats, Predicate<SearchStats> stopCondition) {
+    Trail trail = search.trail();
+    trail.newLevel();
+    // Replay the decisions that lead to the subproblem.
+    Decision[] decisions = subproblem.decisions(heuristic.variables());
+    for (Decision decision : decisions) {
+      if (!decision.apply() || !search.propagate()) {
+        stats.nFails++;
+        trail.undoLevel();
+        subproblem.setSolved(true);
+        return;
+      }
+    }
+    SearchStats local = search.search(heuristic, s -> {
+      if (!stopped && stopCondition.test(s)) {
+        stopped = true;
+      }
+      return stopped;
+    });
+    trail.undoLevel();
+    stats.add(local);
+    subproblem.setSolved(local.completed);
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+/**
+ * A {@code RestartPolicy} whose fail limit starts at a base value and is 
+ * multiplied by a growth factor after each restart.
+ */
+public class GeometricRestarts implements RestartPolicy {
+
+  private final int base;
+  private final double factor;
+
+  public GeometricRestarts(int base, double factor) {
+    this.base = base;
+    this.factor = factor;
+  }
+
+  @Override
+  public int failLimit(int run) {
+    double limit = base * Math.pow(factor, run);
+    return (int) Math.min(limit, Integer.MAX_VALUE);
+  }
+}
@@ -16,6 +16,7 @@
 package kiwi.search;
 
 import kiwi.util.Stack;
+import kiwi.variable.IntVar;
 
 /**
  * Superclass to be instantiated by any search heuristic.
@@ -39,4 +40,45 @@ public interface Heuristic {
    * @return true if the decision stack is unchanged; false otherwise.
    */
   public boolean pushNextDecisions(Stack<Decision> decisions);
+
+  /**
+   * Pushes the next decisions to be taken on top of the primitive decisions
+   * stack used by {@code DFSearch}.
+   * 
+   * <p>
+   * The default implementation pushes the decisions of 
+   * {@link #pushNextDecisions(Stack)} as objects. Heuristics that take
+   * {@code VarValDecision}s override it to push them as primitives, which
+   * allocates nothing.
+   * </p>
+   * 
+   * @param decisions
+   *          The stack of decisions to be taken.
+   * 
+   * @return true if the decision stack is unchanged; false otherwise.
+   */
+  public default boolean pushNextDecisions(DecisionStack decisions) {
+    Stack<Decision> buffer = decisions.buffer();
+    boolean unchanged = pushNextDecisions(buffer);
+    for (int i = 0; i < buffer.getSize(); i++) {
+      decisions.push(buffer.get(i));
+    }
+    buffer.clear();
+    return unchanged;
+  }
+
+  /**
+   * Returns the variables referred to by the {@code VarValDecision}s pushed by
+   * this heuristic.
+   * 
+   * <p>
+   * Heuristics that push other kinds of decisions return {@code null}. Their
+   * decisions cannot be replayed on another copy of the model.
+   * </p>
+   * 
+   * @return the variables of this heuristic or {@code null}.
+   */
+  public default IntVar[] variables() {
+    return null;
+  }
 }
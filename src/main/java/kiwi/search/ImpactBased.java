@@ -0,0 +1,205 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import kiwi.util.Stack;
+import kiwi.variable.IntVar;
+
+/**
+ * Impact-based search.
+ * 
+ * <p>
+ * The impact of an assignment is the relative reduction of the search space,
+ * i.e., of the product of the domain sizes, caused by the assignment and its
+ * propagation. A failed assignment has an impact of one. Impacts are 
+ * averaged over all the observed assignments. The heuristic branches on the 
+ * variable that minimizes the sum of {@code 1 - impact} over the values of
+ * its domain, and tries the value of smallest impact first. Impacts can be 
+ * initialized by probing the root node.
+ * </p>
+ * 
+ * <p>
+ * Impacts are stored for every value of the initial domains. This heuristic
+ * is thus meant for variables with reasonably small domains.
+ * </p>
+ * 
+ * Reference: P. Refalo, Impact-Based Search Strategies for Constraint 
+ * Programming, CP 2004.
+ */
+public class ImpactBased implements Heuristic {
+
+  private final IntVar[] variables;
+  private final int[] offsets;
+  private final double[][] impacts;
+  private final int[][] counts;
+  private final int[] domain;
+  private final BinaryVarVal selector;
+
+  // The assignment whose impact has not been measured yet.
+  private Assign pending = null;
+
+  /**
+   * Creates an impact-based heuristic.
+   * 
+   * @param variables the variables to assign.
+   */
+  public ImpactBased(IntVar[] variables) {
+    this.variables = variables;
+    this.offsets = new int[variables.length];
+    this.impacts = new double[variables.length][];
+    this.counts = new int[variables.length][];
+    int maxSize = 0;
+    for (int i = 0; i < variables.length; i++) {
+      int range = variables[i].max() - variables[i].min() + 1;
+      offsets[i] = variables[i].min();
+      impacts[i] = new double[range];
+      counts[i] = new int[range];
+      maxSize = Math.max(maxSize, variables[i].size());
+    }
+    this.domain = new int[maxSize];
+    this.selector = BinaryVarVal.withRealCost(variables, this::cost, i -> 0);
+  }
+
+  /**
+   * Initializes the impacts with random dives from the root node.
+   * 
+   * @param nProbes the number of dives.
+   * @param seed the seed of the random dives.
+   */
+  public void probe(int nProbes, long seed) {
+    Probing.dive(variables, nProbes, seed, new Probing.Observer() {
+      private double logSize;
+
+      @Override public void beforeAssign(int varId, int value) {
+        logSize = logSize();
+      }
+
+      @Override public void afterAssign(int varId, int value, boolean feasible) {
+        update(varId, value, feasible ? 1 - Math.exp(logSize() - logSize) : 1);
+      }
+    });
+  }
+
+  /**
+   * Returns the average impact of an assignment.
+   * 
+   * @param varId the index of the variable.
+   * @param value the value assigned to the variable.
+   * @return the average impact of the assignment, 0 if it was never observed.
+   */
+  public double impact(int varId, int value) {
+    return impacts[varId][value - offsets[varId]];
+  }
+
+  @Override
+  public boolean pushNextDecisions(Stack<Decision> decisions) {
+    double logSize = logSize();
+    // The last assignment succeeded since its node is being expanded.
+    if (pending != null) {
+      update(pending.varId, pending.value, 1 - Math.exp(logSize - pending.logSize));
+      pending = null;
+    }
+    int varId = selector.selectVar();
+    if (varId == -1) {
+      return true;
+    }
+    int value = selectValue(varId);
+    decisions.push(new Remove(varId, value));
+    decisions.push(new Assign(varId, value, logSize));
+    return false;
+  }
+
+  @Override
+  public IntVar[] variables() {
+    return variables;
+  }
+
+  private double cost(int varId) {
+    int size = variables[varId].copyDomain(domain);
+    double[] varImpacts = impacts[varId];
+    int offset = offsets[varId];
+    double cost = 0;
+    for (int i = 0; i < size; i++) {
+      cost += 1 - varImpacts[domain[i] - offset];
+    }
+    return cost;
+  }
+
+  private int selectValue(int varId) {
+    int size = variables[varId].copyDomain(domain);
+    double[] varImpacts = impacts[varId];
+    int offset = offsets[varId];
+    int best = domain[0];
+    for (int i = 1; i < size; i++) {
+      int value = domain[i];
+      double impact = varImpacts[value - offset];
+      double bestImpact = varImpacts[best - offset];
+      if (impact < bestImpact || (impact == bestImpact && value < best)) {
+        best = value;
+      }
+    }
+    return best;
+  }
+
+  // Returns the logarithm of the product of the domain sizes.
+  private double logSize() {
+    double logSize = 0;
+    for (int i = 0; i < variables.length; i++) {
+      logSize += Math.log(variables[i].size());
+    }
+    return logSize;
+  }
+
+  private void update(int varId, int value, double impact) {
+    // The search space might have grown if the search restarted.
+    impact = Math.max(0, Math.min(1, impact));
+    int id = value - offsets[varId];
+    int count = ++counts[varId][id];
+    impacts[varId][id] += (impact - impacts[varId][id]) / count;
+  }
+
+  private class Assign extends VarValDecision {
+    private final double logSize;
+
+    Assign(int varId, int value, double logSize) {
+      super(variables, varId, value, ASSIGN);
+      this.logSize = logSize;
+    }
+
+    @Override
+    public boolean apply() {
+      pending = this;
+      return super.apply();
+    }
+  }
+
+  private class Remove extends VarValDecision {
+
+    Remove(int varId, int value) {
+      super(variables, varId, value, REMOVE);
+    }
+
+    @Override
+    public boolean apply() {
+      // The refutation directly follows its assignment if the latter failed.
+      if (pending != null) {
+        update(pending.varId, pending.value, 1);
+        pending = null;
+      }
+      return super.apply();
+    }
+  }
+}
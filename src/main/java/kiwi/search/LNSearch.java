@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import java.util.function.Predicate;
+
+import kiwi.trail.Trail;
+import kiwi.util.Action;
+import kiwi.variable.IntVar;
+
+/**
+ * Large Neighborhood Search (LNS).
+ * 
+ * <p>
+ * LNS first searches for an initial solution. It then repeatedly fixes some
+ * of the variables to their value in the best solution found so far, as 
+ * defined by a {@code Neighborhood}, and explores the resulting subproblem
+ * with a depth-first search limited in number of fails. The bound of the 
+ * objective being kept from one iteration to the next, each new solution 
+ * improves the best one and is used as the basis of the next neighborhoods.
+ * </p>
+ * 
+ * <p>
+ * The variables of the problem are the variables of the heuristic (see 
+ * {@link Heuristic#variables}). Several workers, each one with its own copy 
+ * of the model and its own neighborhood, can explore neighborhoods in 
+ * parallel. They share the best solution and the bound of the objective.
+ * </p>
+ */
+public class LNSearch {
+
+  private final DFSearch[] searches;
+  private final Heuristic[] heuristics;
+  private final Neighborhood[] neighborhoods;
+
+  // The best solution found so far and its objective value.
+  private int[] bestSolution;
+  private int bestValue;
+  private volatile boolean found;
+
+  private volatile boolean stopped;
+  private volatile boolean completed;
+
+  public LNSearch(DFSearch search, Heuristic heuristic, Neighborhood neighborhood) {
+    this(new DFSearch[]{search}, new Heuristic[]{heuristic}, new Neighborhood[]{neighborhood});
+  }
+
+  /**
+   * Creates an LNS with one worker for each search.
+   * 
+   * @param searches      the searches of the copies of the model.
+   * @param heuristics    the heuristics of the copies of the model.
+   * @param neighborhoods the neighborhoods used by each worker.
+   */
+  public LNSearch(DFSearch[] searches, Heuristic[] heuristics, Neighborhood[] neighborhoods) {
+    this.searches = searches;
+    this.heuristics = heuristics;
+    this.neighborhoods = neighborhoods;
+    for (int i = 0; i < searches.length; i++) {
+      if (searches[i].objective() == null) {
+        throw new IllegalStateException("LNS requires an objective");
+      }
+      if (heuristics[i].variables() == null) {
+        throw new IllegalArgumentException("LNS requires a heuristic that exposes its variables");
+      }
+    }
+  }
+
+  /**
+   * Returns a copy of the best solution found so far.
+   * 
+   * @return the value of each variable of the heuristic in the best solution, 
+   *         or {@code null} if no solution has been found.
+   */
+  public synchronized int[] bestSolution() {
+    return bestSolution == null ? null : bestSolution.clone();
+  }
+
+  // Records the current solution if it is better than the best one.
+  private synchronized void offer(IntVar[] variables, Objective objective) {
+    int value = objective.value();
+    boolean minimize = objective.isMinimization();
+    if (bestSolution != null && (minimize ? value >= bestValue : value <= bestValue)) {
+      return;
+    }
+    bestValue = value;
+    bestSolution = new int[variables.length];
+    for (int i = 0; i < variables.length; i++) {
+      bestSolution[i] = variables[i].min();
+    }
+    found = true;
+  }
+
+  /** 
+   * Starts the search 
+   * 
+   * <p>
+   * The stop condition is tested by each worker on its own statistics, 
+   * aggregated over all the neighborhoods it explored, before exploring each
+   * neighborhood. The first worker that meets it stops all the others. The 
+   * search is complete only if the search of the initial solution proved the
+   * optimality of its result.
+   * </p>
+   * 
+   * @param  failLimit the number of fails after which the exploration of a
+   *         neighborhood is stopped.
+   * @param  stopCondition a predicate to stop the search.
+   * @return A {@code SearchStats} object that contains the metrics related to
+   *         the search of all the workers.
+   */
+  public SearchStats search(int failLimit, Predicate<SearchStats> stopCondition) {
+    SearchStats stats = new SearchStats();
+    stats.startTime = System.currentTimeMillis();
+    stopped = false;
+    completed = false;
+
+    SharedBound.share(searches);
+
+    SearchStats[] workerStats = new SearchStats[searches.length];
+    Runnable[] workers = new Runnable[searches.length];
+    for (int i = 0; i < searches.length; i++) {
+      final int id = i;
+      SearchStats local = workerStats[i] = new SearchStats();
+      local.startTime = stats.startTime;
+      workers[i] = () -> explore(id, local, failLimit, stopCondition);
+    }
+    Workers.run("kiwi-lns", workers, () -> stopped = true);
+
+    for (SearchStats local : workerStats) {
+      stats.add(local);
+    }
+    stats.completed = completed;
+    return stats;
+  }
+
+  private void explore(int id, SearchStats stats, int failLimit, Predicate<SearchStats> stopCondition) {
+    DFSearch search = searches[id];
+    Heuristic heuristic = heuristics[id];
+    Trail trail = search.trail();
+    IntVar[] variables = heuristic.variables();
+    // Record the solutions of this search only, without registering an action
+    // that would outlive it on the search.
+    Objective objective = search.objective();
+    Action offer = () -> offer(variables, objective);
+
+    // Search for an initial solution. The first worker to find one stops the
+    // others.
+    SearchStats initial = search.search(heuristic, s -> stopped || found 
+        || stopCondition.test(s), null, offer);
+    stats.add(initial);
+    if (initial.completed) {
+      completed = true;
+      stopped = true;
+    }
+
+    while (!stopped && !stopCondition.test(stats)) {
+      int[] solution = bestSolution();
+      if (solution == null) {
+        return;
+      }
+      // Explore the neighborhood of the best solution. The variables are fixed
+      // in a new level, which is undone after the search.
+      trail.newLevel();
+      if (neighborhoods[id].fix(variables, solution)) {
+        stats.add(search.search(heuristic, s -> stopped || s.nFails >= failLimit, null, 
+            offer));
+      } else {
+        stats.nFails++;
+      }
+      trail.undoLevel();
+    }
+    stopped = true;
+  }
+}
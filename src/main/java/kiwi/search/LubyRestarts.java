@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+/**
+ * A {@code RestartPolicy} that follows the Luby sequence 1, 1, 2, 1, 1, 2, 4,
+ * 1, 1, 2, 1, 1, 2, 4, 8, ... multiplied by a scale factor.
+ * 
+ * <p>
+ * Reference:
+ * - Luby, Sinclair, and Zuckerman. Optimal speedup of Las Vegas algorithms.
+ *   Information Processing Letters, 1993.
+ * </p>
+ */
+public class LubyRestarts implements RestartPolicy {
+
+  private final int scale;
+
+  public LubyRestarts(int scale) {
+    this.scale = scale;
+  }
+
+  @Override
+  public int failLimit(int run) {
+    long limit = (long) scale * luby(run + 1);
+    return (int) Math.min(limit, Integer.MAX_VALUE);
+  }
+
+  // Returns the i-th term of the Luby sequence, starting from 1.
+  static int luby(int i) {
+    int k = 1;
+    while ((1L << k) - 1 < i) {
+      k++;
+    }
+    if ((1L << k) - 1 == i) {
+      return 1 << (k - 1);
+    }
+    return luby(i - (1 << (k - 1)) + 1);
+  }
+}
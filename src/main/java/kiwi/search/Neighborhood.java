@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import kiwi.variable.IntVar;
+
+/**
+ * Superclass to be instantiated by any neighborhood of a Large Neighborhood 
+ * Search.
+ * 
+ * <p>
+ * A {@code Neighborhood} restricts the search space to the neighborhood of a
+ * solution by fixing some of the variables to their value in that solution. 
+ * The other variables are said to be relaxed.
+ * </p>
+ */
+public interface Neighborhood {
+
+  /**
+   * Fixes some variables to their value in the specified solution.
+   * 
+   * @param  variables the variables of the problem.
+   * @param  solution  the value of each variable in the solution.
+   * @return {@code false} if fixing the variables made the problem 
+   *         unfeasible; {@code true} otherwise.
+   */
+  public boolean fix(IntVar[] variables, int[] solution);
+}
@@ -22,6 +22,7 @@ public class Objective {
   private final IntVar objVar; 
   private final boolean minimize;
   private int bestValue;
+  private SharedBound sharedBound = null;
   
   public Objective(IntVar objVar, boolean minimize) {
     this.objVar = objVar;
@@ -29,11 +30,50 @@ public class Objective {
     this.bestValue = minimize ? IntVar.MAX_VALUE : IntVar.MIN_VALUE;
   }
   
+  /**
+   * Returns the value of the objective in the current solution.
+   * 
+   * @return the maximum value of the objective variable if minimizing, or its
+   *         minimum value if maximizing.
+   */
+  public int value() {
+    return minimize ? objVar.max() : objVar.min();
+  }
+
+  public boolean isMinimization() {
+    return minimize;
+  }
+
+  IntVar variable() {
+    return objVar;
+  }
+
+  /**
+   * Shares the bound of this objective with the objectives of other solvers.
+   * 
+   * <p>
+   * Each solution found by one of these solvers tightens the bound of all the
+   * others the next time they propagate their objective.
+   * </p>
+   * 
+   * @param bound the bound to be shared.
+   */
+  public void share(SharedBound bound) {
+    this.sharedBound = bound;
+  }
+
   public void tighten() {
     bestValue = minimize ? objVar.max() - 1 : objVar.min() + 1;
+    if (sharedBound != null) {
+      bestValue = sharedBound.tighten(bestValue);
+    }
   }
   
   public boolean propagate() {
+    if (sharedBound != null) {
+      int bound = sharedBound.get();
+      bestValue = minimize ? Math.min(bestValue, bound) : Math.max(bestValue, bound);
+    }
     return minimize ? objVar.updateMax(bestValue) : objVar.updateMin(bestValue);
   }
 }
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import kiwi.trail.Trail;
+import kiwi.util.Stack;
+import kiwi.variable.IntVar;
+
+/**
+ * A work-stealing depth-first search.
+ * 
+ * <p>
+ * Each worker explores the search tree of its own copy of the model with its 
+ * own {@code DFSearch}, i.e., its own trail, propagation queue, variables and
+ * heuristic. The open decisions of a worker are kept in a stack together with
+ * the depth at which they must be applied. A worker that runs out of decisions
+ * steals the decision closest to the root in the stack of another worker and
+ * recomputes the corresponding node on its own copy of the model by replaying
+ * the decisions that lead to it.
+ * </p>
+ * 
+ * <p>
+ * Only {@code VarValDecision}s can be replayed. Decisions of other kinds are
+ * never stolen: they are explored by the worker that pushed them.
+ * </p>
+ */
+public class ParallelSearch {
+
+  private final DFSearch[] searches;
+  private final Worker[] workers;
+
+  // Number of workers that are looking for work. The search is complete when
+  // all the workers are idle.
+  private final AtomicInteger nIdle = new AtomicInteger();
+
+  private volatile boolean stopped;
+
+  /**
+   * Creates a parallel search with one worker for each search.
+   * 
+   * @param searches   the searches of the copies of the model.
+   * @param heuristics the heuristics of the copies of the model, in the same 
+   *                   order as {@code searches}.
+   */
+  public ParallelSearch(DFSearch[] searches, Heuristic[] heuristics) {
+    this.searches = searches;
+    this.workers = new Worker[searches.length];
+    for (int i = 0; i < searches.length; i++) {
+      workers[i] = new Worker(i, searches[i], heuristics[i]);
+    }
+  }
+
+  /** 
+   * Starts the search 
+   * 
+   * <p>
+   * The stop condition is tested by each worker on its own statistics. The 
+   * first worker that meets it stops all the others.
+   * </p>
+   * 
+   * @param  stopCondition a predicate to stop the search.
+   * @return A {@code SearchStats} object that contains the metrics related to
+   *         this tree search aggregated over all the workers.
+   */
+  public SearchStats search(Predicate<SearchStats> stopCondition) {
+    SearchStats stats = new SearchStats();
+    stats.startTime = System.currentTimeMillis();
+    stopped = false;
+
+    // Share the bound of the objective between all the workers.
+    SharedBound.share(searches);
+
+    // Return if the root node is unfeasible. All the copies of the model are 
+    // identical so that the root node of one is unfeasible if and only if the
+    // root nodes of all the others are.
+    for (Worker worker : workers) {
+      if (!worker.search.propagate()) {
+        stats.completed = true;
+        return stats;
+      }
+    }
+
+    // Return if the root node is already a solution.
+    Worker first = workers[0];
+    if (first.heuristic.pushNextDecisions(first.children)) {
+      first.search.foundSolution(stats);
+      stats.completed = true;
+      return stats;
+    }
+    first.pushChildren(0);
+
+    // All the workers but the first start by stealing work. Each worker 
+    // counts itself as idle when it finds no work of its own, the first time
+    // included.
+    nIdle.set(0);
+    for (Worker worker : workers) {
+      worker.stopCondition = stopCondition;
+    }
+    Workers.run("kiwi-worker", workers, () -> stopped = true);
+
+    // Aggregate the statistics of the workers and restore the state of their
+    // root node.
+    for (Worker worker : workers) {
+      stats.add(worker.stats);
+      worker.clear();
+    }
+    stats.completed = !stopped;
+    return stats;
+  }
+
+  private final class Worker implements Runnable {
+
+    final int id;
+    final DFSearch search;
+    final Heuristic heuristic;
+    final Trail trail;
+    final IntVar[] variables;
+    final SearchStats stats = new SearchStats();
+    final Stack<Decision> children = new Stack<>();
+
+    Predicate<SearchStats> stopCondition;
+
+    // The open decisions and the trail level at which they must be applied.
+    // Decisions are pushed and popped on top by the worker and stolen from the
+    // bottom by the other workers. The levels are non decreasing from the 
+    // bottom to the top.
+    private Decision[] open = new Decision[16];
+    private int[] levels = new int[16];
+    private int bottom = 0;
+    private int top = 0;
+
+    // The decisions applied to reach the current node. The decision at index i
+    // has been applied at level i. 
+    private Decision[] path = new Decision[16];
+
+    Worker(int id, DFSearch search, Heuristic heuristic) {
+      this.id = id;
+      this.search = search;
+      this.heuristic = heuristic;
+      this.trail = search.trail();
+      this.variables = heuristic.variables();
+    }
+
+    @Override
+    public void run() {
+      while (!stopped) {
+        Decision decision = null;
+        int level = 0;
+        synchronized (this) {
+          if (bottom < top) {
+            top--;
+            decision = open[top];
+            level = levels[top];
+            open[top] = null;
+            setPath(level, decision);
+          }
+        }
+
+        // Look for work in the other workers if this one has none.
+        if (decision == null) {
+          nIdle.incrementAndGet();
+          if (!steal()) {
+            return;
+          }
+          continue;
+        }
+
+        // Restore the state of the parent node and save it.
+        while (trail.getLevel() > level) {
+          trail.undoLevel();
+        }
+        trail.newLevel();
+
+        stats.nNodes++;
+
+        // Apply the decision and propagate.
+        if (!decision.apply() || !search.propagate()) {
+          stats.nFails++;
+        } else if (heuristic.pushNextDecisions(children)) {
+          search.foundSolution(stats);
+        } else {
+          pushChildren(level + 1);
+        }
+
+        if (stopCondition.test(stats)) {
+          stopped = true;
+        }
+      }
+    }
+
+    // Moves the decisions pushed by the heuristic on the open decisions.
+    synchronized void pushChildren(int level) {
+      int n = children.getSize();
+      if (top + n > open.length) {
+        grow(n);
+      }
+      for (int i = n - 1; i >= 0; i--) {
+        open[top + i] = children.pop();
+        levels[top + i] = level;
+      }
+      top += n;
+    }
+
+    private void grow(int n) {
+      int size = top - bottom;
+      int capacity = Math.max(open.length, 2 * (size + n));
+      Decision[] newOpen = new Decision[capacity];
+      int[] newLevels = new int[capacity];
+      System.arraycopy(open, bottom, newOpen, 0, size);
+      System.arraycopy(levels, bottom, newLevels, 0, size);
+      open = newOpen;
+      levels = newLevels;
+      bottom = 0;
+      top = size;
+    }
+
+    private void setPath(int level, Decision decision) {
+      if (level == path.length) {
+        Decision[] newPath = new Decision[level * 2];
+        System.arraycopy(path, 0, newPath, 0, level);
+        path = newPath;
+      }
+      path[level] = decision;
+    }
+
+    // Gives the open decision that is the closest to the root to the thief.
+    // Returns null if this worker has no work that can be replayed.
+    synchronized Subproblem giveWork() {
+      if (bottom == top || variables == null) {
+        return null;
+      }
+      int level = levels[bottom];
+      Decision[] decisions = new Decision[level + 1];
+      System.arraycopy(path, 0, decisions, 0, level);
+      decisions[level] = open[bottom];
+      Subproblem work = Subproblem.encode(decisions, level + 1);
+      if (work == null) {
+        return null;
+      }
+      open[bottom] = null;
+      bottom++;
+      // The thief must leave the idle state before this worker can enter it.
+      nIdle.decrementAndGet();
+      return work;
+    }
+
+    private boolean steal() {
+      while (!stopped && nIdle.get() < workers.length) {
+        for (int i = 1; i < workers.length; i++) {
+          Worker victim = workers[(id + i) % workers.length];
+          Subproblem work = victim.giveWork();
+          if (work != null) {
+            replay(work);
+            return true;
+          }
+        }
+        Thread.yield();
+      }
+      return false;
+    }
+
+    // Recomputes the parent node of the stolen decision and pushes it.
+    private void replay(Subproblem work) {
+      trail.undoAll();
+      Decision[] decisions = work.decisions(variables);
+      int level = decisions.length - 1;
+      synchronized (this) {
+        for (int i = 0; i < level; i++) {
+          setPath(i, decisions[i]);
+        }
+      }
+      for (int i = 0; i < level; i++) {
+        trail.newLevel();
+        // The parent node can be unfeasible if the bound of the objective has
+        // been tightened since the decision has been stolen.
+        if (!decisions[i].apply() || !search.propagate()) {
+          return;
+        }
+      }
+      children.push(decisions[level]);
+      pushChildren(level);
+    }
+
+    void clear() {
+      trail.undoAll();
+      children.clear();
+      while (top > bottom) {
+        open[--top] = null;
+      }
+      bottom = 0;
+      top = 0;
+    }
+  }
+}
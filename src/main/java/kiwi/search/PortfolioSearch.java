@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import java.util.function.Predicate;
+
+/**
+ * Runs several searches concurrently on independent copies of a model.
+ * 
+ * <p>
+ * Each member of the portfolio explores the whole search tree of its own copy
+ * of the model with its own heuristic. All the members stop as soon as one of
+ * them completes its search, i.e., proves the result. Without objective, the
+ * members also stop as soon as one of them finds a solution. With objective,
+ * the members publish their incumbent to a {@code SharedBound} read by the 
+ * objective of every other member.
+ * </p>
+ */
+public class PortfolioSearch {
+
+  private final DFSearch[] searches;
+  private final Heuristic[] heuristics;
+
+  private volatile boolean stopped;
+
+  /**
+   * Creates a portfolio with one member for each search.
+   * 
+   * @param searches   the searches of the copies of the model.
+   * @param heuristics the heuristics of the copies of the model, in the same 
+   *                   order as {@code searches}.
+   */
+  public PortfolioSearch(DFSearch[] searches, Heuristic[] heuristics) {
+    this.searches = searches;
+    this.heuristics = heuristics;
+  }
+
+  /** 
+   * Starts the search 
+   * 
+   * <p>
+   * The stop condition is tested by each member on its own statistics. The 
+   * first member that meets it stops all the others.
+   * </p>
+   * 
+   * @param  stopCondition a predicate to stop the search.
+   * @return A {@code SearchStats} object that contains the metrics related to
+   *         the searches of all the members. The search is complete if one of
+   *         the members completed its search.
+   */
+  public SearchStats search(Predicate<SearchStats> stopCondition) {
+    SearchStats stats = new SearchStats();
+    stats.startTime = System.currentTimeMillis();
+    stopped = false;
+
+    SharedBound.share(searches);
+    boolean optimization = searches[0].objective() != null;
+
+    SearchStats[] memberStats = new SearchStats[searches.length];
+    Runnable[] members = new Runnable[searches.length];
+    for (int i = 0; i < searches.length; i++) {
+      final int id = i;
+      members[i] = () -> {
+        memberStats[id] = searches[id].search(heuristics[id], s -> {
+          if (!stopped && ((!optimization && s.nSolutions > 0) || stopCondition.test(s))) {
+            stopped = true;
+          }
+          return stopped;
+        });
+        // A complete search proves the result for all the members.
+        if (memberStats[id].completed) {
+          stopped = true;
+        }
+      };
+    }
+    Workers.run("kiwi-portfolio", members, () -> stopped = true);
+
+    for (SearchStats member : memberStats) {
+      stats.add(member);
+      stats.completed |= member.completed;
+    }
+    return stats;
+  }
+}
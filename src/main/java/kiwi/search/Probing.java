@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import java.util.Random;
+
+import kiwi.propagation.PropagationQueue;
+import kiwi.trail.Trail;
+import kiwi.variable.IntVar;
+
+/**
+ * Random dives performed at the root node to initialize adaptive heuristics.
+ * 
+ * <p>
+ * Each dive assigns random unassigned variables to random values of their
+ * domain and propagates until a failure occurs or all the variables are 
+ * assigned. The root state is restored after each dive.
+ * </p>
+ */
+final class Probing {
+
+  /** Observes the assignments performed during the dives. */
+  interface Observer {
+    /** Called before assigning the variable to the value. */
+    void beforeAssign(int varId, int value);
+
+    /** Called after the assignment and its propagation. */
+    void afterAssign(int varId, int value, boolean feasible);
+  }
+
+  private Probing() {}
+
+  static void dive(IntVar[] variables, int nProbes, long seed, Observer observer) {
+    if (nProbes <= 0) {
+      return;
+    }
+    Random random = new Random(seed);
+    Trail trail = variables[0].trail();
+    PropagationQueue pQueue = variables[0].propagQueue();
+    int maxSize = 0;
+    for (int i = 0; i < variables.length; i++) {
+      maxSize = Math.max(maxSize, variables[i].size());
+    }
+    int[] domain = new int[maxSize];
+    for (int p = 0; p < nProbes; p++) {
+      trail.newLevel();
+      boolean feasible = pQueue.propagate();
+      while (feasible) {
+        int varId = randomUnassigned(variables, random);
+        if (varId == -1) {
+          break;
+        }
+        int size = variables[varId].copyDomain(domain);
+        int value = domain[random.nextInt(size)];
+        observer.beforeAssign(varId, value);
+        feasible = variables[varId].assign(value) && pQueue.propagate();
+        observer.afterAssign(varId, value, feasible);
+      }
+      trail.undoLevel();
+    }
+  }
+
+  // Reservoir sampling of an unassigned variable, -1 if none.
+  private static int randomUnassigned(IntVar[] variables, Random random) {
+    int selected = -1;
+    int n = 0;
+    for (int i = 0; i < variables.length; i++) {
+      if (!variables[i].isAssigned() && random.nextInt(++n) == 0) {
+        selected = i;
+      }
+    }
+    return selected;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import java.util.Random;
+
+import kiwi.propagation.PropagationQueue;
+import kiwi.variable.IntVar;
+
+/**
+ * A {@code Neighborhood} that fixes variables one at a time and propagates 
+ * after each of them.
+ * 
+ * <p>
+ * The next variable to fix is the one whose domain has been the most reduced,
+ * in proportion, by the propagation of the previous fix. It is a random 
+ * variable if the previous fix did not reduce any domain. Variables are fixed
+ * until the number of unassigned variables drops to the size of the relaxed
+ * set. This tends to keep relaxed variables that are related to each other.
+ * </p>
+ * 
+ * <p>
+ * Reference:
+ * - Perron, Shaw, and Furnon. Propagation Guided Large Neighborhood Search.
+ *   CP 2004.
+ * </p>
+ */
+public class PropagationGuidedNeighborhood implements Neighborhood {
+
+  private final double relaxedRatio;
+  private final Random random;
+
+  private int[] sizes = new int[0];
+
+  /**
+   * Creates a propagation guided neighborhood.
+   * 
+   * @param relaxedRatio the ratio of variables to be relaxed, between 0 and 1.
+   * @param seed         the seed of the random generator.
+   */
+  public PropagationGuidedNeighborhood(double relaxedRatio, long seed) {
+    this.relaxedRatio = relaxedRatio;
+    this.random = new Random(seed);
+  }
+
+  @Override
+  public boolean fix(IntVar[] variables, int[] solution) {
+    int n = variables.length;
+    if (sizes.length < n) {
+      sizes = new int[n];
+    }
+    PropagationQueue pQueue = variables[0].propagQueue();
+    int nRelaxed = (int) Math.ceil(relaxedRatio * n);
+    int next = -1;
+    while (true) {
+      // Record the domain sizes and count the unassigned variables.
+      int nUnassigned = 0;
+      for (int i = 0; i < n; i++) {
+        sizes[i] = variables[i].size();
+        if (sizes[i] > 1) {
+          nUnassigned++;
+        }
+      }
+      if (nUnassigned <= nRelaxed) {
+        return true;
+      }
+      if (next == -1) {
+        next = randomUnassigned(variables, nUnassigned);
+      }
+      if (!variables[next].assign(solution[next]) || !pQueue.propagate()) {
+        return false;
+      }
+      // Select the variable whose domain has been the most reduced. Ties are
+      // broken at random.
+      next = -1;
+      int nTies = 0;
+      double maxReduction = 0;
+      for (int i = 0; i < n; i++) {
+        int size = variables[i].size();
+        if (size > 1 && size < sizes[i]) {
+          double reduction = 1.0 - (double) size / sizes[i];
+          if (reduction > maxReduction) {
+            maxReduction = reduction;
+            next = i;
+            nTies = 1;
+          } else if (reduction == maxReduction && random.nextInt(++nTies) == 0) {
+            next = i;
+          }
+        }
+      }
+    }
+  }
+
+  private int randomUnassigned(IntVar[] variables, int nUnassigned) {
+    int k = random.nextInt(nUnassigned);
+    for (int i = 0; i < variables.length; i++) {
+      if (!variables[i].isAssigned() && k-- == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import java.util.Random;
+
+import kiwi.variable.IntVar;
+
+/**
+ * A {@code Neighborhood} that fixes a random subset of the variables.
+ */
+public class RandomNeighborhood implements Neighborhood {
+
+  private final double fixedRatio;
+  private final Random random;
+
+  /**
+   * Creates a random neighborhood.
+   * 
+   * @param fixedRatio the ratio of variables to be fixed, between 0 and 1.
+   * @param seed       the seed of the random generator.
+   */
+  public RandomNeighborhood(double fixedRatio, long seed) {
+    this.fixedRatio = fixedRatio;
+    this.random = new Random(seed);
+  }
+
+  @Override
+  public boolean fix(IntVar[] variables, int[] solution) {
+    for (int i = 0; i < variables.length; i++) {
+      if (random.nextDouble() < fixedRatio && !variables[i].assign(solution[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
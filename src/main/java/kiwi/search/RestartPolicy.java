@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+/**
+ * Superclass to be instantiated by any restart policy.
+ * 
+ * <p>
+ * A {@code RestartPolicy} defines the number of fails after which each run of
+ * a restart-based search is cut off and restarted from the root node.
+ * </p>
+ */
+public interface RestartPolicy {
+
+  /**
+   * Returns the fail limit of the specified run.
+   * 
+   * @param  run the index of the run, starting from 0.
+   * @return the number of fails after which the run is restarted.
+   */
+  public int failLimit(int run);
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import java.util.concurrent.TimeUnit;
+
+import kiwi.trail.Trail;
+
+/**
+ * Limits on the resources of a search: a wall-clock deadline, a number of 
+ * nodes, a number of fails and a trail size, plus asynchronous cancellation.
+ * 
+ * <p>
+ * The limits are checked by the search before each node. The node, fail and
+ * trail limits and the cancellation flag are tested at each node, while the
+ * clock is only read every {@code CLOCK_INTERVAL} checks. A search stopped by
+ * its limits returns with {@code completed} set to {@code false}, after the 
+ * solutions found so far have been reported as usual. The limit that stopped
+ * the search is returned by {@link #reachedLimit}.
+ * </p>
+ * 
+ * <p>
+ * The limits are meant to be set before the search. {@link #cancel} is the 
+ * only method that can be called from another thread.
+ * </p>
+ */
+public class SearchLimits {
+
+  /** The number of checks between two readings of the clock. */
+  public static final int CLOCK_INTERVAL = 64;
+
+  /** The limits that can stop a search. */
+  public enum Limit {
+    DEADLINE, NODES, FAILS, TRAIL_SIZE, CANCELLED
+  }
+
+  private long deadline = Long.MAX_VALUE;
+  private boolean hasDeadline = false;
+  private int nodeLimit = Integer.MAX_VALUE;
+  private int failLimit = Integer.MAX_VALUE;
+  private int trailSizeLimit = Integer.MAX_VALUE;
+
+  private volatile boolean cancelled = false;
+  private Limit reached = null;
+  private int nChecks = 0;
+
+  /**
+   * Stops the search after the specified duration, starting now.
+   * 
+   * @param duration the maximum duration of the search.
+   * @param unit the unit of the duration.
+   */
+  public void setTimeLimit(long duration, TimeUnit unit) {
+    setDeadline(System.nanoTime() + unit.toNanos(duration));
+  }
+
+  /**
+   * Stops the search once {@code System.nanoTime()} exceeds the deadline.
+   * 
+   * @param nanoTime the deadline, as given by {@code System.nanoTime()}.
+   */
+  public void setDeadline(long nanoTime) {
+    this.deadline = nanoTime;
+    this.hasDeadline = true;
+  }
+
+  /** Stops the search once it explored this number of nodes. */
+  public void setNodeLimit(int nodeLimit) {
+    this.nodeLimit = nodeLimit;
+  }
+
+  /** Stops the search once it encountered this number of fails. */
+  public void setFailLimit(int failLimit) {
+    this.failLimit = failLimit;
+  }
+
+  /** Stops the search once the trail contains this number of entries. */
+  public void setTrailSizeLimit(int trailSizeLimit) {
+    this.trailSizeLimit = trailSizeLimit;
+  }
+
+  /**
+   * Requests the search to stop before its next node. This method is 
+   * thread-safe. Cancellation is permanent: it also stops the next searches
+   * that use these limits.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Returns {@code true} if {@link #cancel} has been called.
+   * 
+   * @return {@code true} if and only if the search has been cancelled.
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Returns the limit that stopped the last search.
+   * 
+   * @return the reached limit, or {@code null} if none has been reached.
+   */
+  public Limit reachedLimit() {
+    return reached;
+  }
+
+  /**
+   * Tests the limits before the next node of the search.
+   * 
+   * @param  stats the statistics of the search.
+   * @param  trail the trail of the search.
+   * @return {@code true} if the search must stop.
+   */
+  boolean isReached(SearchStats stats, Trail trail) {
+    if (cancelled) {
+      reached = Limit.CANCELLED;
+    } else if (stats.nNodes >= nodeLimit) {
+      reached = Limit.NODES;
+    } else if (stats.nFails >= failLimit) {
+      reached = Limit.FAILS;
+    } else if (trail.size() >= trailSizeLimit) {
+      reached = Limit.TRAIL_SIZE;
+    } else if (hasDeadline && ++nChecks >= CLOCK_INTERVAL) {
+      nChecks = 0;
+      if (System.nanoTime() - deadline >= 0) {
+        reached = Limit.DEADLINE;
+      }
+    }
+    return reached != null;
+  }
+
+  // Clears the reached limit before a new search.
+  void reset() {
+    reached = null;
+    nChecks = CLOCK_INTERVAL;
+  }
+}
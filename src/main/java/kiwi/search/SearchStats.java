@@ -6,7 +6,32 @@ public class SearchStats {
   public int nNodes;
   public int nFails;
   public int nSolutions;
+  public int nRestarts;
+
+  // Set by requestRestart and cleared by the search when it restarts.
+  boolean restartRequested;
+
+  /**
+   * Requests the search to restart from the root node before exploring the 
+   * next node. This method is meant to be called by the stop condition of a
+   * restart-based search.
+   */
+  public void requestRestart() {
+    restartRequested = true;
+  }
   
+  /**
+   * Adds the counters of the specified statistics to these statistics.
+   * 
+   * @param stats the statistics to be added.
+   */
+  public void add(SearchStats stats) {
+    nNodes += stats.nNodes;
+    nFails += stats.nFails;
+    nSolutions += stats.nSolutions;
+    nRestarts += stats.nRestarts;
+  }
+
   @Override 
   public String toString() {
     StringBuffer bf = new StringBuffer();
@@ -14,6 +39,7 @@ public class SearchStats {
     bf.append("#solutions  : " + nSolutions + "\n");
     bf.append("#nodes      : " + nNodes + "\n");
     bf.append("#fails      : " + nFails + "\n");
+    bf.append("#restarts   : " + nRestarts + "\n");
     return bf.toString();
   }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import kiwi.variable.IntVar;
+
+/**
+ * A {@code Neighborhood} that relaxes groups of variables in turn.
+ * 
+ * <p>
+ * Each call to {@link #fix fix} relaxes the variables of the next group and 
+ * fixes all the others. Groups are typically made of variables that are 
+ * strongly related in the model, e.g., the tasks of a machine.
+ * </p>
+ */
+public class SequentialNeighborhood implements Neighborhood {
+
+  private final int[][] groups;
+  private final boolean[] relaxed;
+  private int next = 0;
+
+  /**
+   * Creates a sequential neighborhood.
+   * 
+   * @param groups    the indices of the variables in each group.
+   * @param nVariables the number of variables of the problem.
+   */
+  public SequentialNeighborhood(int[][] groups, int nVariables) {
+    this.groups = groups;
+    this.relaxed = new boolean[nVariables];
+  }
+
+  @Override
+  public boolean fix(IntVar[] variables, int[] solution) {
+    int[] group = groups[next];
+    next = (next + 1) % groups.length;
+    for (int i = 0; i < group.length; i++) {
+      relaxed[group[i]] = true;
+    }
+    boolean feasible = true;
+    for (int i = 0; i < variables.length && feasible; i++) {
+      feasible = relaxed[i] || variables[i].assign(solution[i]);
+    }
+    for (int i = 0; i < group.length; i++) {
+      relaxed[group[i]] = false;
+    }
+    return feasible;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import kiwi.variable.IntVar;
+
+/**
+ * The bound of an objective shared by several solvers searching concurrently.
+ * 
+ * <p>
+ * A {@code SharedBound} only gets tighter: smaller when minimizing, greater 
+ * when maximizing. It is lock-free so that it can be read at each node of the
+ * search trees explored by the different solvers.
+ * </p>
+ */
+public class SharedBound {
+
+  private final boolean minimize;
+  private final AtomicInteger bound;
+
+  public SharedBound(boolean minimize) {
+    this.minimize = minimize;
+    this.bound = new AtomicInteger(minimize ? IntVar.MAX_VALUE : IntVar.MIN_VALUE);
+  }
+
+  /** 
+   * Returns the current bound. 
+   * 
+   * @return the tightest bound published so far.
+   */
+  public int get() {
+    return bound.get();
+  }
+
+  /**
+   * Publishes the specified bound if it is tighter than the current one.
+   * 
+   * @param  value the bound to be published.
+   * @return the tightest bound published so far.
+   */
+  public int tighten(int value) {
+    int current = bound.get();
+    while (minimize ? value < current : value > current) {
+      if (bound.compareAndSet(current, value)) {
+        return value;
+      }
+      current = bound.get();
+    }
+    return current;
+  }
+
+  // Shares a new bound between the objectives of the specified searches, if
+  // any. The searches must explore copies of the same model.
+  static void share(DFSearch[] searches) {
+    Objective objective = searches[0].objective();
+    if (objective != null) {
+      SharedBound bound = new SharedBound(objective.isMinimization());
+      for (DFSearch search : searches) {
+        search.objective().share(bound);
+      }
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import kiwi.variable.IntVar;
+
+/**
+ * Enumerates the solutions of a search lazily.
+ * 
+ * <p>
+ * The search is suspended after each solution and resumed by the next call
+ * to {@link #hasNext}, so that the solutions are explored on demand in the 
+ * thread of the consumer. Each solution is returned as a new array that 
+ * contains the values of the variables, in the same order. 
+ * </p>
+ * 
+ * <p>
+ * The solver must not be modified while the iterator is suspended. The 
+ * iterator restores the state of the root node once the search is over. An
+ * iterator that is not consumed until the end must be closed, or terminated
+ * by the next search of the solver.
+ * </p>
+ */
+public class SolutionIterator implements Iterator<int[]>, AutoCloseable {
+
+  private final DFSearch.Run run;
+  private final IntVar[] variables;
+
+  // The next solution, or null if the search must be resumed.
+  private int[] next = null;
+
+  /**
+   * Creates an iterator on the solutions of the search.
+   * 
+   * @param search the search to suspend after each solution.
+   * @param heuristic the search heursitic used to build the search tree.
+   * @param variables the variables whose values are returned, which must be
+   *        assigned in each solution.
+   * @param limits the limits of the search, or {@code null} for none.
+   */
+  public SolutionIterator(DFSearch search, Heuristic heuristic, IntVar[] variables, 
+      SearchLimits limits) {
+    this.variables = variables.clone();
+    this.run = search.suspendedSearch(heuristic, s -> false, limits, this::copy);
+  }
+
+  private void copy() {
+    int[] values = new int[variables.length];
+    for (int i = 0; i < variables.length; i++) {
+      values[i] = variables[i].min();
+    }
+    next = values;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return next != null || run.next();
+  }
+
+  @Override
+  public int[] next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    int[] solution = next;
+    next = null;
+    return solution;
+  }
+
+  /**
+   * Returns the statistics of the search, updated as the search proceeds.
+   * 
+   * @return the statistics of the search.
+   */
+  public SearchStats stats() {
+    return run.stats;
+  }
+
+  /**
+   * Terminates the search and restores the state of the root node. Does 
+   * nothing if the search is already over.
+   */
+  @Override
+  public void close() {
+    next = null;
+    run.close();
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import kiwi.variable.IntVar;
+
+/**
+ * A node of the search tree encoded as the sequence of decisions that lead to
+ * it from the root.
+ * 
+ * <p>
+ * Each decision is encoded as a ({@code varId}, {@code value}, {@code op}) 
+ * triple of a {@code VarValDecision}. The encoding does not depend on the 
+ * variables of the model so that a {@code Subproblem} can be replayed on any
+ * copy of the model built the same way. A {@code Subproblem} can also be 
+ * written as a line of text with {@link #toString} and read back with 
+ * {@link #parse}, e.g., to resume a partially solved batch of subproblems.
+ * </p>
+ */
+public class Subproblem {
+
+  private final int[] decisions;
+  private volatile boolean solved;
+
+  public Subproblem(int[] decisions) {
+    this.decisions = decisions;
+  }
+
+  /**
+   * Encodes the first decisions of the specified array.
+   * 
+   * @param  decisions the decisions that lead to the node.
+   * @param  n the number of decisions to encode.
+   * @return the {@code Subproblem} or {@code null} if one of the decisions is
+   *         not a {@code VarValDecision}.
+   */
+  public static Subproblem encode(Decision[] decisions, int n) {
+    int[] encoded = new int[3 * n];
+    for (int i = 0; i < n; i++) {
+      if (!(decisions[i] instanceof VarValDecision)) {
+        return null;
+      }
+      VarValDecision d = (VarValDecision) decisions[i];
+      encoded[3 * i] = d.varId;
+      encoded[3 * i + 1] = d.value;
+      encoded[3 * i + 2] = d.op;
+    }
+    return new Subproblem(encoded);
+  }
+
+  /** 
+   * Returns the number of decisions that lead to this {@code Subproblem}. 
+   * 
+   * @return the depth of this {@code Subproblem} in the search tree.
+   */
+  public int depth() {
+    return decisions.length / 3;
+  }
+
+  /**
+   * Returns the decisions that lead to this {@code Subproblem}.
+   * 
+   * @param  variables the variables of the heuristic of the copy of the model
+   *         on which the decisions must be applied.
+   * @return the decisions in the order in which they must be applied.
+   */
+  public Decision[] decisions(IntVar[] variables) {
+    Decision[] decoded = new Decision[depth()];
+    for (int i = 0; i < decoded.length; i++) {
+      decoded[i] = new VarValDecision(variables, decisions[3 * i], 
+          decisions[3 * i + 1], decisions[3 * i + 2]);
+    }
+    return decoded;
+  }
+
+  public boolean isSolved() {
+    return solved;
+  }
+
+  public void setSolved(boolean solved) {
+    this.solved = solved;
+  }
+
+  /**
+   * Reads a {@code Subproblem} written with {@link #toString}.
+   * 
+   * @param  line the text representation of the {@code Subproblem}.
+   * @return the {@code Subproblem}.
+   */
+  public static Subproblem parse(String line) {
+    String[] fields = line.trim().split(";");
+    int[] decisions = new int[3 * (fields.length - 1)];
+    for (int i = 1; i < fields.length; i++) {
+      String[] triple = fields[i].split(",");
+      for (int j = 0; j < 3; j++) {
+        decisions[3 * (i - 1) + j] = Integer.parseInt(triple[j]);
+      }
+    }
+    Subproblem subproblem = new Subproblem(decisions);
+    subproblem.solved = fields[0].equals("1");
+    return subproblem;
+  }
+
+  /**
+   * Returns the text representation of this {@code Subproblem}: its solved
+   * flag followed by its decisions, e.g., {@code 0;3,1,0;4,1,1}.
+   */
+  @Override
+  public String toString() {
+    StringBuilder bf = new StringBuilder(solved ? "1" : "0");
+    for (int i = 0; i < decisions.length; i += 3) {
+      bf.append(';').append(decisions[i])
+          .append(',').append(decisions[i + 1])
+          .append(',').append(decisions[i + 2]);
+    }
+    return bf.toString();
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import kiwi.trail.Replayable;
+import kiwi.variable.IntVar;
+
+/**
+ * A {@code Decision} that applies a single operation on a variable.
+ * 
+ * <p>
+ * A {@code VarValDecision} is identified by the index of its variable in the
+ * array of variables of the heuristic that took it, a value, and an operation.
+ * This identification does not depend on the variables themselves so that the
+ * decision can be replayed on any copy of the model built the same way, e.g.,
+ * by another worker of a parallel search.
+ * </p>
+ * 
+ * <p>
+ * The decision records itself on the trail when it is applied so that the
+ * trail can replay it to recompute a state.
+ * </p>
+ */
+public class VarValDecision implements Decision, Replayable {
+
+  /** Assigns the variable to the value. */
+  public static final int ASSIGN = 0;
+
+  /** Removes the value from the domain of the variable. */
+  public static final int REMOVE = 1;
+
+  /** Removes all the values greater than the value. */
+  public static final int LOWER_EQUAL = 2;
+
+  /** Removes all the values lower than the value. */
+  public static final int GREATER_EQUAL = 3;
+
+  public final int varId;
+  public final int value;
+  public final int op;
+
+  private final IntVar variable;
+
+  public VarValDecision(IntVar[] variables, int varId, int value, int op) {
+    this.variable = variables[varId];
+    this.varId = varId;
+    this.value = value;
+    this.op = op;
+  }
+
+  @Override
+  public boolean apply() {
+    variable.trail().record(this);
+    return apply(variable, value, op);
+  }
+
+  @Override
+  public boolean replay() {
+    return apply(variable, value, op) && variable.propagQueue().propagate();
+  }
+
+  // Applies the operation on the variable.
+  static boolean apply(IntVar variable, int value, int op) {
+    switch (op) {
+      case ASSIGN:
+        return variable.assign(value);
+      case REMOVE:
+        return variable.remove(value);
+      case LOWER_EQUAL:
+        return variable.updateMax(value);
+      default:
+        return variable.updateMin(value);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import kiwi.util.Action;
+
+/**
+ * Runs the workers of a parallel search, each one in its own thread.
+ */
+final class Workers {
+
+  private Workers() {}
+
+  /**
+   * Runs the tasks concurrently and waits for all of them to terminate.
+   * 
+   * @param name    the prefix of the name of the threads.
+   * @param tasks   the tasks to run.
+   * @param onError called as soon as a task fails or the waiting thread is
+   *                interrupted, to stop the other tasks.
+   * @throws RuntimeException if a task failed.
+   */
+  static void run(String name, Runnable[] tasks, Action onError) {
+    Throwable[] errors = new Throwable[tasks.length];
+    Thread[] threads = new Thread[tasks.length];
+    for (int i = 0; i < tasks.length; i++) {
+      final int id = i;
+      threads[i] = new Thread(() -> {
+        try {
+          tasks[id].run();
+        } catch (Throwable t) {
+          errors[id] = t;
+          onError.execute();
+        }
+      }, name + "-" + i);
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        onError.execute();
+        Thread.currentThread().interrupt();
+      }
+    }
+    for (Throwable error : errors) {
+      if (error != null) {
+        throw new RuntimeException("A search worker failed", error);
+      }
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.trail;
+
+/**
+ * An operation that can be applied again to recompute a state.
+ * 
+ * <p>
+ * Search decisions are recorded on the trail as {@code Replayable}s when the
+ * trail restores states by recomputation.
+ * </p>
+ * 
+ * @see Trail#setSnapshotInterval setSnapshotInterval
+ */
+public interface Replayable {
+
+  /**
+   * Applies the operation again, followed by its propagation.
+   * 
+   * @return {@code true} if and only if the operation and its propagation 
+   *         succeeded.
+   */
+  public boolean replay();
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.trail;
+
+import java.io.Serializable;
+
+/**
+ * A copy of the primitive store of a {@code Trail}.
+ * 
+ * <p>
+ * Snapshots only contain primitive integers and can thus be serialized to 
+ * be stored or sent cheaply, e.g., to another worker that restores the 
+ * same node of a copy of the model.
+ * </p>
+ * 
+ * @see Trail#snapshot snapshot
+ * @see Trail#restore restore
+ */
+public final class Snapshot implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final int[] ints;
+
+  Snapshot(int[] ints) {
+    this.ints = ints;
+  }
+
+  /** Returns the number of integers of the snapshot. */
+  public int size() {
+    return ints.length;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.trail;
+
+import java.util.Arrays;
+
+/**
+ * An array of integers stored in the primitive store of a primitive trail.
+ * 
+ * <p>
+ * The array is meant for state whose relevant part is delimited by trailed
+ * integers, such as the permutation of a sparse set or a history whose size
+ * is trailed. Such state does not need to be restored on backtrack so that 
+ * the entries are never trailed. In a primitive trail, they are however 
+ * slots of the primitive store so that they belong to its snapshots.
+ * </p>
+ */
+public class StoredIntArray {
+
+  private final Trail trail;
+  private final boolean primitive;
+
+  // The values of the entries, or their slots if the trail is primitive.
+  private int[] entries;
+  private int length;
+
+  /**
+   * Creates an array initialized with the specified values.
+   * 
+   * @param trail the trail whose primitive store contains the entries.
+   * @param initValues the initial values of the entries.
+   */
+  public StoredIntArray(Trail trail, int[] initValues) {
+    this.trail = trail;
+    this.primitive = trail.isPrimitive();
+    this.length = initValues.length;
+    this.entries = new int[Math.max(length, 4)];
+    for (int i = 0; i < length; i++) {
+      entries[i] = primitive ? trail.newInt(initValues[i]) : initValues[i];
+    }
+  }
+
+  public int length() {
+    return length;
+  }
+
+  public int get(int i) {
+    return primitive ? trail.getInt(entries[i]) : entries[i];
+  }
+
+  public void set(int i, int value) {
+    if (primitive) {
+      trail.setIntUntrailed(entries[i], value);
+    } else {
+      entries[i] = value;
+    }
+  }
+
+  /** Swaps the i-th and the j-th entries. */
+  public void swap(int i, int j) {
+    int value = get(i);
+    set(i, get(j));
+    set(j, value);
+  }
+
+  /**
+   * Appends an entry to the array. 
+   * 
+   * <p>
+   * In a primitive trail, the entry is a new slot of the primitive store.
+   * Entries should thus only be added while building the model so that the
+   * copies of a model have the same slots.
+   * </p>
+   * 
+   * @param value the value of the new entry.
+   */
+  public void add(int value) {
+    if (length == entries.length) {
+      entries = Arrays.copyOf(entries, length * 2);
+    }
+    entries[length++] = primitive ? trail.newInt(value) : value;
+  }
+}
@@ -15,11 +15,29 @@
  */
 package kiwi.trail;
 
+import java.util.Arrays;
+
 import kiwi.util.Stack;
 import kiwi.util.StackInt;
 
 /** 
  * {@code Trail} contains the chronological sequences of changes to undo. 
+ * 
+ * <p>
+ * A primitive trail additionally stores the values of the {@code TrailedInt}s
+ * in a single array of slots. Saving an integer then records its slot and
+ * old value in two arrays of primitive integers and undoing a level is a
+ * tight loop over these arrays, without any {@code Change} object to 
+ * allocate or to call. The domains, the trailed arrays and sets, and the 
+ * active flags of the posted propagators are all stored in these slots. 
+ * Other changes still rely on {@code Change} objects.
+ * </p>
+ * 
+ * <p>
+ * A primitive trail can also restore its primitive store by copying and
+ * recomputation instead of trailing. See 
+ * {@link #setSnapshotInterval setSnapshotInterval}.
+ * </p>
  */
 public class Trail {
 
@@ -28,35 +46,384 @@ public class Trail {
   private final Stack<Change> changes = new Stack<Change>();
   private final StackInt levels = new StackInt();
 
+  // Store of the primitive trail.
+  private final boolean primitive;
+  private int[] ints = new int[16];
+  private long[] intTimestamps = new long[16];
+  private int nInts = 0;
+
+  // Saved slots and values of the primitive trail.
+  private int[] savedSlots = new int[16];
+  private int[] savedInts = new int[16];
+  private int nSavedInts = 0;
+  private final StackInt intLevels = new StackInt();
+
+  // Copying and recomputation. The decisions applied in the k-th level are
+  // logged from logStarts[k-1] (or 0) to logStarts[k] (or the end). The 
+  // snapshots are indexed by level, null if the level has no snapshot.
+  private int snapshotInterval = 0;
+  private final Stack<Replayable> log = new Stack<Replayable>();
+  private final StackInt logStarts = new StackInt();
+  private int[][] snapshots = new int[16][];
+  private boolean[] unlogged = new boolean[16];
+  private boolean replaying = false;
+
+  public Trail() {
+    this(false);
+  }
+
+  /**
+   * Creates a trail.
+   * 
+   * @param primitive {@code true} to store the trailed integers in the 
+   *        primitive store of the trail.
+   */
+  public Trail(boolean primitive) {
+    this.primitive = primitive;
+  }
+
+  public boolean isPrimitive() {
+    return primitive;
+  }
+
+  /**
+   * Restores the primitive store by copying and recomputation.
+   * 
+   * <p>
+   * The primitive store is not trailed anymore. Instead, it is copied every 
+   * {@code interval} levels and the decisions recorded on the trail are 
+   * replayed from the nearest copy to restore the levels in between. A 
+   * larger interval thus trades memory for recomputation. The first level,
+   * and the levels that follow changes made without a recorded decision, 
+   * e.g., by a neighborhood of a large neighborhood search, are always 
+   * copied. Changes relying on {@code Change} objects are still trailed.
+   * </p>
+   * 
+   * <p>
+   * Recomputation replays the decisions and the propagation of the 
+   * propagators, not operations that only the search performs such as the
+   * propagation of the objective. The recomputed state can thus be larger 
+   * than the original one, which is safe.
+   * </p>
+   * 
+   * @param interval the number of levels between two copies, 0 to trail the
+   *        primitive store again.
+   * @throws IllegalStateException if the trail is not primitive or if some
+   *        levels are open.
+   */
+  public void setSnapshotInterval(int interval) {
+    if (!primitive) {
+      throw new IllegalStateException("copying requires a primitive trail.");
+    }
+    if (levels.getSize() > 0) {
+      throw new IllegalStateException("the trail must be at its root level.");
+    }
+    this.snapshotInterval = interval;
+  }
+
   public long getTimestamp() {
     return timestamp;
   }
 
+  public int getLevel() {
+    return levels.getSize();
+  }
+
+  /**
+   * Returns the number of entries of the trail, i.e., the number of changes
+   * and saved primitive values that can be undone.
+   * 
+   * @return the size of the trail.
+   */
+  public int size() {
+    return changes.getSize() + nSavedInts;
+  }
+
   public void store(Change change) {
+    if (snapshotInterval > 0) {
+      checkLogged();
+    }
     changes.push(change);
   }
 
+  /**
+   * Returns {@code true} if the decisions must be recorded to recompute the
+   * states, i.e., if the trail restores states by recomputation.
+   * 
+   * @return {@code true} if and only if {@link #record record} is not a no-op.
+   */
+  public boolean isRecording() {
+    return snapshotInterval > 0;
+  }
+
+  /**
+   * Records a decision applied at the current level so that it can be 
+   * replayed to recompute the level. Does nothing if the trail does not 
+   * restore states by recomputation.
+   * 
+   * @param decision the decision that has just been applied.
+   */
+  public void record(Replayable decision) {
+    if (snapshotInterval > 0 && !replaying) {
+      log.push(decision);
+    }
+  }
+
+  /**
+   * Allocates a new slot in the primitive store.
+   * 
+   * @param  initValue the initial value of the slot.
+   * @return the index of the slot.
+   */
+  public int newInt(int initValue) {
+    if (nInts == ints.length) {
+      ints = Arrays.copyOf(ints, nInts * 2);
+      intTimestamps = Arrays.copyOf(intTimestamps, nInts * 2);
+    }
+    ints[nInts] = initValue;
+    intTimestamps[nInts] = -1L;
+    return nInts++;
+  }
+
+  public int getInt(int slot) {
+    return ints[slot];
+  }
+
+  public void setInt(int slot, int value) {
+    if (snapshotInterval > 0) {
+      checkLogged();
+    } else if (intTimestamps[slot] != timestamp) {
+      intTimestamps[slot] = timestamp;
+      if (nSavedInts == savedSlots.length) {
+        savedSlots = Arrays.copyOf(savedSlots, nSavedInts * 2);
+        savedInts = Arrays.copyOf(savedInts, nSavedInts * 2);
+      }
+      savedSlots[nSavedInts] = slot;
+      savedInts[nSavedInts] = ints[slot];
+      nSavedInts++;
+    }
+    ints[slot] = value;
+  }
+
+  /**
+   * Sets the value of a slot without trailing its old value. 
+   * 
+   * <p>
+   * This is only meant for state whose relevant part is delimited by trailed
+   * integers, such as the permutation of a sparse set, which does not need
+   * to be restored on backtrack but must belong to the snapshots.
+   * </p>
+   * 
+   * @param slot the slot to set.
+   * @param value the new value of the slot.
+   */
+  public void setIntUntrailed(int slot, int value) {
+    ints[slot] = value;
+  }
+
+  /**
+   * Returns a copy of the primitive store.
+   * 
+   * @return a snapshot of the primitive store.
+   * @throws IllegalStateException if the trail is not primitive or if it 
+   *         contains {@code Change} objects, whose state does not belong to 
+   *         the snapshot.
+   */
+  public Snapshot snapshot() {
+    checkPrimitiveState();
+    return new Snapshot(Arrays.copyOf(ints, nInts));
+  }
+
+  /**
+   * Overwrites the primitive store with a snapshot. 
+   * 
+   * <p>
+   * The snapshot must come from this trail or from the trail of a copy of
+   * the model built the same way. The restoration is trailed as any change of
+   * the current level.
+   * </p>
+   * 
+   * @param snapshot the snapshot to restore.
+   * @throws IllegalStateException if the trail is not primitive or if it 
+   *         contains {@code Change} objects.
+   * @throws IllegalArgumentException if the snapshot does not have as many
+   *         integers as the primitive store.
+   */
+  public void restore(Snapshot snapshot) {
+    checkPrimitiveState();
+    if (snapshot.ints.length != nInts) {
+      throw new IllegalArgumentException("the snapshot has " + snapshot.ints.length 
+          + " integers instead of " + nInts + ".");
+    }
+    for (int i = 0; i < snapshot.ints.length; i++) {
+      setInt(i, snapshot.ints[i]);
+    }
+  }
+
   public void newLevel() {
     levels.push(changes.getSize());
+    intLevels.push(nSavedInts);
+    if (snapshotInterval > 0) {
+      int level = levels.getSize();
+      logStarts.push(log.getSize());
+      if (level == snapshots.length) {
+        snapshots = Arrays.copyOf(snapshots, level * 2);
+        unlogged = Arrays.copyOf(unlogged, level * 2);
+      }
+      if (level == 1 || level % snapshotInterval == 0 || unlogged[level - 1]) {
+        snapshots[level] = Arrays.copyOf(ints, nInts);
+      }
+      unlogged[level] = false;
+    }
     timestamp++;
   }
 
   public void undoLevel() {
-    if (levels.getSize() > 0)
-      undoUntil(levels.pop());
+    if (levels.getSize() > 0) {
+      if (snapshotInterval > 0) {
+        recompute();
+      } else {
+        undoUntil(levels.pop(), intLevels.pop());
+      }
+    }
     timestamp++;
   }
 
   public void undoAll() {
+    if (snapshotInterval > 0 && levels.getSize() > 0) {
+      undoUntil(levels.get(0), intLevels.get(0));
+      System.arraycopy(snapshots[1], 0, ints, 0, snapshots[1].length);
+      while (levels.getSize() > 0) {
+        snapshots[levels.getSize()] = null;
+        levels.pop();
+        intLevels.pop();
+        logStarts.pop();
+      }
+      truncateLog(0);
+    }
     while (levels.getSize() > 0) {
-      undoUntil(levels.pop());
+      undoUntil(levels.pop(), intLevels.pop());
+    }
+    timestamp++;
+  }
+
+  /**
+   * Undoes the levels above the specified one, i.e., restores the state in
+   * which level {@code level + 1} was opened. Does nothing if the current
+   * level is not above the specified one.
+   * 
+   * @param level the level to come back to.
+   */
+  public void undoUntilLevel(int level) {
+    if (level == 0) {
+      undoAll();
+      return;
+    }
+    if (levels.getSize() > level) {
+      if (snapshotInterval > 0) {
+        // Only the opening of level + 1 has to be recomputed.
+        while (levels.getSize() > level + 1) {
+          snapshots[levels.getSize()] = null;
+          levels.pop();
+          intLevels.pop();
+          logStarts.pop();
+        }
+        recompute();
+      } else {
+        undoUntil(levels.get(level), intLevels.get(level));
+        while (levels.getSize() > level) {
+          levels.pop();
+          intLevels.pop();
+        }
+      }
     }
     timestamp++;
   }
 
-  private void undoUntil(int size) {
+  // Changes and primitive integers are independent and can thus be undone
+  // separately.
+  private void undoUntil(int size, int nInts) {
     while (changes.getSize() > size) {
       changes.pop().undo();
     }
+    final int[] slots = savedSlots;
+    final int[] values = savedInts;
+    final int[] store = ints;
+    int n = nSavedInts;
+    while (n > nInts) {
+      n--;
+      store[slots[n]] = values[n];
+    }
+    nSavedInts = n;
+  }
+
+  // Restores the state at the opening of the current level from the nearest
+  // snapshot and closes the level.
+  private void recompute() {
+    int level = levels.getSize();
+    int from = level;
+    while (snapshots[from] == null) {
+      from--;
+    }
+    int logEnd = logStarts.get(level - 1);
+
+    // Restore the opening of level from.
+    undoUntil(levels.get(from - 1), intLevels.get(from - 1));
+    int[] snapshot = snapshots[from];
+    System.arraycopy(snapshot, 0, ints, 0, snapshot.length);
+    for (int l = level; l >= from; l--) {
+      levels.pop();
+      intLevels.pop();
+    }
+    snapshots[level] = null;
+    logStarts.pop();
+
+    // Replay the decisions of the levels from to level - 1, reopening these
+    // levels.
+    replaying = true;
+    for (int l = from; l < level; l++) {
+      levels.push(changes.getSize());
+      intLevels.push(nSavedInts);
+      timestamp++;
+      int start = logStarts.get(l - 1);
+      int end = l == level - 1 ? logEnd : logStarts.get(l);
+      for (int i = start; i < end; i++) {
+        if (!log.get(i).replay()) {
+          throw new IllegalStateException("a recorded decision failed when replayed.");
+        }
+      }
+    }
+    replaying = false;
+    truncateLog(logEnd);
+  }
+
+  private void truncateLog(int size) {
+    while (log.getSize() > size) {
+      log.pop();
+    }
+  }
+
+  // Snapshots only contain the primitive store.
+  private void checkPrimitiveState() {
+    if (!primitive) {
+      throw new IllegalStateException("snapshots require a primitive trail.");
+    }
+    if (changes.getSize() > 0) {
+      throw new IllegalStateException("the trail contains " + changes.getSize() 
+          + " changes that do not belong to the primitive store.");
+    }
+  }
+
+  // Marks the current level if it is changed before any decision is
+  // recorded in it, its changes could not be recomputed otherwise.
+  private void checkLogged() {
+    if (replaying) {
+      return;
+    }
+    int level = levels.getSize();
+    int start = level == 0 ? 0 : logStarts.get(level - 1);
+    if (log.getSize() == start) {
+      unlogged[level] = true;
+    }
   }
 }
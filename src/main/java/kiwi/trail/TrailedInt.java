@@ -17,11 +17,23 @@ package kiwi.trail;
 
 import kiwi.util.StackInt;
 
+/**
+ * A trailed integer.
+ * 
+ * <p>
+ * The value is stored in the integer itself, which then saves its old values
+ * on its own stack, or in a slot of the primitive store of the trail if the
+ * trail is primitive.
+ * </p>
+ */
 public class TrailedInt implements Change {
 
   private final Trail trail;
 
-  private final StackInt oldValues = new StackInt();
+  // Slot in the primitive store of the trail, -1 if the trail is not primitive.
+  private final int slot;
+
+  private final StackInt oldValues;
 
   private int currentValue;
 
@@ -29,7 +41,14 @@ public class TrailedInt implements Change {
 
   public TrailedInt(Trail trail, int initValue) {
     this.trail = trail;
-    currentValue = initValue;
+    if (trail.isPrimitive()) {
+      slot = trail.newInt(initValue);
+      oldValues = null;
+    } else {
+      slot = -1;
+      oldValues = new StackInt();
+      currentValue = initValue;
+    }
   }
 
   public void undo() {
@@ -37,10 +56,14 @@ public class TrailedInt implements Change {
   }
 
   public int getValue() {
-    return currentValue;
+    return slot < 0 ? currentValue : trail.getInt(slot);
   }
 
   public void setValue(int value) {
+    if (slot >= 0) {
+      trail.setInt(slot, value);
+      return;
+    }
     if (timestamp != trail.getTimestamp()) {
       timestamp = trail.getTimestamp();
       oldValues.push(currentValue);
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.trail;
+
+import java.util.Arrays;
+
+/**
+ * A trailed array of longs.
+ * 
+ * <p>
+ * The entries are stored in pairs of slots of the primitive store if the 
+ * trail is primitive. Otherwise, they are stored in the array itself which 
+ * saves each entry at most once per level on the trail.
+ * </p>
+ */
+public class TrailedLongArray implements Change {
+
+  private final Trail trail;
+
+  // First of the two slots of each entry, -1 if the trail is not primitive.
+  private final int firstSlot;
+
+  private final long[] values;
+
+  // Last timestamp at which each entry was saved on the trail.
+  private final long[] timestamps;
+
+  // Saved entries to restore, as pairs of index and value.
+  private int[] savedIds;
+  private long[] savedValues;
+  private int nSaved = 0;
+
+  /**
+   * Creates a trailed array initialized with the specified values.
+   * 
+   * @param trail the trail used to restore the array.
+   * @param initValues the initial values of the entries.
+   */
+  public TrailedLongArray(Trail trail, long[] initValues) {
+    this.trail = trail;
+    if (trail.isPrimitive()) {
+      int slot = -1;
+      for (int i = 0; i < initValues.length; i++) {
+        int high = trail.newInt((int) (initValues[i] >>> 32));
+        trail.newInt((int) initValues[i]);
+        if (i == 0) {
+          slot = high;
+        }
+      }
+      this.firstSlot = slot;
+      this.values = null;
+      this.timestamps = null;
+    } else {
+      this.firstSlot = -1;
+      this.values = initValues.clone();
+      this.timestamps = new long[initValues.length];
+      Arrays.fill(timestamps, -1L);
+      this.savedIds = new int[16];
+      this.savedValues = new long[16];
+    }
+  }
+
+  public long get(int i) {
+    if (values != null) {
+      return values[i];
+    }
+    int slot = firstSlot + (i << 1);
+    return ((long) trail.getInt(slot) << 32) | (trail.getInt(slot + 1) & 0xFFFFFFFFL);
+  }
+
+  public void set(int i, long value) {
+    if (values == null) {
+      int slot = firstSlot + (i << 1);
+      int high = (int) (value >>> 32);
+      int low = (int) value;
+      if (trail.getInt(slot) != high) {
+        trail.setInt(slot, high);
+      }
+      if (trail.getInt(slot + 1) != low) {
+        trail.setInt(slot + 1, low);
+      }
+      return;
+    }
+    long timestamp = trail.getTimestamp();
+    if (timestamps[i] != timestamp) {
+      timestamps[i] = timestamp;
+      if (nSaved == savedIds.length) {
+        savedIds = Arrays.copyOf(savedIds, nSaved * 2);
+        savedValues = Arrays.copyOf(savedValues, nSaved * 2);
+      }
+      savedIds[nSaved] = i;
+      savedValues[nSaved] = values[i];
+      nSaved++;
+      trail.store(this);
+    }
+    values[i] = value;
+  }
+
+  @Override
+  public void undo() {
+    nSaved--;
+    values[savedIds[nSaved]] = savedValues[nSaved];
+  }
+}
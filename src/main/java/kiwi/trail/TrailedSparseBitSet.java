@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.trail;
+
+/**
+ * A trailed set of bits that only shrinks between backtracks.
+ * 
+ * <p>
+ * The bits are stored in words of 64 bits. The indices of the non-zero words
+ * are kept in a sparse set so that operations only visit these words. The 
+ * words are a trailed array, each word being saved at most once per level,
+ * and the sparse set is stored in the primitive store of a primitive trail.
+ * The set also embeds a temporary mask used to intersect the set with unions
+ * of other sets.
+ * </p>
+ * 
+ * Reference: J. Demeulenaere, R. Hartert, C. Lecoutre, G. Perez, L. Perron,
+ * J.-C. Regin, P. Schaus, Compact-Table: Efficiently Filtering Table 
+ * Constraints with Reversible Sparse Bit-Sets, CP 2016.
+ */
+public class TrailedSparseBitSet {
+
+  private final TrailedLongArray words;
+  private final StoredIntArray index;
+  private final TrailedInt nNonZeroT;
+  private final long[] mask;
+
+  /**
+   * Creates a set that contains all the bits from 0 to {@code nBits - 1}.
+   * 
+   * @param trail the trail used to restore the set.
+   * @param nBits the number of bits of the set.
+   */
+  public TrailedSparseBitSet(Trail trail, int nBits) {
+    int nWords = (nBits + 63) >>> 6;
+    long[] initWords = new long[nWords];
+    int[] initIndex = new int[nWords];
+    for (int i = 0; i < nWords; i++) {
+      initWords[i] = -1L;
+      initIndex[i] = i;
+    }
+    if ((nBits & 63) != 0) {
+      initWords[nWords - 1] = (1L << (nBits & 63)) - 1;
+    }
+    this.words = new TrailedLongArray(trail, initWords);
+    this.index = new StoredIntArray(trail, initIndex);
+    this.mask = new long[nWords];
+    this.nNonZeroT = new TrailedInt(trail, nWords);
+  }
+
+  /** Returns the number of words of the set. */
+  public int nWords() {
+    return mask.length;
+  }
+
+  /** Returns true if the set does not contain any bit. */
+  public boolean isEmpty() {
+    return nNonZeroT.getValue() == 0;
+  }
+
+  /** Returns true if the i-th word of the set intersects the i-th word of the array. */
+  public boolean intersects(long[] array, int wordId) {
+    return (words.get(wordId) & array[wordId]) != 0;
+  }
+
+  /** Clears the mask. */
+  public void clearMask() {
+    int nNonZero = nNonZeroT.getValue();
+    for (int i = 0; i < nNonZero; i++) {
+      mask[index.get(i)] = 0L;
+    }
+  }
+
+  /** Adds the bits of the array to the mask. */
+  public void addToMask(long[] array) {
+    int nNonZero = nNonZeroT.getValue();
+    for (int i = 0; i < nNonZero; i++) {
+      int wordId = index.get(i);
+      mask[wordId] |= array[wordId];
+    }
+  }
+
+  /** Complements the mask. */
+  public void reverseMask() {
+    int nNonZero = nNonZeroT.getValue();
+    for (int i = 0; i < nNonZero; i++) {
+      int wordId = index.get(i);
+      mask[wordId] = ~mask[wordId];
+    }
+  }
+
+  /** Removes from the set the bits that are not in the mask. */
+  public void intersectWithMask() {
+    int nNonZero = nNonZeroT.getValue();
+    for (int i = nNonZero - 1; i >= 0; i--) {
+      int wordId = index.get(i);
+      long oldWord = words.get(wordId);
+      long word = oldWord & mask[wordId];
+      if (word != oldWord) {
+        words.set(wordId, word);
+        if (word == 0L) {
+          nNonZero--;
+          index.swap(i, nNonZero);
+        }
+      }
+    }
+    nNonZeroT.setValue(nNonZero);
+  }
+
+  /**
+   * Returns the index of a word of the set that intersects the array, -1 if
+   * the set and the array are disjoint.
+   */
+  public int intersectIndex(long[] array) {
+    int nNonZero = nNonZeroT.getValue();
+    for (int i = 0; i < nNonZero; i++) {
+      int wordId = index.get(i);
+      if ((words.get(wordId) & array[wordId]) != 0L) {
+        return wordId;
+      }
+    }
+    return -1;
+  }
+}
@@ -36,6 +36,11 @@ public class Stack<T> {
     return (T) array[index - 1];
   }
 
+  @SuppressWarnings("unchecked")
+  public T get(int index) {
+    return (T) array[index];
+  }
+
   public void push(T elem) {
     if (index == array.length) {
       growStack();
@@ -33,6 +33,10 @@ public class StackInt {
     return array[index - 1];
   }
 
+  public int get(int index) {
+    return array[index];
+  }
+
   public void push(int elem) {
     if (index == array.length)
       growStack();
@@ -15,6 +15,8 @@
  */
 package kiwi.util;
 
+import java.util.Objects;
+
 public class Tuple<X, Y> { 
   public final X x; 
   public final Y y; 
@@ -22,4 +24,18 @@ public class Tuple<X, Y> {
     this.x = x; 
     this.y = y; 
   } 
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof Tuple)) {
+      return false;
+    }
+    Tuple<?, ?> t = (Tuple<?, ?>) o;
+    return Objects.equals(x, t.x) && Objects.equals(y, t.y);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Objects.hashCode(x) + Objects.hashCode(y);
+  }
 } 
\ No newline at end of file
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.variable;
+
+/**
+ * Listener notified each time the domain of an {@code IntVar} is reduced.
+ * 
+ * <p>
+ * Listeners are meant for adaptive search heuristics that learn from the
+ * propagation, e.g., activity-based search. A listener is notified after 
+ * the domain has been reduced, with the identifier it was registered with.
+ * </p>
+ * 
+ * @see IntVar#setListener setListener
+ */
+public interface DomainListener {
+
+  /**
+   * Called each time the domain of the listened variable is reduced.
+   * 
+   * @param id the identifier with which the listener was registered.
+   */
+  public void domainReduced(int id);
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.variable;
+
+/**
+ * The events on which a propagator can watch a variable.
+ * 
+ * <p>
+ * Events are bits that can be combined with the bitwise or operator, e.g.,
+ * {@code EventMask.ASSIGN | EventMask.BOUNDS}. A domain update raises all
+ * the events it implies: an assignment is also a bound change and a domain
+ * change, and a bound change is also a domain change.
+ * </p>
+ * 
+ * @see IntVar#watch watch
+ */
+public final class EventMask {
+
+  /** The variable has been assigned. */
+  public static final int ASSIGN = 1;
+
+  /** The minimum or the maximum value of the variable changed. */
+  public static final int BOUNDS = 2;
+
+  /** At least one value has been removed from the domain. */
+  public static final int DOMAIN = 4;
+
+  private EventMask() {}
+
+  /**
+   * Returns {@code true} if the events contain the specified event.
+   * 
+   * @param  events a combination of events.
+   * @param  event the event to look for.
+   * @return {@code true} if and only if {@code event} is in {@code events}.
+   */
+  public static boolean contains(int events, int event) {
+    return (events & event) != 0;
+  }
+}
@@ -20,6 +20,7 @@ import java.util.Arrays;
 import kiwi.propagation.PropagationQueue;
 import kiwi.propagation.Propagator;
 import kiwi.trail.Trail;
+import kiwi.util.Stack;
 
 /**
  * Superclass to be instantiated by any integer variable.
@@ -207,7 +208,22 @@ public abstract class IntVar {
    * @see               #updateMin updateMin
    * @see               #updateMax updateMax
    */
-  public abstract void watchAssign(Propagator propagator);
+  public void watchAssign(Propagator propagator) {
+    watch(EventMask.ASSIGN, propagator, -1);
+  }
+
+  /** 
+   * Registers the propagator as in {@link #watchAssign(Propagator)} and advises
+   * it with {@link Propagator#advise advise} before enqueuing it.
+   * 
+   * @param propagator  propagator to be registered on this {@code IntVar}
+   * @param index       the index of this {@code IntVar} in the propagator, 
+   *                    or -1 to not advise the propagator
+   * @see               #watch watch
+   */
+  public void watchAssign(Propagator propagator, int index) {
+    watch(EventMask.ASSIGN, propagator, index);
+  }
 
   /** 
    * Registers the propagator on bound changes. 
@@ -225,7 +241,22 @@ public abstract class IntVar {
    * @see               #updateMin updateMin
    * @see               #updateMax updateMax
    */
-  public abstract void watchBounds(Propagator propagator);
+  public void watchBounds(Propagator propagator) {
+    watch(EventMask.BOUNDS, propagator, -1);
+  }
+
+  /** 
+   * Registers the propagator as in {@link #watchBounds(Propagator)} and advises
+   * it with {@link Propagator#advise advise} before enqueuing it.
+   * 
+   * @param propagator  propagator to be registered on this {@code IntVar}
+   * @param index       the index of this {@code IntVar} in the propagator, 
+   *                    or -1 to not advise the propagator
+   * @see               #watch watch
+   */
+  public void watchBounds(Propagator propagator, int index) {
+    watch(EventMask.BOUNDS, propagator, index);
+  }
   
   /** 
    * Registers the propagator on the domain changes. 
@@ -242,7 +273,73 @@ public abstract class IntVar {
    * @see               #updateMin updateMin
    * @see               #updateMax updateMax
    */
-  public abstract void watchChange(Propagator propagator);
+  public void watchChange(Propagator propagator) {
+    watch(EventMask.DOMAIN, propagator, -1);
+  }
+
+  /** 
+   * Registers the propagator as in {@link #watchChange(Propagator)} and advises
+   * it with {@link Propagator#advise advise} before enqueuing it.
+   * 
+   * @param propagator  propagator to be registered on this {@code IntVar}
+   * @param index       the index of this {@code IntVar} in the propagator, 
+   *                    or -1 to not advise the propagator
+   * @see               #watch watch
+   */
+  public void watchChange(Propagator propagator, int index) {
+    watch(EventMask.DOMAIN, propagator, index);
+  }
+
+  /** 
+   * Registers the propagator on the specified events.
+   * 
+   * <p>
+   * Each time a domain update raises at least one of the {@code events}, 
+   * the propagator is advised of the update with 
+   * {@link Propagator#advise advise} and scheduled for propagation using 
+   * the {@link PropagationQueue#enqueue enqueue} method if the advice is 
+   * positive. A propagator registered with an index of -1 is not advised and
+   * always scheduled. Registering the same propagator with the same index 
+   * again adds the events to the watched ones.
+   * </p>
+   * 
+   * @param events      a combination of the {@link EventMask} events
+   * @param propagator  propagator to be registered on this {@code IntVar}
+   * @param index       the index of this {@code IntVar} in the propagator, 
+   *                    or -1 to not advise the propagator
+   * @see               EventMask
+   */
+  public abstract void watch(int events, Propagator propagator, int index);
+
+  /** 
+   * Sets the listener notified each time the domain of this {@code IntVar} is
+   * reduced.
+   * 
+   * <p>
+   * A variable has at most one listener which replaces the previous one. 
+   * Setting a {@code null} listener removes the current one so that domain
+   * updates cost nothing more than a null check.
+   * </p>
+   * 
+   * @param listener the listener to notify or {@code null}.
+   * @param id the identifier passed to the listener on each notification.
+   */
+  public abstract void setListener(DomainListener listener, int id);
+
+  /** 
+   * Returns the propagators registered on this {@code IntVar}.
+   * 
+   * <p>
+   * Each propagator appears once, no matter the number of events on which it
+   * is registered. The returned stack must not be modified.
+   * </p>
+   * 
+   * @return the propagators registered on this {@code IntVar}.
+   * @see    #watchAssign watchAssign
+   * @see    #watchBounds watchBounds
+   * @see    #watch watch
+   */
+  public abstract Stack<Propagator> propagators();
   
 
   /** 
@@ -256,6 +353,24 @@ public abstract class IntVar {
    * @return the size of the domain
    */
   public abstract int copyDomain(int[] array);
+
+  /** 
+   * Copies the values removed from the domain of this {@code IntVar} since
+   * its size was {@code oldSize} in the specified array.
+   * 
+   * <p>
+   * The current domain must have been obtained by removing values from the
+   * domain of size {@code oldSize}, i.e., the latter must belong to the 
+   * current branch of the search. A propagator typically ensures this by
+   * trailing the last size it has seen. This function gives no guarantee on
+   * the order of the copied values.
+   * </p>
+   * 
+   * @param  array the array in which the removed values are copied.
+   * @param  oldSize a previous size of the domain.
+   * @return the number of removed values, i.e., {@code oldSize - size()}.
+   */
+  public abstract int copyDelta(int[] array, int oldSize);
   
   @Override 
   public String toString() {
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.variable;
+
+import static kiwi.variable.EventMask.ASSIGN;
+import static kiwi.variable.EventMask.BOUNDS;
+import static kiwi.variable.EventMask.DOMAIN;
+
+import java.util.Arrays;
+
+import kiwi.propagation.PropagationQueue;
+import kiwi.propagation.Propagator;
+import kiwi.trail.StoredIntArray;
+import kiwi.trail.Trail;
+import kiwi.trail.TrailedInt;
+import kiwi.trail.TrailedLongArray;
+import kiwi.util.Stack;
+
+/**
+ * A bitset based implementation of IntVar
+ * 
+ * <p>
+ * This class implements {@code IntVar} for small domains. The domain is 
+ * stored in words of 64 bits, the i-th bit representing the i-th value of
+ * the initial range. The words are a trailed array, whose entries are saved
+ * at most once per level or stored in the primitive store of a primitive 
+ * trail. The bounds and the size of the domain are trailed integers
+ * maintained incrementally: the bounds are searched in the words with 
+ * {@code Long.numberOfTrailingZeros} and {@code Long.numberOfLeadingZeros}
+ * only when a bound is removed.
+ * </p>
+ * 
+ * <p>
+ * Each removal also records the word and the removed bits in a history 
+ * whose size is trailed, which gives the values removed since any previous 
+ * size of the domain. In a primitive trail, the history is preallocated in 
+ * the primitive store so that the whole state of the domain belongs to the 
+ * snapshots of the trail.
+ * </p>
+ */
+public class IntVarBitset extends IntVar {
+
+  private final PropagationQueue pQueue;
+  private final Trail trail;
+
+  private final int initMin;
+  private final int initMax;
+
+  private final TrailedLongArray words;
+
+  private final TrailedInt sizeT;
+  private final TrailedInt minT;
+  private final TrailedInt maxT;
+
+  // History of the removals, as triples of word index and removed bits.
+  private final TrailedInt nHistory;
+  private final StoredIntArray history;
+
+  private final Watchers watchers;
+
+  private DomainListener listener = null;
+  private int listenerId;
+
+  public IntVarBitset(PropagationQueue pQueue, Trail trail, int initMin, int initMax) {
+    this.pQueue = pQueue;
+    this.trail = trail;
+    this.watchers = new Watchers(trail);
+    this.initMin = initMin;
+    this.initMax = initMax;
+    int initSize = initMax - initMin + 1;
+    int nWords = (initSize + 63) >>> 6;
+    long[] initWords = new long[nWords];
+    Arrays.fill(initWords, -1L);
+    if ((initSize & 63) != 0) {
+      initWords[nWords - 1] = (1L << (initSize & 63)) - 1;
+    }
+    this.words = new TrailedLongArray(trail, initWords);
+    this.sizeT = new TrailedInt(trail, initSize);
+    this.minT = new TrailedInt(trail, initMin);
+    this.maxT = new TrailedInt(trail, initMax);
+    this.nHistory = new TrailedInt(trail, 0);
+    this.history = newHistory(trail, initSize);
+  }
+
+  public IntVarBitset(PropagationQueue pQueue, Trail trail, int[] values) {
+    this.pQueue = pQueue;
+    this.trail = trail;
+    this.watchers = new Watchers(trail);
+    int min = IntVar.MAX_VALUE;
+    int max = IntVar.MIN_VALUE;
+    for (int i = 0; i < values.length; i++) {
+      min = Math.min(min, values[i]);
+      max = Math.max(max, values[i]);
+    }
+    this.initMin = min;
+    this.initMax = max;
+    int nWords = (max - min + 64) >>> 6;
+    long[] initWords = new long[nWords];
+    for (int i = 0; i < values.length; i++) {
+      int id = values[i] - min;
+      initWords[id >>> 6] |= 1L << id;
+    }
+    int size = 0;
+    for (int i = 0; i < nWords; i++) {
+      size += Long.bitCount(initWords[i]);
+    }
+    this.words = new TrailedLongArray(trail, initWords);
+    this.sizeT = new TrailedInt(trail, size);
+    this.minT = new TrailedInt(trail, min);
+    this.maxT = new TrailedInt(trail, max);
+    this.nHistory = new TrailedInt(trail, 0);
+    this.history = newHistory(trail, size);
+  }
+
+  @Override
+  public PropagationQueue propagQueue() {
+    return pQueue;
+  }
+
+  @Override
+  public Trail trail() {
+    return trail;
+  }
+
+  @Override
+  public int min() {
+    return minT.getValue();
+  }
+
+  @Override
+  public int max() {
+    return maxT.getValue();
+  }
+
+  @Override
+  public int size() {
+    return sizeT.getValue();
+  }
+
+  @Override
+  public boolean isAssigned() {
+    return sizeT.getValue() == 1;
+  }
+
+  @Override
+  public boolean contains(int value) {
+    if (value < initMin || value > initMax) {
+      return false;
+    }
+    int id = value - initMin;
+    return (words.get(id >>> 6) & (1L << id)) != 0L;
+  }
+
+  @Override
+  public boolean assign(int value) {
+    if (!contains(value)) {
+      return false;
+    }
+    if (sizeT.getValue() == 1) {
+      return true;
+    }
+    // Remove all the values but the assigned one.
+    int id = value - initMin;
+    int wordId = id >>> 6;
+    long bit = 1L << id;
+    for (int i = (minT.getValue() - initMin) >>> 6; i <= (maxT.getValue() - initMin) >>> 6; i++) {
+      long kept = i == wordId ? bit : 0L;
+      long word = words.get(i);
+      if (word != kept) {
+        removeBits(i, word & ~kept);
+      }
+    }
+    sizeT.setValue(1);
+    minT.setValue(value);
+    maxT.setValue(value);
+    awake(ASSIGN | BOUNDS | DOMAIN);
+    return true;
+  }
+
+  @Override
+  public boolean remove(int value) {
+    if (!contains(value)) {
+      return true;
+    }
+    int size = sizeT.getValue();
+    if (size == 1) {
+      return false;
+    }
+    int id = value - initMin;
+    removeBits(id >>> 6, 1L << id);
+    sizeT.setValue(size - 1);
+    int events = DOMAIN;
+    if (size == 2) {
+      int other = value == minT.getValue() ? maxT.getValue() : minT.getValue();
+      minT.setValue(other);
+      maxT.setValue(other);
+      events |= ASSIGN | BOUNDS;
+    } else if (value == minT.getValue()) {
+      minT.setValue(nextValue(id));
+      events |= BOUNDS;
+    } else if (value == maxT.getValue()) {
+      maxT.setValue(previousValue(id));
+      events |= BOUNDS;
+    }
+    awake(events);
+    return true;
+  }
+
+  @Override
+  public boolean updateMin(int value) {
+    int max = maxT.getValue();
+    if (value == max) {
+      return assign(value);
+    }
+    if (max < value) {
+      return false;
+    }
+    int min = minT.getValue();
+    if (value <= min) {
+      return true;
+    }
+    // Remove the values lower than value.
+    int id = value - initMin;
+    int lastWord = id >>> 6;
+    int size = sizeT.getValue();
+    for (int i = (min - initMin) >>> 6; i <= lastWord; i++) {
+      long mask = i < lastWord ? -1L : (1L << id) - 1;
+      long removedBits = words.get(i) & mask;
+      if (removedBits != 0L) {
+        size -= Long.bitCount(removedBits);
+        removeBits(i, removedBits);
+      }
+    }
+    sizeT.setValue(size);
+    minT.setValue(nextValue(id));
+    awake(size == 1 ? ASSIGN | BOUNDS | DOMAIN : BOUNDS | DOMAIN);
+    return true;
+  }
+
+  @Override
+  public boolean updateMax(int value) {
+    int min = minT.getValue();
+    if (value == min) {
+      return assign(value);
+    }
+    if (min > value) {
+      return false;
+    }
+    int max = maxT.getValue();
+    if (value >= max) {
+      return true;
+    }
+    // Remove the values greater than value.
+    int id = value - initMin;
+    int firstWord = id >>> 6;
+    int size = sizeT.getValue();
+    for (int i = (max - initMin) >>> 6; i >= firstWord; i--) {
+      long mask = i > firstWord ? -1L : -2L << id; 
+      long removedBits = words.get(i) & mask;
+      if (removedBits != 0L) {
+        size -= Long.bitCount(removedBits);
+        removeBits(i, removedBits);
+      }
+    }
+    sizeT.setValue(size);
+    maxT.setValue(previousValue(id));
+    awake(size == 1 ? ASSIGN | BOUNDS | DOMAIN : BOUNDS | DOMAIN);
+    return true;
+  }
+
+  @Override
+  public int copyDomain(int[] array) {
+    int size = 0;
+    for (int i = (minT.getValue() - initMin) >>> 6; i <= (maxT.getValue() - initMin) >>> 6; i++) {
+      long word = words.get(i);
+      while (word != 0L) {
+        array[size++] = initMin + (i << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * {@inheritDoc}
+   * 
+   * <p>
+   * The values are read from the latest entries of the history of the 
+   * removals, until {@code oldSize - size()} values are copied.
+   * </p>
+   */
+  @Override
+  public int copyDelta(int[] array, int oldSize) {
+    int nRemoved = oldSize - sizeT.getValue();
+    int n = 0;
+    int i = nHistory.getValue();
+    while (n < nRemoved) {
+      i--;
+      int base = initMin + (history.get(3 * i) << 6);
+      long bits = ((long) history.get(3 * i + 1) << 32) | (history.get(3 * i + 2) & 0xFFFFFFFFL);
+      while (bits != 0L) {
+        array[n++] = base + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+      }
+    }
+    return n;
+  }
+
+  @Override
+  public void watch(int events, Propagator propagator, int index) {
+    watchers.add(events, propagator, index);
+  }
+
+  @Override
+  public void setListener(DomainListener listener, int id) {
+    this.listener = listener;
+    this.listenerId = id;
+  }
+
+  @Override
+  public Stack<Propagator> propagators() {
+    return watchers.propagators();
+  }
+
+  // Returns the smallest value of the domain whose index is at least id.
+  private int nextValue(int id) {
+    int i = id >>> 6;
+    long word = words.get(i) & (-1L << id);
+    while (word == 0L) {
+      word = words.get(++i);
+    }
+    return initMin + (i << 6) + Long.numberOfTrailingZeros(word);
+  }
+
+  // Returns the greatest value of the domain whose index is at most id.
+  private int previousValue(int id) {
+    int i = id >>> 6;
+    long word = words.get(i) & (-1L >>> (63 - (id & 63)));
+    while (word == 0L) {
+      word = words.get(--i);
+    }
+    return initMin + (i << 6) + 63 - Long.numberOfLeadingZeros(word);
+  }
+
+  // Removes the bits from the word and records them in the history.
+  private void removeBits(int wordId, long bits) {
+    int n = nHistory.getValue();
+    record(3 * n, wordId);
+    record(3 * n + 1, (int) (bits >>> 32));
+    record(3 * n + 2, (int) bits);
+    nHistory.setValue(n + 1);
+    words.set(wordId, words.get(wordId) & ~bits);
+  }
+
+  private void record(int i, int value) {
+    if (i < history.length()) {
+      history.set(i, value);
+    } else {
+      history.add(value);
+    }
+  }
+
+  // Each removal removes at least one value so that the history of a 
+  // primitive trail is preallocated for the removal of all the values but
+  // one. Otherwise, the history grows as needed.
+  private static StoredIntArray newHistory(Trail trail, int initSize) {
+    int length = trail.isPrimitive() ? 3 * (initSize - 1) : 0;
+    return new StoredIntArray(trail, new int[length]);
+  }
+
+  private void awake(int events) {
+    watchers.awake(pQueue, events);
+    if (listener != null) {
+      listener.domainReduced(listenerId);
+    }
+  }
+}
@@ -15,8 +15,13 @@
  */
 package kiwi.variable;
 
+import static kiwi.variable.EventMask.ASSIGN;
+import static kiwi.variable.EventMask.BOUNDS;
+import static kiwi.variable.EventMask.DOMAIN;
+
 import kiwi.propagation.PropagationQueue;
 import kiwi.propagation.Propagator;
+import kiwi.trail.StoredIntArray;
 import kiwi.trail.Trail;
 import kiwi.trail.TrailedInt;
 import kiwi.util.Array;
@@ -48,30 +53,34 @@ public class IntVarImpl extends IntVar {
   private final TrailedInt maxT;
   private final TrailedInt sizeT;
 
-  private final int[] values;
-  private final int[] positions;
+  // The sparse set, stored in the primitive store of a primitive trail.
+  private final StoredIntArray values;
+  private final StoredIntArray positions;
+
+  private final Watchers watchers;
 
-  private final Stack<Propagator> changeWatchers = new Stack<Propagator>();
-  private final Stack<Propagator> assignWatchers = new Stack<Propagator>();
-  private final Stack<Propagator> boundsWatchers = new Stack<Propagator>();
+  private DomainListener listener = null;
+  private int listenerId;
 
   public IntVarImpl(PropagationQueue pQueue, Trail trail, int initMin, int initMax) {
     this.pQueue = pQueue;
     this.trail = trail;
+    this.watchers = new Watchers(trail);
     this.initMin = initMin;
     this.initMax = initMax;
     this.minT = new TrailedInt(trail, initMin);
     this.maxT = new TrailedInt(trail, initMax);
     final int size = initMax - initMin + 1;
     this.sizeT = new TrailedInt(trail, size);
-    this.values = Array.makeInt(size, i -> i + initMin);
-    this.positions = Array.makeInt(size, i -> i);
+    this.values = new StoredIntArray(trail, Array.makeInt(size, i -> i + initMin));
+    this.positions = new StoredIntArray(trail, Array.makeInt(size, i -> i));
   }
   
   public IntVarImpl(PropagationQueue pQueue, Trail trail, int[] values) {
     this.pQueue = pQueue;
     this.trail = trail;
-    this.values = values.clone();
+    this.watchers = new Watchers(trail);
+    this.values = new StoredIntArray(trail, values);
     this.sizeT = new TrailedInt(trail, values.length);
     
     // Compute the minimum and maximum values in the domain.
@@ -88,10 +97,11 @@ public class IntVarImpl extends IntVar {
     
     // Build the domain representation.
     final int range = max - min + 1;
-    this.positions = Array.makeInt(range, i -> range);
+    int[] initPositions = Array.makeInt(range, i -> range);
     for (int i = 0; i < values.length; i++) {
-      this.positions[values[i] - initMin] = i;
+      initPositions[values[i] - initMin] = i;
     }
+    this.positions = new StoredIntArray(trail, initPositions);
   }
 
   @Override
@@ -129,18 +139,16 @@ public class IntVarImpl extends IntVar {
     if (value < initMin || value > initMax) {
       return false;
     }
-    return positions[value - initMin] < sizeT.getValue();
+    return positions.get(value - initMin) < sizeT.getValue();
   }
 
   private void swap(int pos1, int pos2) {
-    int v1 = values[pos1];
-    int v2 = values[pos2];
-    int id1 = v1 - initMin;
-    int id2 = v2 - initMin;
-    values[pos1] = v2;
-    values[pos2] = v1;
-    positions[id1] = pos2;
-    positions[id2] = pos1;
+    int v1 = values.get(pos1);
+    int v2 = values.get(pos2);
+    values.set(pos1, v2);
+    values.set(pos2, v1);
+    positions.set(v1 - initMin, pos2);
+    positions.set(v2 - initMin, pos1);
   }
 
   @Override
@@ -156,7 +164,7 @@ public class IntVarImpl extends IntVar {
     }
 
     // The value is not in the domain.
-    int position = positions[value - initMin];
+    int position = positions.get(value - initMin);
     if (position >= size) {
       return false;
     }
@@ -166,9 +174,7 @@ public class IntVarImpl extends IntVar {
     minT.setValue(value);
     maxT.setValue(value);
     sizeT.setValue(1);
-    awakeAssign();
-    awakeBounds();
-    awakeChange();
+    awake(ASSIGN | BOUNDS | DOMAIN);
     return true;
   }
 
@@ -190,7 +196,7 @@ public class IntVarImpl extends IntVar {
     }
 
     // Check that the value is not already removed.
-    int position = positions[value - initMin];
+    int position = positions.get(value - initMin);
     if (position >= size) {
       return true;
     }
@@ -203,6 +209,7 @@ public class IntVarImpl extends IntVar {
 
     // We now have to notify the propagators and to update one of the
     // bound if necessary.
+    int events = DOMAIN;
     if (size == 1) {
       // Removing the value assigned the variable.
       if (value == min) {
@@ -210,26 +217,25 @@ public class IntVarImpl extends IntVar {
       } else {
         maxT.setValue(min);
       }
-      awakeAssign();
-      awakeBounds();
+      events |= ASSIGN | BOUNDS;
     } else if (min == value) {
       // We removed the minimum value and thus have to find the new one.
       int i = min - initMin + 1;
-      while (positions[i] >= size) {
+      while (positions.get(i) >= size) {
         i++;
       }
       minT.setValue(i + initMin);
-      awakeBounds();
+      events |= BOUNDS;
     } else if (max == value) {
       // We removed the maximum value and thus have to find the new one.
       int i = max - initMin - 1;
-      while (positions[i] >= size) {
+      while (positions.get(i) >= size) {
         i--;
       }
       maxT.setValue(i + initMin);
-      awakeBounds();
+      events |= BOUNDS;
     }
-    awakeChange();
+    awake(events);
     return true;
   }
 
@@ -250,14 +256,14 @@ public class IntVarImpl extends IntVar {
     int i = min - initMin;
     int size = sizeT.getValue();
     while (i < value - initMin) {
-      int position = positions[i];
+      int position = positions.get(i);
       if (position < size) {
         swap(position, --size);
       }
       i++;
     }
     // Search new min.
-    while (size <= positions[i]) {
+    while (size <= positions.get(i)) {
       i++;
     }
 
@@ -266,11 +272,7 @@ public class IntVarImpl extends IntVar {
     sizeT.setValue(size);
 
     // Awake propagators.
-    if (size == 1) {
-      awakeAssign();
-    }
-    awakeBounds();
-    awakeChange();
+    awake(size == 1 ? ASSIGN | BOUNDS | DOMAIN : BOUNDS | DOMAIN);
     return true;
   }
 
@@ -291,14 +293,14 @@ public class IntVarImpl extends IntVar {
     int i = max - initMin;
     int size = sizeT.getValue();
     while (i > value - initMin) {
-      int position = positions[i];
+      int position = positions.get(i);
       if (position < size) {
         swap(position, --size);
       }
       i--;
     }
     // Search new max.
-    while (size <= positions[i]) {
+    while (size <= positions.get(i)) {
       i--;
     }
 
@@ -307,45 +309,51 @@ public class IntVarImpl extends IntVar {
     sizeT.setValue(size);
 
     // Awake propagators.
-    if (size == 1) {
-      awakeAssign();
-    }
-    awakeBounds();
-    awakeChange();
+    awake(size == 1 ? ASSIGN | BOUNDS | DOMAIN : BOUNDS | DOMAIN);
     return true;
   }
 
   @Override
   public int copyDomain(int[] array) {
     int size = sizeT.getValue();
-    System.arraycopy(values, 0, array, 0, size);
+    for (int i = 0; i < size; i++) {
+      array[i] = values.get(i);
+    }
     return size;
   }
 
   @Override
-  public void watchChange(Propagator propagator) {
-    changeWatchers.push(propagator);
+  public int copyDelta(int[] array, int oldSize) {
+    // The removed values are kept after the domain in the sparse set.
+    int size = sizeT.getValue();
+    for (int i = size; i < oldSize; i++) {
+      array[i - size] = values.get(i);
+    }
+    return oldSize - size;
   }
 
   @Override
-  public void watchAssign(Propagator propagator) {
-    boundsWatchers.push(propagator);
+  public void watch(int events, Propagator propagator, int index) {
+    watchers.add(events, propagator, index);
   }
 
   @Override
-  public void watchBounds(Propagator propagator) {
-    changeWatchers.push(propagator);
-  }
-
-  private void awakeAssign() {
-    assignWatchers.forEach(p -> pQueue.enqueue(p));
+  public void setListener(DomainListener listener, int id) {
+    this.listener = listener;
+    this.listenerId = id;
   }
 
-  private void awakeBounds() {
-    boundsWatchers.forEach(p -> pQueue.enqueue(p));
+  @Override
+  public Stack<Propagator> propagators() {
+    return watchers.propagators();
   }
 
-  private void awakeChange() {
-    changeWatchers.forEach(p -> pQueue.enqueue(p));
+  // Every successful domain update ends by a call to this method which thus
+  // also notifies the listener, if any.
+  private void awake(int events) {
+    watchers.awake(pQueue, events);
+    if (listener != null) {
+      listener.domainReduced(listenerId);
+    }
   }
 }
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.variable;
+
+import static kiwi.variable.EventMask.ASSIGN;
+import static kiwi.variable.EventMask.BOUNDS;
+import static kiwi.variable.EventMask.DOMAIN;
+
+import java.util.Arrays;
+
+import kiwi.propagation.PropagationQueue;
+import kiwi.propagation.Propagator;
+import kiwi.trail.Trail;
+import kiwi.trail.TrailedInt;
+import kiwi.util.Stack;
+
+/**
+ * A bounds only implementation of IntVar
+ * 
+ * <p>
+ * This class implements {@code IntVar} with two trailed integers for the
+ * bounds of the domain so that its memory does not depend on the size of the
+ * domain. It is meant for variables with huge domains such as costs or 
+ * makespans.
+ * </p>
+ * 
+ * <p>
+ * The domain is always an interval: removing a bound updates the bound while
+ * removing a value strictly inside the interval is a no-op that succeeds. 
+ * This is a sound relaxation: the value remains in the domain but no solution
+ * is lost. Propagators that consider a value as removed once they removed it,
+ * or heuristics that branch on value removals, may however accept or revisit
+ * that value, so that such variables are only created explicitly for bounds 
+ * reasoning.
+ * </p>
+ * 
+ * <p>
+ * The successive bounds of the domain are recorded in a trailed history so
+ * that {@link #copyDelta copyDelta} can rebuild the removed values. As the 
+ * history is unbounded, it does not belong to the snapshots of a primitive
+ * trail: restoring a snapshot invalidates the deltas since the sizes observed
+ * before the restoration, even once the restoration is undone.
+ * </p>
+ */
+public class IntVarInterval extends IntVar {
+
+  private final PropagationQueue pQueue;
+  private final Trail trail;
+
+  private final TrailedInt minT;
+  private final TrailedInt maxT;
+
+  // Bounds of the domain before each of its reductions.
+  private final TrailedInt nHistory;
+  private int[] oldMins = new int[8];
+  private int[] oldMaxs = new int[8];
+
+  private final Watchers watchers;
+
+  private DomainListener listener = null;
+  private int listenerId;
+
+  public IntVarInterval(PropagationQueue pQueue, Trail trail, int initMin, int initMax) {
+    this.pQueue = pQueue;
+    this.trail = trail;
+    this.watchers = new Watchers(trail);
+    this.minT = new TrailedInt(trail, initMin);
+    this.maxT = new TrailedInt(trail, initMax);
+    this.nHistory = new TrailedInt(trail, 0);
+  }
+
+  @Override
+  public PropagationQueue propagQueue() {
+    return pQueue;
+  }
+
+  @Override
+  public Trail trail() {
+    return trail;
+  }
+
+  @Override
+  public int min() {
+    return minT.getValue();
+  }
+
+  @Override
+  public int max() {
+    return maxT.getValue();
+  }
+
+  @Override
+  public int size() {
+    // The size of the widest intervals does not fit in an int.
+    long size = (long) maxT.getValue() - minT.getValue() + 1;
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public boolean isAssigned() {
+    return minT.getValue() == maxT.getValue();
+  }
+
+  @Override
+  public boolean contains(int value) {
+    return minT.getValue() <= value && value <= maxT.getValue();
+  }
+
+  @Override
+  public boolean assign(int value) {
+    int min = minT.getValue();
+    int max = maxT.getValue();
+    if (value < min || value > max) {
+      return false;
+    }
+    if (min == max) {
+      return true;
+    }
+    saveBounds(min, max);
+    minT.setValue(value);
+    maxT.setValue(value);
+    awake(ASSIGN | BOUNDS | DOMAIN);
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   * 
+   * <p>
+   * Removing a value strictly inside the interval does nothing and returns 
+   * true.
+   * </p>
+   */
+  @Override
+  public boolean remove(int value) {
+    int min = minT.getValue();
+    int max = maxT.getValue();
+    if (value == min) {
+      return min != max && updateMin(value + 1);
+    } else if (value == max) {
+      return updateMax(value - 1);
+    }
+    // The value is already removed or is an inner value, which is kept.
+    return true;
+  }
+
+  @Override
+  public boolean updateMin(int value) {
+    int max = maxT.getValue();
+    if (value == max) {
+      return assign(value);
+    }
+    if (max < value) {
+      return false;
+    }
+    int min = minT.getValue();
+    if (value <= min) {
+      return true;
+    }
+    saveBounds(min, max);
+    minT.setValue(value);
+    awake(BOUNDS | DOMAIN);
+    return true;
+  }
+
+  @Override
+  public boolean updateMax(int value) {
+    int min = minT.getValue();
+    if (value == min) {
+      return assign(value);
+    }
+    if (min > value) {
+      return false;
+    }
+    int max = maxT.getValue();
+    if (value >= max) {
+      return true;
+    }
+    saveBounds(min, max);
+    maxT.setValue(value);
+    awake(BOUNDS | DOMAIN);
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   * 
+   * <p>
+   * The array must be large enough to contain the whole interval.
+   * </p>
+   */
+  @Override
+  public int copyDomain(int[] array) {
+    int min = minT.getValue();
+    int size = size();
+    for (int i = 0; i < size; i++) {
+      array[i] = min + i;
+    }
+    return size;
+  }
+
+  /**
+   * {@inheritDoc}
+   * 
+   * <p>
+   * The removed values are the ones between the bounds of the domain when its
+   * size was {@code oldSize} and the current bounds.
+   * </p>
+   */
+  @Override
+  public int copyDelta(int[] array, int oldSize) {
+    int min = minT.getValue();
+    int max = maxT.getValue();
+    int i = nHistory.getValue() - 1;
+    while (i >= 0 && (long) oldMaxs[i] - oldMins[i] + 1 != oldSize) {
+      i--;
+    }
+    if (i < 0) {
+      return 0; // the domain has not been reduced since then.
+    }
+    int n = 0;
+    for (int value = oldMins[i]; value < min; value++) {
+      array[n++] = value;
+    }
+    for (int value = oldMaxs[i]; value > max; value--) {
+      array[n++] = value;
+    }
+    return n;
+  }
+
+  // Records the bounds of the domain before it is reduced.
+  private void saveBounds(int min, int max) {
+    int n = nHistory.getValue();
+    if (n == oldMins.length) {
+      oldMins = Arrays.copyOf(oldMins, n * 2);
+      oldMaxs = Arrays.copyOf(oldMaxs, n * 2);
+    }
+    oldMins[n] = min;
+    oldMaxs[n] = max;
+    nHistory.setValue(n + 1);
+  }
+
+  @Override
+  public void watch(int events, Propagator propagator, int index) {
+    watchers.add(events, propagator, index);
+  }
+
+  @Override
+  public void setListener(DomainListener listener, int id) {
+    this.listener = listener;
+    this.listenerId = id;
+  }
+
+  @Override
+  public Stack<Propagator> propagators() {
+    return watchers.propagators();
+  }
+
+  private void awake(int events) {
+    watchers.awake(pQueue, events);
+    if (listener != null) {
+      listener.domainReduced(listenerId);
+    }
+  }
+}
@@ -18,6 +18,7 @@ package kiwi.variable;
 import kiwi.propagation.PropagationQueue;
 import kiwi.propagation.Propagator;
 import kiwi.trail.Trail;
+import kiwi.util.Stack;
 
 /** */
 public class IntVarOffset extends IntVar {
@@ -30,6 +31,14 @@ public class IntVarOffset extends IntVar {
     this.offset = offset;
   }
 
+  public IntVar variable() {
+    return variable;
+  }
+
+  public int offset() {
+    return offset;
+  }
+
   @Override public PropagationQueue propagQueue() {
     return variable.propagQueue();
   }
@@ -81,15 +90,22 @@ public class IntVarOffset extends IntVar {
     return size;
   }
 
-  @Override public void watchChange(Propagator propagator) {
-    variable.watchChange(propagator);
+  @Override public int copyDelta(int[] array, int oldSize) {
+    int size = variable.copyDelta(array, oldSize);
+    for (int i = 0; i < size; i++)
+      array[i] += offset;
+    return size;
+  }
+
+  @Override public void watch(int events, Propagator propagator, int index) {
+    variable.watch(events, propagator, index);
   }
 
-  @Override public void watchAssign(Propagator propagator) {
-    variable.watchAssign(propagator);
+  @Override public void setListener(DomainListener listener, int id) {
+    variable.setListener(listener, id);
   }
 
-  @Override public void watchBounds(Propagator propagator) {
-    variable.watchBounds(propagator);
+  @Override public Stack<Propagator> propagators() {
+    return variable.propagators();
   }
 }
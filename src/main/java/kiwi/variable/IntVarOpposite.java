@@ -18,6 +18,7 @@ package kiwi.variable;
 import kiwi.propagation.PropagationQueue;
 import kiwi.propagation.Propagator;
 import kiwi.trail.Trail;
+import kiwi.util.Stack;
 
 /** */
 public class IntVarOpposite extends IntVar {
@@ -28,6 +29,10 @@ public class IntVarOpposite extends IntVar {
     this.variable = variable;
   }
 
+  public IntVar variable() {
+    return variable;
+  }
+
   @Override public PropagationQueue propagQueue() {
     return variable.propagQueue();
   }
@@ -80,15 +85,23 @@ public class IntVarOpposite extends IntVar {
     return size;
   }
 
-  @Override public void watchChange(Propagator propagator) {
-    variable.watchChange(propagator);
+  @Override public int copyDelta(int[] array, int oldSize) {
+    int size = variable.copyDelta(array, oldSize);
+    for (int i = 0; i < size; i++) {
+      array[i] = -array[i];
+    }
+    return size;
+  }
+
+  @Override public void watch(int events, Propagator propagator, int index) {
+    variable.watch(events, propagator, index);
   }
 
-  @Override public void watchAssign(Propagator propagator) {
-    variable.watchAssign(propagator);
+  @Override public void setListener(DomainListener listener, int id) {
+    variable.setListener(listener, id);
   }
 
-  @Override public void watchBounds(Propagator propagator) {
-    variable.watchBounds(propagator);
+  @Override public Stack<Propagator> propagators() {
+    return variable.propagators();
   }
 }
@@ -18,6 +18,7 @@ package kiwi.variable;
 import kiwi.propagation.PropagationQueue;
 import kiwi.propagation.Propagator;
 import kiwi.trail.Trail;
+import kiwi.util.Stack;
 
 public class IntVarSingleton extends IntVar {
 
@@ -25,6 +26,9 @@ public class IntVarSingleton extends IntVar {
   private final Trail trail;
   private final int value;
 
+  // A singleton does not register any propagator.
+  private final Stack<Propagator> propagators = new Stack<Propagator>();
+
   public IntVarSingleton(PropagationQueue pQueue, Trail trail, int value) {
     this.pQueue = pQueue;
     this.trail = trail;
@@ -93,11 +97,18 @@ public class IntVarSingleton extends IntVar {
   }
 
   @Override
-  public void watchChange(Propagator propagator) {}
+  public int copyDelta(int[] array, int oldSize) {
+    return 0;
+  }
 
   @Override
-  public void watchAssign(Propagator propagator) {}
+  public void watch(int events, Propagator propagator, int index) {}
 
   @Override
-  public void watchBounds(Propagator propagator) {}
-}
\ No newline at end of file
+  public void setListener(DomainListener listener, int id) {}
+
+  @Override
+  public Stack<Propagator> propagators() {
+    return propagators;
+  }
+}
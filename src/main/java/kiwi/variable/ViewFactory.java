@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.variable;
+
+import java.util.HashMap;
+
+import kiwi.util.Tuple;
+
+/**
+ * Creates the views of the variables of a solver.
+ * 
+ * <p>
+ * Nested views are collapsed into a single one: the offset of an offset view
+ * is an offset view on the underlying variable, the opposite of an opposite 
+ * view is the underlying variable itself, and the opposite of an offset view
+ * is an offset view on the opposite of the underlying variable. Views are also
+ * cached so that asking twice for the same view returns the same object.
+ * </p>
+ * 
+ * <p>
+ * A {@code ViewFactory} is owned by a single solver and is not thread-safe.
+ * </p>
+ */
+public class ViewFactory {
+
+  // Contain all the opposite views, null if views are not cached.
+  private final HashMap<IntVar, IntVar> oppositeViews;
+
+  // Contain all the offset views, null if views are not cached.
+  private final HashMap<Tuple<IntVar, Integer>, IntVar> offsetViews;
+
+  public ViewFactory() {
+    this(true);
+  }
+
+  private ViewFactory(boolean cached) {
+    this.oppositeViews = cached ? new HashMap<>() : null;
+    this.offsetViews = cached ? new HashMap<>() : null;
+  }
+
+  /**
+   * Returns a {@code ViewFactory} that collapses nested views but does not 
+   * cache them. Such a factory holds no state and can be shared by solvers.
+   * 
+   * @return a {@code ViewFactory} without cache.
+   */
+  public static ViewFactory uncached() {
+    return new ViewFactory(false);
+  }
+
+  public IntVar opposite(IntVar x) {
+    if (x instanceof IntVarOpposite) {
+      return ((IntVarOpposite) x).variable();
+    }
+    if (x instanceof IntVarOffset) {
+      IntVarOffset view = (IntVarOffset) x;
+      return offset(opposite(view.variable()), -view.offset());
+    }
+    if (oppositeViews == null) {
+      return new IntVarOpposite(x);
+    }
+    return oppositeViews.computeIfAbsent(x, IntVarOpposite::new);
+  }
+
+  public IntVar offset(IntVar x, int k) {
+    if (x instanceof IntVarOffset) {
+      IntVarOffset view = (IntVarOffset) x;
+      return offset(view.variable(), view.offset() + k);
+    }
+    if (k == 0) {
+      return x;
+    }
+    if (offsetViews == null) {
+      return new IntVarOffset(x, k);
+    }
+    return offsetViews.computeIfAbsent(new Tuple<>(x, k), t -> new IntVarOffset(x, k));
+  }
+}
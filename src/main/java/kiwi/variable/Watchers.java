@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.variable;
+
+import java.util.Arrays;
+
+import kiwi.propagation.PropagationQueue;
+import kiwi.propagation.Propagator;
+import kiwi.trail.StoredIntArray;
+import kiwi.trail.Trail;
+import kiwi.trail.TrailedInt;
+import kiwi.util.Stack;
+
+/**
+ * The propagators registered on a variable, with the events they watch and
+ * the index of the variable in each of them.
+ * 
+ * <p>
+ * The watchers are visited in an order whose active watchers are kept in a
+ * prefix of trailed size. Inactive propagators are moved after the prefix
+ * when they are met so that they are not visited anymore in the current 
+ * branch, and come back in the prefix when the trail restores a state in 
+ * which they were active. The order is stored in the primitive store of a 
+ * primitive trail.
+ * </p>
+ */
+final class Watchers {
+
+  private Propagator[] propagators = new Propagator[4];
+  private int[] masks = new int[4];
+  private int[] indices = new int[4];
+  private int size = 0;
+  private final StoredIntArray order;
+  private final TrailedInt nActiveT;
+
+  // The distinct registered propagators, in registration order.
+  private final Stack<Propagator> distinct = new Stack<Propagator>();
+
+  Watchers(Trail trail) {
+    this.order = new StoredIntArray(trail, new int[0]);
+    this.nActiveT = new TrailedInt(trail, 0);
+  }
+
+  /**
+   * Registers the propagator on the events. Registering the same propagator
+   * with the same index again adds the events to the watched ones.
+   * 
+   * @param events the events to watch.
+   * @param propagator the propagator to register.
+   * @param index the index of the variable in the propagator, or -1 if the
+   *        propagator does not need to be advised.
+   */
+  void add(int events, Propagator propagator, int index) {
+    boolean known = false;
+    for (int i = 0; i < size; i++) {
+      if (propagators[i] == propagator) {
+        if (indices[i] == index) {
+          masks[i] |= events;
+          return;
+        }
+        known = true;
+      }
+    }
+    if (!known) {
+      distinct.push(propagator);
+    }
+    if (size == propagators.length) {
+      propagators = Arrays.copyOf(propagators, size * 2);
+      masks = Arrays.copyOf(masks, size * 2);
+      indices = Arrays.copyOf(indices, size * 2);
+    }
+    propagators[size] = propagator;
+    masks[size] = events;
+    indices[size] = index;
+    // The new watcher is active.
+    int nActive = nActiveT.getValue();
+    order.add(size);
+    order.swap(nActive, size);
+    nActiveT.setValue(nActive + 1);
+    size++;
+  }
+
+  /**
+   * Advises the propagators that watch at least one of the events and 
+   * enqueues those that need to be propagated. Propagators without index 
+   * are always enqueued. The queue is notified of the update for metrics.
+   * 
+   * @param pQueue the propagation queue.
+   * @param events the events raised by the domain update.
+   */
+  void awake(PropagationQueue pQueue, int events) {
+    pQueue.domainChanged();
+    int nActive = nActiveT.getValue();
+    int i = 0;
+    while (i < nActive) {
+      int watcher = order.get(i);
+      Propagator propagator = propagators[watcher];
+      if (!propagator.isActive()) {
+        order.swap(i, --nActive);
+        continue;
+      }
+      if ((masks[watcher] & events) != 0) {
+        int index = indices[watcher];
+        if (index < 0 || propagator.advise(index, events)) {
+          pQueue.enqueue(propagator);
+        }
+      }
+      i++;
+    }
+    if (nActive != nActiveT.getValue()) {
+      nActiveT.setValue(nActive);
+    }
+  }
+
+  /**
+   * Returns the distinct propagators registered on the variable, whether they
+   * are active or not.
+   */
+  Stack<Propagator> propagators() {
+    return distinct;
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import kiwi.example.NQueens;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.search.Heuristic;
+import kiwi.search.Objective;
+import kiwi.search.SearchStats;
+import kiwi.search.Subproblem;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class ParallelSolverTest {
+
+  @Test
+  public void test8Queens() {
+    assertEquals(92, solveNQueens(8, 4).nSolutions);
+  }
+
+  @Test
+  public void test10Queens() {
+    assertEquals(724, solveNQueens(10, 4).nSolutions);
+  }
+
+  @Test
+  public void test10QueensSingleWorker() {
+    assertEquals(724, solveNQueens(10, 1).nSolutions);
+  }
+
+  @Test
+  public void testWorkStealing() {
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+    ParallelSolver solver = new ParallelSolver(4, s -> {
+      Heuristic heuristic = nQueens(s, 11);
+      s.onSolution(() -> threads.add(Thread.currentThread().getName()));
+      return heuristic;
+    });
+    assertEquals(2680, solver.solve().nSolutions);
+    assertTrue(threads.size() > 1);
+  }
+
+  @Test
+  public void testCompleted() {
+    assertTrue(solveNQueens(6, 4).completed);
+  }
+
+  @Test
+  public void testStopCondition() {
+    ParallelSolver solver = new ParallelSolver(4, s -> nQueens(s, 10));
+    SearchStats stats = solver.solve(s -> s.nSolutions >= 1);
+    assertFalse(stats.completed);
+    assertTrue(stats.nSolutions >= 1);
+  }
+
+  @Test
+  public void testMinimize() {
+    AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+    ParallelSolver solver = new ParallelSolver(4, s -> {
+      IntVar[] x = new IntVar[6];
+      for (int i = 0; i < x.length; i++) {
+        x[i] = s.intVar(0, 9);
+      }
+      IntVar total = s.intVar(0, 54);
+      s.add(Constraints.allDifferent(x));
+      s.add(Constraints.sum(x, total, 0));
+      s.setObjective(new Objective(total, true));
+      s.onSolution(() -> best.accumulateAndGet(total.min(), Math::min));
+      return Heuristics.binary(x, i -> x[i].size(), i -> x[i].max());
+    });
+    SearchStats stats = solver.solve();
+    assertTrue(stats.completed);
+    assertEquals(15, best.get());
+  }
+
+  @Test
+  public void testEPS10Queens() {
+    ParallelSolver solver = new ParallelSolver(4, s -> nQueens(s, 10));
+    List<Subproblem> subproblems = solver.decompose(4);
+    SearchStats stats = solver.solve(subproblems);
+    assertTrue(stats.completed);
+    assertEquals(724, stats.nSolutions);
+  }
+
+  @Test
+  public void testEPSDepth0() {
+    ParallelSolver solver = new ParallelSolver(2, s -> nQueens(s, 8));
+    List<Subproblem> subproblems = solver.decompose(0);
+    assertEquals(1, subproblems.size());
+    assertEquals(92, solver.solve(subproblems).nSolutions);
+  }
+
+  @Test
+  public void testEPSResume() {
+    ParallelSolver solver = new ParallelSolver(2, s -> nQueens(s, 8));
+    List<Subproblem> subproblems = solver.decompose(3);
+    SearchStats stats = solver.solve(subproblems, s -> s.nSolutions >= 1);
+    assertFalse(stats.completed);
+    // Write and read back the partially solved batch.
+    List<Subproblem> batch = new ArrayList<>();
+    for (Subproblem subproblem : subproblems) {
+      batch.add(Subproblem.parse(subproblem.toString()));
+      assertEquals(subproblem.toString(), batch.get(batch.size() - 1).toString());
+    }
+    stats = solver.solve(batch);
+    assertTrue(stats.completed);
+    for (Subproblem subproblem : batch) {
+      assertTrue(subproblem.isSolved());
+    }
+  }
+
+  @Test
+  public void testEPSMinimize() {
+    AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+    ParallelSolver solver = new ParallelSolver(3, s -> {
+      IntVar[] x = new IntVar[6];
+      for (int i = 0; i < x.length; i++) {
+        x[i] = s.intVar(0, 9);
+      }
+      IntVar total = s.intVar(0, 54);
+      s.add(Constraints.allDifferent(x));
+      s.add(Constraints.sum(x, total, 0));
+      s.setObjective(new Objective(total, true));
+      s.onSolution(() -> best.accumulateAndGet(total.min(), Math::min));
+      return Heuristics.binary(x, i -> x[i].size(), i -> x[i].max());
+    });
+    assertTrue(solver.solve(solver.decompose(3)).completed);
+    assertEquals(15, best.get());
+  }
+
+  private SearchStats solveNQueens(int n, int nWorkers) {
+    return new ParallelSolver(nWorkers, s -> nQueens(s, n)).solve();
+  }
+
+  private Heuristic nQueens(Solver solver, int n) {
+    IntVar[] queens = NQueens.model(solver, n);
+    return Heuristics.binaryFirstFail(queens);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import kiwi.example.NQueens;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.search.Heuristic;
+import kiwi.search.Objective;
+import kiwi.search.SearchStats;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class PortfolioSolverTest {
+
+  @Test
+  public void testSolution() {
+    SearchStats stats = new PortfolioSolver(4, (s, i) -> nQueens(s, 12, i)).solve();
+    assertTrue(stats.nSolutions >= 1);
+  }
+
+  @Test
+  public void testUnfeasible() {
+    SearchStats stats = new PortfolioSolver(4, (s, i) -> nQueens(s, 3, i)).solve();
+    assertTrue(stats.completed);
+    assertEquals(0, stats.nSolutions);
+  }
+
+  @Test
+  public void testMinimize() {
+    AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+    PortfolioSolver solver = new PortfolioSolver(4, (s, id) -> {
+      IntVar[] x = new IntVar[6];
+      for (int i = 0; i < x.length; i++) {
+        x[i] = s.intVar(0, 9);
+      }
+      IntVar total = s.intVar(0, 54);
+      s.add(Constraints.allDifferent(x));
+      s.add(Constraints.sum(x, total, 0));
+      s.setObjective(new Objective(total, true));
+      s.onSolution(() -> best.accumulateAndGet(total.min(), Math::min));
+      return Heuristics.binaryRandom(x, id);
+    });
+    SearchStats stats = solver.solve();
+    assertTrue(stats.completed);
+    assertEquals(15, best.get());
+  }
+
+  // The first member uses first-fail, the others random heuristics.
+  private Heuristic nQueens(Solver solver, int n, int member) {
+    IntVar[] queens = NQueens.model(solver, n);
+    if (member == 0) {
+      return Heuristics.binaryFirstFail(queens);
+    }
+    return Heuristics.binaryRandom(queens, member);
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BenchmarkRunnerTest {
+
+  private static BenchmarkRunner runner() {
+    BenchmarkRunner runner = new BenchmarkRunner();
+    runner.setWarmup(1);
+    runner.setIterations(2);
+    runner.setLog(new PrintStream(new OutputStream() {
+      @Override
+      public void write(int b) {}
+    }));
+    return runner;
+  }
+
+  @Test
+  public void testRun() {
+    int[] setups = new int[1];
+    Benchmark benchmark = Benchmark.of("count", () -> {
+      setups[0]++;
+      return () -> 1000;
+    });
+    List<BenchmarkRunner.Result> results = runner().run(Arrays.asList(benchmark));
+    assertEquals(1, results.size());
+    assertEquals(3, setups[0]);
+    assertEquals(2, results.get(0).scores.length);
+    assertTrue(results.get(0).score() > 0);
+  }
+
+  @Test
+  public void testFilter() {
+    BenchmarkRunner runner = runner();
+    runner.setFilter("^a\\.");
+    List<BenchmarkRunner.Result> results = runner.run(Arrays.asList(
+        Benchmark.of("a.x", () -> () -> 1), 
+        Benchmark.of("b.x", () -> () -> 1),
+        Benchmark.of("a.y", () -> () -> 1)));
+    assertEquals(2, results.size());
+    assertEquals("a.x", results.get(0).name);
+    assertEquals("a.y", results.get(1).name);
+  }
+
+  @Test
+  public void testJson() {
+    BenchmarkRunner runner = runner();
+    runner.setFilter("intvar.assign|queens");
+    String json = runner.toJson(runner.run(BenchmarkRunner.benchmarks()));
+    assertTrue(json.startsWith("["));
+    assertTrue(json.contains("\"benchmark\": \"intvar.assign\""));
+    assertTrue(json.contains("\"benchmark\": \"search.queens-12\""));
+    assertTrue(json.contains("\"scoreUnit\": \"ops/s\""));
+  }
+}
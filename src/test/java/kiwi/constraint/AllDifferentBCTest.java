@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import kiwi.Solver;
+import kiwi.example.NQueens;
+import kiwi.modeling.Consistency;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.search.SearchStats;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class AllDifferentBCTest {
+
+  @Test
+  public void testPigeonHole() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[4];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 2);
+    }
+    assertFalse(solver.add(new AllDifferentBC(x)));
+  }
+
+  @Test
+  public void testHallInterval() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(1, 2);
+    IntVar y = solver.intVar(1, 2);
+    IntVar z = solver.intVar(1, 3);
+    IntVar w = solver.intVar(0, 4);
+    assertTrue(solver.add(new AllDifferentBC(new IntVar[]{x, y, z, w})));
+    assertEquals(3, z.min());
+    assertEquals(3, z.max());
+    // w can still take 0 or 4 only, bounds are kept.
+    assertEquals(0, w.min());
+    assertEquals(4, w.max());
+  }
+
+  @Test
+  public void testUpperBound() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(3, 4);
+    IntVar y = solver.intVar(3, 4);
+    IntVar z = solver.intVar(0, 4);
+    assertTrue(solver.add(new AllDifferentBC(new IntVar[]{x, y, z})));
+    assertEquals(0, z.min());
+    assertEquals(2, z.max());
+  }
+
+  @Test
+  public void testSameSolutionsAsForwardChecking() {
+    Random random = new Random(0);
+    for (int k = 0; k < 50; k++) {
+      int n = 3 + random.nextInt(3);
+      int[] mins = new int[n];
+      int[] maxs = new int[n];
+      for (int i = 0; i < n; i++) {
+        mins[i] = random.nextInt(5);
+        maxs[i] = mins[i] + random.nextInt(4);
+      }
+      assertEquals(count(mins, maxs, Consistency.VALUE), count(mins, maxs, Consistency.BOUNDS));
+    }
+  }
+
+  @Test
+  public void testManyChangedBounds() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[12];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 20);
+    }
+    assertTrue(solver.add(Constraints.allDifferent(x, Consistency.BOUNDS)));
+    // All the bounds change at once, the intervals are sorted again.
+    solver.trail().newLevel();
+    for (int i = 0; i < x.length - 1; i++) {
+      assertTrue(x[i].updateMin(i / 2));
+      assertTrue(x[i].updateMax(10 - i % 3));
+    }
+    // The 11 first variables form the Hall interval [0, 10].
+    assertTrue(x[0].propagQueue().propagate());
+    assertEquals(11, x[11].min());
+  }
+
+  @Test
+  public void testNQueens() {
+    assertEquals(92, nQueens(8, Consistency.BOUNDS).nSolutions);
+    SearchStats bc = nQueens(10, Consistency.BOUNDS);
+    SearchStats fc = nQueens(10, Consistency.VALUE);
+    assertEquals(724, bc.nSolutions);
+    assertTrue(bc.nNodes <= fc.nNodes);
+  }
+
+  private static int count(int[] mins, int[] maxs, Consistency consistency) {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[mins.length];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(mins[i], maxs[i]);
+    }
+    if (!solver.add(Constraints.allDifferent(x, consistency))) {
+      return 0;
+    }
+    return solver.solve(Heuristics.binaryFirstFail(x)).nSolutions;
+  }
+
+  private static SearchStats nQueens(int n, Consistency consistency) {
+    Solver solver = new Solver();
+    IntVar[] queens = NQueens.model(solver, n, consistency);
+    return solver.solve(Heuristics.binaryFirstFail(queens));
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import kiwi.Solver;
+import kiwi.example.NQueens;
+import kiwi.modeling.Consistency;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.search.SearchStats;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class AllDifferentDCTest {
+
+  @Test
+  public void testPigeonHole() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[4];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 2);
+    }
+    assertFalse(solver.add(new AllDifferentDC(x)));
+  }
+
+  @Test
+  public void testHallSet() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(new int[]{1, 5});
+    IntVar y = solver.intVar(new int[]{1, 5});
+    IntVar z = solver.intVar(new int[]{1, 3, 5});
+    IntVar w = solver.intVar(0, 6);
+    assertTrue(solver.add(new AllDifferentDC(new IntVar[]{x, y, z, w})));
+    assertTrue(z.isAssigned());
+    assertEquals(3, z.min());
+    // {1, 5} is a Hall set which bounds consistency would miss.
+    assertEquals(4, w.size());
+    assertFalse(w.contains(1));
+    assertFalse(w.contains(3));
+    assertFalse(w.contains(5));
+  }
+
+  @Test
+  public void testIncrementalRepair() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[4];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 3);
+    }
+    assertTrue(solver.add(new AllDifferentDC(x)));
+    solver.trail().newLevel();
+    assertTrue(x[0].remove(0) && x[1].remove(0) && x[2].remove(0));
+    assertTrue(x[0].propagQueue().propagate());
+    assertTrue(x[3].isAssigned());
+    assertEquals(0, x[3].min());
+    solver.trail().undoLevel();
+    // The matching is still valid after backtracking.
+    solver.trail().newLevel();
+    assertTrue(x[3].assign(1));
+    assertTrue(x[0].propagQueue().propagate());
+    for (int i = 0; i < 3; i++) {
+      assertFalse(x[i].contains(1));
+    }
+    solver.trail().undoLevel();
+  }
+
+  @Test
+  public void testSameSolutionsAsForwardChecking() {
+    Random random = new Random(0);
+    for (int k = 0; k < 100; k++) {
+      int n = 3 + random.nextInt(3);
+      int[][] domains = new int[n][];
+      for (int i = 0; i < n; i++) {
+        domains[i] = new int[1 + random.nextInt(4)];
+        for (int j = 0; j < domains[i].length; j++) {
+          domains[i][j] = random.nextInt(6);
+        }
+        domains[i] = Arrays.stream(domains[i]).distinct().toArray();
+      }
+      SearchStats fc = solve(domains, Consistency.VALUE);
+      SearchStats dc = solve(domains, Consistency.DOMAIN);
+      assertEquals(fc.nSolutions, dc.nSolutions);
+      // Each node of a domain consistent search leads to a solution.
+      assertEquals(0, dc.nFails);
+    }
+  }
+
+  @Test
+  public void testNQueens() {
+    assertEquals(92, nQueens(8).nSolutions);
+    assertEquals(724, nQueens(10).nSolutions);
+  }
+
+  private static SearchStats solve(int[][] domains, Consistency consistency) {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[domains.length];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(domains[i]);
+    }
+    solver.add(Constraints.allDifferent(x, consistency));
+    return solver.solve(Heuristics.binaryFirstFail(x));
+  }
+
+  private static SearchStats nQueens(int n) {
+    Solver solver = new Solver();
+    IntVar[] queens = NQueens.model(solver, n, Consistency.DOMAIN);
+    return solver.solve(Heuristics.binaryFirstFail(queens));
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import kiwi.Solver;
+import kiwi.modeling.Heuristics;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class AllDifferentTest {
+
+  @Test
+  public void testForwardChecking() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 2);
+    IntVar y = solver.intVar(0, 2);
+    IntVar z = solver.intVar(0, 2);
+    assertTrue(solver.add(new AllDifferent(new IntVar[]{x, y, z})));
+    solver.trail().newLevel();
+    // Assigning x removes its value from y and z, which assigns them.
+    assertTrue(x.assign(0));
+    assertTrue(y.remove(1));
+    assertTrue(x.propagQueue().propagate());
+    assertEquals(2, y.min());
+    assertEquals(1, z.min());
+    assertTrue(z.isAssigned());
+    solver.trail().undoLevel();
+    assertEquals(3, y.size());
+    assertTrue(y.assign(1));
+    assertTrue(z.assign(1));
+    assertFalse(x.propagQueue().propagate());
+  }
+
+  @Test
+  public void testAssignedBeforeSetup() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(1);
+    IntVar y = solver.intVar(0, 2);
+    assertTrue(solver.add(new AllDifferent(new IntVar[]{x, y})));
+    assertFalse(y.contains(1));
+  }
+
+  @Test
+  public void testPermutations() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[6];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 5);
+    }
+    solver.add(new AllDifferent(x));
+    assertEquals(720, solver.solve(Heuristics.binaryFirstFail(x)).nSolutions);
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import kiwi.Solver;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class DifferentVarTest {
+
+  // Posting the constraint on unassigned variables should succeed
+  @Test
+  public void testUnassigned() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 2);
+    IntVar y = solver.intVar(0, 2);
+    assertTrue(solver.add(Constraints.different(x, y)));
+    assertEquals(3, x.size());
+    assertEquals(3, y.size());
+  }
+
+  // The value of an assigned variable should be removed from the other one
+  @Test
+  public void testAssigned() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 2);
+    IntVar y = solver.intVar(0, 2);
+    assertTrue(solver.add(Constraints.different(x, y)));
+    assertTrue(x.assign(1));
+    assertTrue(x.propagQueue().propagate());
+    assertFalse(y.contains(1));
+    assertTrue(y.assign(0));
+    assertTrue(y.propagQueue().propagate());
+  }
+
+  // Interval variables keep the inner value until they are assigned to it
+  @Test
+  public void testInterval() {
+    Solver solver = new Solver();
+    IntVar x = solver.intervalVar(0, 2);
+    IntVar y = solver.intervalVar(0, 2);
+    assertTrue(solver.add(Constraints.different(x, y)));
+    assertTrue(x.assign(1));
+    assertTrue(x.propagQueue().propagate());
+    assertTrue(y.contains(1));
+    assertTrue(y.assign(1));
+    assertFalse(y.propagQueue().propagate());
+  }
+
+  // Two variables assigned to the same value should fail
+  @Test
+  public void testFailure() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(1, 1);
+    IntVar y = solver.intVar(1, 1);
+    assertFalse(solver.add(Constraints.different(x, y)));
+  }
+
+  // All the pairs of distinct values should be solutions
+  @Test
+  public void testSolutions() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 2);
+    IntVar y = solver.intVar(0, 2);
+    solver.add(Constraints.different(x, y));
+    assertEquals(6, solver.solve(Heuristics.binaryFirstFail(new IntVar[]{x, y})).nSolutions);
+  }
+}
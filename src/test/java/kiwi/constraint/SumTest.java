@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import kiwi.Solver;
+import kiwi.modeling.Heuristics;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class SumTest {
+
+  @Test
+  public void testBounds() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 5);
+    IntVar y = solver.intVar(2, 4);
+    IntVar s = solver.intVar(0, 6);
+    assertTrue(solver.add(new Sum(new IntVar[]{x, y}, s, 0)));
+    assertEquals(2, s.min());
+    assertEquals(4, x.max());
+    // The sums of the bounds are updated incrementally.
+    solver.trail().newLevel();
+    assertTrue(x.updateMin(3));
+    assertTrue(x.propagQueue().propagate());
+    assertEquals(5, s.min());
+    assertEquals(3, y.max());
+    solver.trail().undoLevel();
+    assertTrue(s.updateMax(2));
+    assertTrue(x.propagQueue().propagate());
+    assertEquals(0, x.max());
+    assertEquals(2, y.max());
+  }
+
+  @Test
+  public void testSameSolutionsAsEnumeration() {
+    Random random = new Random(0);
+    for (int k = 0; k < 50; k++) {
+      int n = 2 + random.nextInt(3);
+      int[] mins = new int[n];
+      int[] maxs = new int[n];
+      for (int i = 0; i < n; i++) {
+        mins[i] = random.nextInt(7) - 3;
+        maxs[i] = mins[i] + random.nextInt(4);
+      }
+      int offset = random.nextInt(5) - 2;
+      int total = random.nextInt(9) - 2;
+      Solver solver = new Solver();
+      IntVar[] x = new IntVar[n + 1];
+      for (int i = 0; i < n; i++) {
+        x[i] = solver.intVar(mins[i], maxs[i]);
+      }
+      // The same variable appears twice in the terms.
+      x[n] = x[0];
+      IntVar s = solver.intVar(total, total + 1);
+      solver.add(new Sum(x, s, offset));
+      long nSolutions = solver.solve(Heuristics.binaryFirstFail(x)).nSolutions;
+      assertEquals(count(mins, maxs, new int[n], 0, offset, total), nSolutions);
+    }
+  }
+
+  // Counts the assignments such that x[0] + sum(x) + offset is in 
+  // [total, total + 1].
+  private static long count(int[] mins, int[] maxs, int[] values, int i, 
+      int offset, int total) {
+    if (i == values.length) {
+      int sum = offset + values[0];
+      for (int value : values) {
+        sum += value;
+      }
+      return sum == total || sum == total + 1 ? 1 : 0;
+    }
+    long count = 0;
+    for (int v = mins[i]; v <= maxs[i]; v++) {
+      values[i] = v;
+      count += count(mins, maxs, values, i + 1, offset, total);
+    }
+    return count;
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import kiwi.Solver;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class TableTest {
+
+  @Test
+  public void testInitialFiltering() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 3);
+    IntVar y = solver.intVar(0, 3);
+    int[][] tuples = new int[][]{{0, 1}, {1, 2}, {3, 3}, {5, 0}};
+    assertTrue(solver.add(Constraints.table(new IntVar[]{x, y}, tuples)));
+    assertEquals(3, x.size());
+    assertFalse(x.contains(2));
+    assertEquals(3, y.size());
+    // (5, 0) is not valid so that 0 is not supported.
+    assertFalse(y.contains(0));
+  }
+
+  @Test
+  public void testPropagationAndBacktrack() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 2);
+    IntVar y = solver.intVar(0, 2);
+    IntVar z = solver.intVar(0, 2);
+    int[][] tuples = new int[][]{{0, 0, 0}, {1, 1, 1}, {2, 2, 2}, {0, 1, 2}};
+    assertTrue(solver.add(Constraints.table(new IntVar[]{x, y, z}, tuples)));
+    solver.trail().newLevel();
+    assertTrue(x.assign(0));
+    assertTrue(x.propagQueue().propagate());
+    assertEquals(2, y.size());
+    assertFalse(y.contains(2));
+    assertTrue(y.remove(1));
+    assertTrue(x.propagQueue().propagate());
+    assertTrue(z.isAssigned());
+    assertEquals(0, z.min());
+    solver.trail().undoLevel();
+    solver.trail().newLevel();
+    assertTrue(y.assign(2));
+    assertTrue(x.propagQueue().propagate());
+    assertEquals(2, x.min());
+    assertEquals(2, z.min());
+    solver.trail().undoLevel();
+    assertEquals(3, x.size());
+  }
+
+  @Test
+  public void testRandomTables() {
+    Random random = new Random(0);
+    for (int k = 0; k < 30; k++) {
+      int arity = 2 + random.nextInt(3);
+      int nTuples = random.nextInt(200);
+      int[][] tuples = new int[nTuples][arity];
+      for (int t = 0; t < nTuples; t++) {
+        for (int i = 0; i < arity; i++) {
+          tuples[t][i] = random.nextInt(5);
+        }
+      }
+      Solver solver = new Solver();
+      IntVar[] x = new IntVar[arity];
+      for (int i = 0; i < arity; i++) {
+        x[i] = solver.intVar(0, 4);
+      }
+      // Constrain the first two variables to test the table with external
+      // propagation.
+      solver.add(Constraints.different(x[0], x[1]));
+      solver.add(Constraints.table(x, tuples));
+      assertEquals(countSolutions(tuples), solver.solve(Heuristics.binaryFirstFail(x)).nSolutions);
+    }
+  }
+
+  @Test
+  public void testLargeTable() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[3];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 99);
+    }
+    // All the tuples such that x0 + x1 = x2.
+    int[][] tuples = new int[5050][];
+    int t = 0;
+    for (int i = 0; i < 100; i++) {
+      for (int j = 0; i + j < 100; j++) {
+        tuples[t++] = new int[]{i, j, i + j};
+      }
+    }
+    solver.add(Constraints.table(x, tuples));
+    solver.add(Constraints.lowerEqual(x[2], 10));
+    solver.add(Constraints.lowerEqual(solver.opposite(x[0]), -4));
+    assertEquals(0, x[1].min());
+    assertEquals(6, x[1].max());
+    assertEquals(28, solver.solve(Heuristics.binaryFirstFail(x)).nSolutions);
+  }
+
+  // Counts the distinct tuples whose first two values are different.
+  private static int countSolutions(int[][] tuples) {
+    int count = 0;
+    for (int t = 0; t < tuples.length; t++) {
+      boolean duplicate = tuples[t][0] == tuples[t][1];
+      for (int u = 0; u < t && !duplicate; u++) {
+        duplicate = Arrays.equals(tuples[t], tuples[u]);
+      }
+      if (!duplicate) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
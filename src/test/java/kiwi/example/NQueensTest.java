@@ -16,10 +16,12 @@
 package kiwi.example;
 
 import static org.junit.Assert.assertEquals;
+
+import java.util.function.Function;
+
 import kiwi.Solver;
-import kiwi.modeling.Constraints;
 import kiwi.modeling.Heuristics;
-import kiwi.modeling.Views;
+import kiwi.search.Heuristic;
 import kiwi.variable.IntVar;
 
 import org.junit.Test;
@@ -46,19 +48,28 @@ public class NQueensTest {
     assertEquals(724, solveNQueens(10));
   }
 
-  private int solveNQueens(int n) {   
+  @Test
+  public void test10QueensDomWDeg() {
+    assertEquals(724, solveNQueens(10, Heuristics::binaryDomWDeg));
+  }
+
+  @Test
+  public void test10QueensActivity() {
+    assertEquals(724, solveNQueens(10, queens -> Heuristics.binaryActivity(queens, 10, 42)));
+  }
+
+  @Test
+  public void test10QueensImpact() {
+    assertEquals(724, solveNQueens(10, queens -> Heuristics.binaryImpact(queens, 10, 42)));
+  }
+
+  private int solveNQueens(int n) {
+    return solveNQueens(n, Heuristics::binaryFirstFail);
+  }
+
+  private int solveNQueens(int n, Function<IntVar[], Heuristic> heuristic) {
     Solver solver = new Solver();
-    IntVar[] queens = new IntVar[n];
-    IntVar[] queensUp = new IntVar[n];
-    IntVar[] queensDown = new IntVar[n];
-    for (int i = 0; i < n; i++) {
-      queens[i] = solver.intVar(0, n - 1);
-      queensUp[i] = Views.offset(queens[i], i);
-      queensDown[i] = Views.offset(queens[i], -i);
-    }
-    solver.add(Constraints.allDifferent(queens));
-    solver.add(Constraints.allDifferent(queensUp));
-    solver.add(Constraints.allDifferent(queensDown));
-    return solver.solve(Heuristics.binaryFirstFail(queens)).nSolutions;
+    IntVar[] queens = NQueens.model(solver, n);
+    return solver.solve(heuristic.apply(queens)).nSolutions;
   }
 }
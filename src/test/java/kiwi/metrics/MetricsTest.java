@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import kiwi.Solver;
+import kiwi.example.NQueens;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.search.Objective;
+import kiwi.search.SearchStats;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class MetricsTest {
+
+  @Test
+  public void testDisabled() {
+    Solver solver = new Solver();
+    assertNull(solver.metrics());
+    Metrics metrics = solver.enableMetrics();
+    assertSame(metrics, solver.enableMetrics());
+    assertSame(metrics, solver.metrics());
+  }
+
+  @Test
+  public void testSearch() {
+    Solver solver = new Solver();
+    Metrics metrics = solver.enableMetrics();
+    IntVar[] queens = NQueens.model(solver, 6);
+    SearchStats stats = solver.solve(Heuristics.binaryFirstFail(queens));
+    MetricsSnapshot snapshot = metrics.snapshot();
+    assertEquals(4, snapshot.nSolutions);
+    assertEquals(stats.nNodes, snapshot.nNodes);
+    assertEquals(stats.nFails, snapshot.nFails);
+    assertEquals(3, snapshot.propagators.size());
+    long nCalls = 0;
+    for (MetricsSnapshot.PropagatorStats propagator : snapshot.propagators) {
+      assertTrue(propagator.name.startsWith("AllDifferent#"));
+      assertTrue(propagator.nCalls > 0);
+      assertTrue(propagator.nPrunes > 0);
+      nCalls += propagator.nCalls;
+    }
+    long nDequeues = 0;
+    for (int k = 0; k < Metrics.QUEUE_BUCKETS; k++) {
+      nDequeues += snapshot.queueLengths(k);
+    }
+    assertEquals(nCalls, nDequeues);
+    assertTrue(snapshot.maxDepth > 0);
+    assertTrue(snapshot.maxTrailSize > 0);
+    assertTrue(snapshot.firstSolutionTime >= 0);
+    assertTrue(snapshot.elapsedTime >= snapshot.firstSolutionTime);
+    assertTrue(snapshot.improvements.isEmpty());
+  }
+
+  @Test
+  public void testFailures() {
+    Solver solver = new Solver();
+    Metrics metrics = solver.enableMetrics();
+    IntVar[] queens = NQueens.model(solver, 4);
+    SearchStats stats = solver.solve(Heuristics.binaryFirstFail(queens));
+    long nFailures = 0;
+    for (MetricsSnapshot.PropagatorStats propagator : metrics.snapshot().propagators) {
+      nFailures += propagator.nFailures;
+    }
+    // Decisions do not fail on these domains, only propagators do.
+    assertEquals(stats.nFails, nFailures);
+  }
+
+  @Test
+  public void testImprovements() {
+    Solver solver = new Solver();
+    Metrics metrics = solver.enableMetrics();
+    IntVar[] x = new IntVar[4];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 5);
+    }
+    IntVar total = solver.intVar(0, 20);
+    solver.add(Constraints.allDifferent(x));
+    solver.add(Constraints.sum(x, total, 0));
+    solver.setObjective(new Objective(total, false));
+    solver.solve(Heuristics.binaryFirstFail(x));
+    MetricsSnapshot snapshot = metrics.snapshot();
+    assertEquals(snapshot.nSolutions, snapshot.improvements.size());
+    for (int i = 1; i < snapshot.improvements.size(); i++) {
+      MetricsSnapshot.Improvement previous = snapshot.improvements.get(i - 1);
+      MetricsSnapshot.Improvement improvement = snapshot.improvements.get(i);
+      assertTrue(improvement.value > previous.value);
+      assertTrue(improvement.nNodes >= previous.nNodes);
+      assertTrue(improvement.time >= previous.time);
+    }
+    assertEquals(14, snapshot.improvements.get(snapshot.improvements.size() - 1).value);
+  }
+
+  @Test
+  public void testEnabledDuringSearch() {
+    Solver solver = new Solver();
+    IntVar[] queens = NQueens.model(solver, 6);
+    solver.onSolution(() -> solver.enableMetrics());
+    SearchStats stats = solver.solve(Heuristics.binaryFirstFail(queens));
+    assertEquals(4, stats.nSolutions);
+    MetricsSnapshot snapshot = solver.metrics().snapshot();
+    assertEquals(3, snapshot.nSolutions);
+    assertTrue(snapshot.nNodes > 0);
+    assertTrue(snapshot.nNodes < stats.nNodes);
+  }
+
+  @Test
+  public void testSnapshotDuringSearch() {
+    Solver solver = new Solver();
+    Metrics metrics = solver.enableMetrics();
+    IntVar[] queens = NQueens.model(solver, 8);
+    long[] nSolutions = new long[1];
+    solver.onSolution(() -> nSolutions[0] = metrics.snapshot().nSolutions);
+    solver.solve(Heuristics.binaryFirstFail(queens), s -> s.nSolutions == 10);
+    assertEquals(10, nSolutions[0]);
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.propagation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import kiwi.trail.Trail;
+
+import org.junit.Test;
+
+public class PropagationQueueTest {
+
+  private static class Fixed extends Propagator {
+    private final boolean result;
+
+    Fixed(boolean result) {
+      this.result = result;
+    }
+
+    @Override public boolean setup() {
+      return true;
+    }
+
+    @Override public boolean propagate() {
+      return result;
+    }
+  }
+
+  @Test
+  public void testFailedPropagator() {
+    PropagationQueue queue = new PropagationQueue();
+    Propagator success = new Fixed(true);
+    Propagator failure = new Fixed(false);
+    queue.enqueue(success);
+    queue.enqueue(failure);
+    assertFalse(queue.propagate());
+    assertEquals(failure, queue.failedPropagator());
+    assertEquals(2, failure.weight());
+    assertEquals(1, success.weight());
+    queue.enqueue(success);
+    assertTrue(queue.propagate());
+    assertNull(queue.failedPropagator());
+  }
+
+  @Test
+  public void testOnlyFirstFailureIsWeighted() {
+    PropagationQueue queue = new PropagationQueue();
+    Propagator first = new Fixed(false);
+    Propagator second = new Fixed(false);
+    queue.enqueue(first);
+    queue.enqueue(second);
+    assertFalse(queue.propagate());
+    assertEquals(first, queue.failedPropagator());
+    assertEquals(2, first.weight());
+    assertEquals(1, second.weight());
+  }
+
+  private static class Ordered extends Propagator {
+    private final Priority priority;
+    private final List<Propagator> order;
+
+    Ordered(Priority priority, List<Propagator> order) {
+      this.priority = priority;
+      this.order = order;
+    }
+
+    @Override public Priority priority() {
+      return priority;
+    }
+
+    @Override public boolean setup() {
+      return true;
+    }
+
+    @Override public boolean propagate() {
+      order.add(this);
+      return true;
+    }
+  }
+
+  @Test
+  public void testCheapestFirst() {
+    PropagationQueue queue = new PropagationQueue();
+    List<Propagator> order = new ArrayList<>();
+    Propagator quadratic = new Ordered(Priority.QUADRATIC, order);
+    Propagator linear = new Ordered(Priority.LINEAR, order);
+    Propagator unary1 = new Ordered(Priority.UNARY, order);
+    Propagator unary2 = new Ordered(Priority.UNARY, order);
+    queue.enqueue(quadratic);
+    queue.enqueue(linear);
+    queue.enqueue(unary1);
+    queue.enqueue(unary2);
+    queue.enqueue(unary1);
+    assertTrue(queue.propagate());
+    assertEquals(4, order.size());
+    assertEquals(unary1, order.get(0));
+    assertEquals(unary2, order.get(1));
+    assertEquals(linear, order.get(2));
+    assertEquals(quadratic, order.get(3));
+    assertEquals(2, queue.nPropagations(Priority.UNARY));
+    assertEquals(1, queue.nPropagations(Priority.QUADRATIC));
+    assertEquals(0, queue.nPropagations(Priority.BINARY));
+    queue.resetCounters();
+    assertEquals(0, queue.nPropagations(Priority.UNARY));
+  }
+
+  @Test
+  public void testCheapPropagatorEnqueuedDuringPropagation() {
+    PropagationQueue queue = new PropagationQueue();
+    List<Propagator> order = new ArrayList<>();
+    Propagator unary = new Ordered(Priority.UNARY, order);
+    Propagator linear = new Ordered(Priority.LINEAR, order);
+    // The binary propagator enqueues the unary one, which must run before 
+    // the linear one.
+    Propagator binary = new Ordered(Priority.BINARY, order) {
+      @Override public boolean propagate() {
+        queue.enqueue(unary);
+        return super.propagate();
+      }
+    };
+    queue.enqueue(linear);
+    queue.enqueue(binary);
+    assertTrue(queue.propagate());
+    assertEquals(binary, order.get(0));
+    assertEquals(unary, order.get(1));
+    assertEquals(linear, order.get(2));
+  }
+
+  @Test
+  public void testDeactivate() {
+    Trail trail = new Trail();
+    PropagationQueue queue = new PropagationQueue();
+    List<Propagator> order = new ArrayList<>();
+    Ordered propagator = new Ordered(Priority.LINEAR, order);
+    trail.newLevel();
+    propagator.deactivate(trail);
+    assertFalse(propagator.isActive());
+    queue.enqueue(propagator);
+    assertTrue(queue.propagate());
+    assertEquals(0, order.size());
+    trail.undoLevel();
+    assertTrue(propagator.isActive());
+    queue.enqueue(propagator);
+    // A propagator deactivated while enqueued is not propagated.
+    trail.newLevel();
+    propagator.deactivate(trail);
+    assertTrue(queue.propagate());
+    assertEquals(0, order.size());
+    trail.undoLevel();
+    queue.enqueue(propagator);
+    assertTrue(queue.propagate());
+    assertEquals(1, order.size());
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import kiwi.Solver;
+import kiwi.modeling.Constraints;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class AdaptiveHeuristicsTest {
+
+  @Test
+  public void testActivityCountsReductions() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 5);
+    IntVar y = solver.intVar(0, 5);
+    IntVar z = solver.intVar(0, 5);
+    ActivityBased heuristic = new ActivityBased(new IntVar[]{x, y, z}, 1.0);
+    x.remove(3);
+    x.remove(4);
+    y.updateMin(2);
+    // Both removals happened in the same node.
+    assertEquals(2, heuristic.activity(0), 1e-9);
+    assertEquals(2, heuristic.activity(1), 1e-9);
+    assertEquals(1, heuristic.activity(2), 1e-9);
+  }
+
+  @Test
+  public void testProbingRestoresRoot() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[5];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 4);
+    }
+    solver.add(Constraints.allDifferent(x));
+    ActivityBased activity = new ActivityBased(x, 0.99);
+    activity.probe(20, 0);
+    ImpactBased impact = new ImpactBased(x);
+    impact.probe(20, 0);
+    for (int i = 0; i < x.length; i++) {
+      assertEquals(0, x[i].min());
+      assertEquals(4, x[i].max());
+      assertEquals(5, x[i].size());
+      assertTrue(activity.activity(i) > 1);
+    }
+  }
+
+  @Test
+  public void testImpactOfFailure() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[]{solver.intVar(0, 1), solver.intVar(0, 1)};
+    // x0 = 0 fails as it forces x1 to be both 0 and 1.
+    solver.add(Constraints.lowerEqual(x[1], x[0]));
+    solver.add(Constraints.lowerEqual(solver.opposite(x[1]), solver.offset(x[0], -1)));
+    ImpactBased heuristic = new ImpactBased(x);
+    SearchStats stats = solver.solve(heuristic);
+    assertEquals(2, stats.nSolutions);
+    assertEquals(1.0, heuristic.impact(0, 0), 1e-9);
+    assertTrue(heuristic.impact(0, 1) < 1.0);
+  }
+}
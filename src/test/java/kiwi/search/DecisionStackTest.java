@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import kiwi.Solver;
+import kiwi.modeling.Constraints;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class DecisionStackTest {
+
+  @Test
+  public void testLastPushedFirstApplied() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[]{solver.intVar(0, 9), solver.intVar(0, 9)};
+    DecisionStack decisions = new DecisionStack();
+    decisions.push(x, 0, 5, VarValDecision.ASSIGN);
+    decisions.push(() -> x[1].updateMin(3));
+    decisions.push(x, 1, 7, VarValDecision.LOWER_EQUAL);
+    assertEquals(3, decisions.getSize());
+    assertTrue(decisions.applyTop());
+    assertEquals(7, x[1].max());
+    assertTrue(decisions.applyTop());
+    assertEquals(3, x[1].min());
+    assertTrue(decisions.applyTop());
+    assertTrue(x[0].isAssigned());
+    assertTrue(decisions.isEmpty());
+  }
+
+  @Test
+  public void testGrowAndFail() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[]{solver.intVar(0, 99)};
+    DecisionStack decisions = new DecisionStack();
+    for (int i = 0; i < 100; i++) {
+      decisions.push(x, 0, i, VarValDecision.REMOVE);
+    }
+    for (int i = 0; i < 99; i++) {
+      assertTrue(decisions.applyTop());
+    }
+    // The last value cannot be removed.
+    assertFalse(decisions.applyTop());
+    decisions.push(x, 0, 0, VarValDecision.GREATER_EQUAL);
+    decisions.clear();
+    assertTrue(decisions.isEmpty());
+  }
+
+  private static long nSolutions(boolean primitive) {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[4];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 3);
+    }
+    solver.add(Constraints.allDifferent(x));
+    BinaryVarVal binary = new BinaryVarVal(x, i -> x[i].size(), i -> x[i].min());
+    // Hides the primitive implementation of the heuristic.
+    Heuristic objects = decisions -> binary.pushNextDecisions(decisions);
+    return solver.solve(primitive ? binary : objects).nSolutions;
+  }
+
+  @Test
+  public void testObjectDecisions() {
+    assertEquals(24, nSolutions(true));
+    assertEquals(24, nSolutions(false));
+  }
+}
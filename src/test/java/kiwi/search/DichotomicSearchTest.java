@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import kiwi.Solver;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class DichotomicSearchTest {
+
+  // Minimizes or maximizes the sum of different variables.
+  private static Solver sumModel(boolean minimize, IntVar[] x) {
+    Solver solver = new Solver();
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 20);
+    }
+    IntVar total = solver.intVar(0, 20 * x.length);
+    solver.add(Constraints.allDifferent(x));
+    solver.add(Constraints.sum(x, total, 0));
+    solver.setObjective(new Objective(total, minimize));
+    return solver;
+  }
+
+  @Test
+  public void testMinimize() {
+    IntVar[] x = new IntVar[5];
+    Solver solver = sumModel(true, x);
+    DichotomicSearch search = solver.dichotomicSearch(Heuristics.binaryFirstFail(x));
+    SearchStats stats = search.search(1000, s -> false);
+    assertTrue(stats.completed);
+    assertEquals(10, search.bestValue());
+    assertEquals(10, search.bound());
+    assertEquals(0.0, search.gap(), 0.0);
+  }
+
+  @Test
+  public void testMaximize() {
+    IntVar[] x = new IntVar[5];
+    Solver solver = sumModel(false, x);
+    DichotomicSearch search = solver.dichotomicSearch(Heuristics.binaryFirstFail(x));
+    SearchStats stats = search.search(1000, s -> false);
+    assertTrue(stats.completed);
+    assertEquals(90, search.bestValue());
+    assertEquals(90, search.bound());
+  }
+
+  @Test
+  public void testHistory() {
+    IntVar[] x = new IntVar[5];
+    Solver solver = sumModel(false, x);
+    DichotomicSearch search = solver.dichotomicSearch(Heuristics.binaryFirstFail(x));
+    search.search(10, s -> false);
+    List<DichotomicSearch.Bounds> history = search.history();
+    assertFalse(history.isEmpty());
+    for (int i = 1; i < history.size(); i++) {
+      // Maximization: the best value increases and the bound decreases.
+      assertTrue(history.get(i).best >= history.get(i - 1).best);
+      assertTrue(history.get(i).bound <= history.get(i - 1).bound);
+      assertTrue(history.get(i).gap() <= history.get(i - 1).gap());
+    }
+    DichotomicSearch.Bounds last = history.get(history.size() - 1);
+    assertEquals(90, last.best);
+    assertEquals(0.0, last.gap(), 0.0);
+  }
+
+  @Test
+  public void testLogarithmicPhases() {
+    Solver solver = new Solver();
+    IntVar x = solver.intervalVar(0, 1000000);
+    solver.add(Constraints.lowerEqual(solver.intVar(777777), x));
+    solver.setObjective(new Objective(x, true));
+    // Assigns x to its maximum value first.
+    DichotomicSearch search = solver.dichotomicSearch(
+        Heuristics.binaryFirstFail(new IntVar[]{solver.opposite(x)}));
+    SearchStats stats = search.search(100, s -> false);
+    assertTrue(stats.completed);
+    assertEquals(777777, search.bestValue());
+    assertTrue(search.history().size() < 64);
+  }
+
+  @Test
+  public void testStopCondition() {
+    Solver solver = new Solver();
+    IntVar x = solver.intervalVar(0, 1000000);
+    solver.add(Constraints.lowerEqual(solver.intVar(777777), x));
+    solver.setObjective(new Objective(x, true));
+    DichotomicSearch search = solver.dichotomicSearch(
+        Heuristics.binaryFirstFail(new IntVar[]{solver.opposite(x)}));
+    SearchStats stats = search.search(100, s -> s.nSolutions >= 3);
+    assertFalse(stats.completed);
+    assertEquals(3, stats.nSolutions);
+    assertTrue(search.gap() > 0);
+    assertTrue(search.bestValue() > 777777);
+    assertTrue(search.bound() <= 777777);
+  }
+
+  @Test
+  public void testNoActionLeft() {
+    IntVar[] x = new IntVar[5];
+    Solver solver = sumModel(false, x);
+    DichotomicSearch first = solver.dichotomicSearch(Heuristics.binaryFirstFail(x));
+    first.search(1000, s -> s.nSolutions >= 1);
+    assertEquals(10, first.bestValue());
+    // The solutions of the next searches are not recorded by the first one.
+    DichotomicSearch second = solver.dichotomicSearch(Heuristics.binaryFirstFail(x));
+    second.search(1000, s -> false);
+    assertEquals(90, second.bestValue());
+    assertEquals(10, first.bestValue());
+  }
+
+  @Test
+  public void testInfeasible() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[4];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 2);
+    }
+    solver.add(Constraints.allDifferent(x));
+    solver.setObjective(new Objective(x[0], true));
+    DichotomicSearch search = solver.dichotomicSearch(Heuristics.binaryFirstFail(x));
+    SearchStats stats = search.search(100, s -> false);
+    assertTrue(stats.completed);
+    assertEquals(0, stats.nSolutions);
+    assertEquals(Double.POSITIVE_INFINITY, search.gap(), 0.0);
+  }
+}
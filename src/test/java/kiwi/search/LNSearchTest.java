@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import kiwi.ParallelSolver;
+import kiwi.Solver;
+import kiwi.constraint.AllDifferent;
+import kiwi.constraint.Sum;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.propagation.PropagationQueue;
+import kiwi.trail.Trail;
+import kiwi.variable.IntVar;
+import kiwi.variable.IntVarBitset;
+
+import org.junit.Test;
+
+public class LNSearchTest {
+
+  private static final int N = 8;
+  private static final int OPTIMUM = N * (N - 1) / 2;
+
+  // Builds a model whose first solution found by the heuristic is far from 
+  // the optimum 0 + 1 + ... + N-1.
+  private Heuristic model(Solver solver, int[] best) {
+    IntVar[] x = new IntVar[N];
+    for (int i = 0; i < N; i++) {
+      x[i] = solver.intVar(0, 3 * N);
+    }
+    IntVar total = solver.intVar(0, 3 * N * N);
+    solver.add(Constraints.allDifferent(x));
+    solver.add(Constraints.sum(x, total, 0));
+    solver.setObjective(new Objective(total, true));
+    solver.onSolution(() -> {
+      synchronized (best) {
+        best[0] = Math.min(best[0], total.min());
+      }
+    });
+    return Heuristics.binary(x, i -> x[i].size(), i -> x[i].max());
+  }
+
+  private void testNeighborhood(Neighborhood neighborhood) {
+    int[] best = new int[]{Integer.MAX_VALUE};
+    Solver solver = new Solver();
+    Heuristic heuristic = model(solver, best);
+    SearchStats stats = solver.solveLNS(heuristic, neighborhood, 500, 
+        s -> s.nNodes > 50000 || best[0] == OPTIMUM);
+    assertFalse(stats.completed);
+    assertTrue(stats.nSolutions > 1);
+    assertEquals(OPTIMUM, best[0]);
+  }
+
+  @Test
+  public void testNoActionLeft() {
+    Trail trail = new Trail();
+    PropagationQueue pQueue = new PropagationQueue();
+    IntVar[] x = new IntVar[N];
+    for (int i = 0; i < N; i++) {
+      x[i] = new IntVarBitset(pQueue, trail, 0, 3 * N);
+    }
+    IntVar total = new IntVarBitset(pQueue, trail, 0, 3 * N * N);
+    assertTrue(new AllDifferent(x).setup() && new Sum(x, total, 0).setup() 
+        && pQueue.propagate());
+    DFSearch search = new DFSearch(pQueue, trail);
+    search.setObjective(new Objective(total, true));
+    Heuristic heuristic = Heuristics.binary(x, i -> x[i].size(), i -> x[i].max());
+    LNSearch lns = new LNSearch(search, heuristic, new RandomNeighborhood(0.5, 42));
+    lns.search(500, s -> s.nSolutions >= 1);
+    int[] best = lns.bestSolution();
+    // The solutions of the next searches are not recorded by the LNS anymore.
+    SearchStats stats = search.search(heuristic, s -> false);
+    assertTrue(stats.nSolutions > 0);
+    assertArrayEquals(best, lns.bestSolution());
+  }
+
+  @Test
+  public void testRandom() {
+    testNeighborhood(new RandomNeighborhood(0.5, 42));
+  }
+
+  @Test
+  public void testPropagationGuided() {
+    testNeighborhood(new PropagationGuidedNeighborhood(0.5, 42));
+  }
+
+  @Test
+  public void testSequential() {
+    testNeighborhood(new SequentialNeighborhood(new int[][]{{0, 1, 2, 3}, {4, 5, 6, 7}, 
+      {0, 2, 4, 6}, {1, 3, 5, 7}}, N));
+  }
+
+  @Test
+  public void testParallel() {
+    int[] best = new int[]{Integer.MAX_VALUE};
+    ParallelSolver solver = new ParallelSolver(3, s -> model(s, best));
+    SearchStats stats = solver.solveLNS(i -> new RandomNeighborhood(0.5, i), 20,
+        s -> s.nNodes > 50000 || best[0] == OPTIMUM);
+    assertTrue(stats.nSolutions > 1);
+    assertEquals(OPTIMUM, best[0]);
+  }
+
+  // The search is complete if the initial search proves unfeasibility
+  @Test
+  public void testUnfeasible() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[4];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 2);
+    }
+    solver.add(Constraints.allDifferent(x));
+    solver.setObjective(new Objective(x[0], true));
+    SearchStats stats = solver.solveLNS(Heuristics.binaryFirstFail(x), 
+        new RandomNeighborhood(0.5, 0), 10, s -> false);
+    assertTrue(stats.completed);
+    assertEquals(0, stats.nSolutions);
+  }
+}
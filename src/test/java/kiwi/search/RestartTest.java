@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import kiwi.ParallelSolver;
+import kiwi.Solver;
+import kiwi.example.NQueens;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class RestartTest {
+
+  @Test
+  public void testLubySequence() {
+    int[] expected = new int[]{1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, 1};
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], LubyRestarts.luby(i + 1));
+    }
+    assertEquals(20, new LubyRestarts(10).failLimit(5));
+    assertEquals(40, new LubyRestarts(10).failLimit(6));
+  }
+
+  @Test
+  public void testGeometric() {
+    RestartPolicy policy = new GeometricRestarts(10, 2.0);
+    assertEquals(10, policy.failLimit(0));
+    assertEquals(20, policy.failLimit(1));
+    assertEquals(80, policy.failLimit(3));
+    assertEquals(Integer.MAX_VALUE, policy.failLimit(100));
+  }
+
+  @Test
+  public void testMinimizeWithRestarts() {
+    int[] best = new int[]{Integer.MAX_VALUE};
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[6];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 9);
+    }
+    IntVar total = solver.intVar(0, 54);
+    solver.add(Constraints.allDifferent(x));
+    solver.add(Constraints.sum(x, total, 0));
+    solver.setObjective(new Objective(total, true));
+    solver.setRestartPolicy(new LubyRestarts(2));
+    solver.onSolution(() -> best[0] = Math.min(best[0], total.min()));
+    SearchStats stats = solver.solve(Heuristics.binary(x, i -> x[i].size(), i -> x[i].max()));
+    assertTrue(stats.completed);
+    assertTrue(stats.nRestarts > 0);
+    assertEquals(15, best[0]);
+    // The root state should be restored.
+    assertEquals(0, total.min());
+    assertEquals(54, total.max());
+  }
+
+  @Test
+  public void testSearchInLevel() {
+    for (boolean restarts : new boolean[]{false, true}) {
+      Solver solver = new Solver();
+      IntVar[] queens = NQueens.model(solver, 6);
+      if (restarts) {
+        solver.setRestartPolicy(new LubyRestarts(1));
+      }
+      solver.trail().newLevel();
+      assertTrue(queens[0].updateMax(2) && queens[0].propagQueue().propagate());
+      SearchStats stats = solver.solve(Heuristics.binaryFirstFail(queens));
+      assertTrue(stats.completed);
+      // Restarts can find the same solutions again.
+      if (restarts) {
+        assertTrue(stats.nSolutions >= 2);
+      } else {
+        assertEquals(2, stats.nSolutions);
+      }
+      // The search should neither undo nor close the level it started in.
+      assertEquals(1, solver.trail().getLevel());
+      assertEquals(3, queens[0].size());
+      solver.trail().undoLevel();
+      assertEquals(6, queens[0].size());
+    }
+  }
+
+  @Test
+  public void testRequestRestart() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[4];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 3);
+    }
+    solver.add(Constraints.allDifferent(x));
+    SearchStats stats = solver.solve(Heuristics.binaryFirstFail(x), s -> {
+      if (s.nNodes == 1 && s.nRestarts == 0) {
+        s.requestRestart();
+      }
+      return s.nSolutions > 0;
+    });
+    assertEquals(1, stats.nRestarts);
+    assertEquals(1, stats.nSolutions);
+  }
+
+  // Restarts should not undo the subproblem replayed by EPS
+  @Test
+  public void testEPSWithRestarts() {
+    ParallelSolver solver = new ParallelSolver(1, s -> {
+      IntVar[] queens = NQueens.model(s, 6);
+      s.setRestartPolicy(new LubyRestarts(1));
+      return Heuristics.binaryFirstFail(queens);
+    });
+    // The first subproblem places the first queen in the first row, which
+    // leads to no solution for 6 queens.
+    List<Subproblem> subproblems = solver.decompose(1);
+    SearchStats stats = solver.solve(subproblems.subList(0, 1));
+    assertTrue(stats.completed);
+    assertTrue(stats.nRestarts > 0);
+    assertEquals(0, stats.nSolutions);
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import kiwi.Solver;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class SearchLimitsTest {
+
+  // A problem with a huge search tree and no solution.
+  private static IntVar[] pigeons(Solver solver, int n) {
+    IntVar[] x = new IntVar[n];
+    for (int i = 0; i < n; i++) {
+      x[i] = solver.intVar(0, n - 2);
+    }
+    for (int i = 0; i < n; i++) {
+      for (int j = i + 1; j < n; j++) {
+        solver.add(Constraints.different(x[i], x[j]));
+      }
+    }
+    return x;
+  }
+
+  @Test
+  public void testNoLimit() {
+    Solver solver = new Solver();
+    IntVar[] x = pigeons(solver, 5);
+    SearchLimits limits = new SearchLimits();
+    SearchStats stats = solver.solve(Heuristics.binaryFirstFail(x), limits);
+    assertTrue(stats.completed);
+    assertNull(limits.reachedLimit());
+  }
+
+  @Test
+  public void testNodeLimit() {
+    Solver solver = new Solver();
+    IntVar[] x = pigeons(solver, 12);
+    SearchLimits limits = new SearchLimits();
+    limits.setNodeLimit(100);
+    SearchStats stats = solver.solve(Heuristics.binaryFirstFail(x), limits);
+    assertFalse(stats.completed);
+    assertEquals(100, stats.nNodes);
+    assertEquals(SearchLimits.Limit.NODES, limits.reachedLimit());
+  }
+
+  @Test
+  public void testFailLimit() {
+    Solver solver = new Solver();
+    IntVar[] x = pigeons(solver, 12);
+    SearchLimits limits = new SearchLimits();
+    limits.setFailLimit(50);
+    SearchStats stats = solver.solve(Heuristics.binaryFirstFail(x), limits);
+    assertFalse(stats.completed);
+    assertEquals(50, stats.nFails);
+    assertEquals(SearchLimits.Limit.FAILS, limits.reachedLimit());
+  }
+
+  @Test
+  public void testTrailSizeLimit() {
+    Solver solver = new Solver();
+    IntVar[] x = pigeons(solver, 12);
+    SearchLimits limits = new SearchLimits();
+    limits.setTrailSizeLimit(10);
+    SearchStats stats = solver.solve(Heuristics.binaryFirstFail(x), limits);
+    assertFalse(stats.completed);
+    assertEquals(SearchLimits.Limit.TRAIL_SIZE, limits.reachedLimit());
+  }
+
+  @Test
+  public void testDeadline() {
+    Solver solver = new Solver();
+    IntVar[] x = pigeons(solver, 14);
+    SearchLimits limits = new SearchLimits();
+    limits.setTimeLimit(50, TimeUnit.MILLISECONDS);
+    long time = System.nanoTime();
+    SearchStats stats = solver.solve(Heuristics.binaryFirstFail(x), limits);
+    time = System.nanoTime() - time;
+    assertFalse(stats.completed);
+    assertEquals(SearchLimits.Limit.DEADLINE, limits.reachedLimit());
+    assertTrue(time < TimeUnit.SECONDS.toNanos(10));
+  }
+
+  @Test
+  public void testCancel() throws InterruptedException {
+    Solver solver = new Solver();
+    IntVar[] x = pigeons(solver, 14);
+    SearchLimits limits = new SearchLimits();
+    CountDownLatch started = new CountDownLatch(1);
+    SearchStats[] stats = new SearchStats[1];
+    Thread thread = new Thread(() -> {
+      stats[0] = solver.solve(Heuristics.binaryFirstFail(x), s -> {
+        started.countDown();
+        return false;
+      }, limits);
+    });
+    thread.start();
+    started.await();
+    limits.cancel();
+    thread.join(10000);
+    assertFalse(thread.isAlive());
+    assertFalse(stats[0].completed);
+    assertTrue(limits.isCancelled());
+    assertEquals(SearchLimits.Limit.CANCELLED, limits.reachedLimit());
+  }
+
+  @Test
+  public void testBestSoFar() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[10];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 20);
+    }
+    IntVar total = solver.intVar(0, 200);
+    solver.add(Constraints.allDifferent(x));
+    solver.add(Constraints.sum(x, total, 0));
+    solver.setObjective(new Objective(total, false));
+    int[] best = new int[]{-1};
+    solver.onSolution(() -> best[0] = total.min());
+    SearchLimits limits = new SearchLimits();
+    limits.setNodeLimit(200);
+    SearchStats stats = solver.solve(Heuristics.binaryFirstFail(x), limits);
+    assertFalse(stats.completed);
+    assertTrue(stats.nSolutions > 0);
+    assertTrue(best[0] > 0);
+  }
+}
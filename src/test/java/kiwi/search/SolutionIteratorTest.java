@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.search;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import kiwi.Solver;
+import kiwi.example.NQueens;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class SolutionIteratorTest {
+
+  private static boolean isQueens(int[] solution) {
+    for (int i = 0; i < solution.length; i++) {
+      for (int j = i + 1; j < solution.length; j++) {
+        int diff = solution[j] - solution[i];
+        if (diff == 0 || diff == j - i || diff == i - j) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Test
+  public void testAllSolutions() {
+    Solver solver = new Solver();
+    IntVar[] queens = NQueens.model(solver, 8);
+    List<int[]> solutions = solver.solutions(Heuristics.binaryFirstFail(queens), queens)
+        .collect(Collectors.toList());
+    assertEquals(92, solutions.size());
+    for (int[] solution : solutions) {
+      assertTrue(isQueens(solution));
+    }
+    assertEquals(92, solutions.stream().map(Arrays::toString).distinct()
+        .count());
+  }
+
+  @Test
+  public void testSameOrderAsCallbacks() {
+    Solver solver1 = new Solver();
+    IntVar[] queens1 = NQueens.model(solver1, 6);
+    List<int[]> expected = new ArrayList<>();
+    solver1.onSolution(() -> {
+      int[] solution = new int[queens1.length];
+      for (int i = 0; i < queens1.length; i++) {
+        solution[i] = queens1[i].min();
+      }
+      expected.add(solution);
+    });
+    solver1.solve(Heuristics.binaryFirstFail(queens1));
+    Solver solver2 = new Solver();
+    IntVar[] queens2 = NQueens.model(solver2, 6);
+    SolutionIterator iterator = solver2.solutionIterator(Heuristics.binaryFirstFail(queens2), 
+        queens2, null);
+    for (int[] solution : expected) {
+      assertTrue(iterator.hasNext());
+      assertArrayEquals(solution, iterator.next());
+    }
+    assertFalse(iterator.hasNext());
+    assertTrue(iterator.stats().completed);
+    assertEquals(expected.size(), iterator.stats().nSolutions);
+  }
+
+  @Test
+  public void testLazy() {
+    Solver solver = new Solver();
+    IntVar[] queens = NQueens.model(solver, 10);
+    SolutionIterator iterator = solver.solutionIterator(Heuristics.binaryFirstFail(queens), 
+        queens, null);
+    assertEquals(0, iterator.stats().nNodes);
+    iterator.next();
+    assertEquals(1, iterator.stats().nSolutions);
+    int nNodes = iterator.stats().nNodes;
+    assertTrue(iterator.hasNext());
+    assertTrue(iterator.hasNext());
+    assertEquals(2, iterator.stats().nSolutions);
+    assertTrue(iterator.stats().nNodes > nNodes);
+    iterator.close();
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  public void testCloseRestoresRoot() {
+    Solver solver = new Solver();
+    IntVar[] queens = NQueens.model(solver, 8);
+    try (Stream<int[]> solutions = solver.solutions(Heuristics.binaryFirstFail(queens), 
+        queens)) {
+      assertEquals(3, solutions.limit(3).count());
+    }
+    for (IntVar queen : queens) {
+      assertEquals(8, queen.size());
+    }
+  }
+
+  @Test
+  public void testNewSearchClosesSuspended() {
+    Solver solver = new Solver();
+    IntVar[] queens = NQueens.model(solver, 8);
+    SolutionIterator first = solver.solutionIterator(Heuristics.binaryFirstFail(queens), 
+        queens, null);
+    first.next();
+    SolutionIterator second = solver.solutionIterator(Heuristics.binaryFirstFail(queens), 
+        queens, null);
+    assertTrue(isQueens(second.next()));
+    assertFalse(first.hasNext());
+    second.close();
+  }
+
+  @Test
+  public void testLimits() {
+    Solver solver = new Solver();
+    IntVar[] queens = NQueens.model(solver, 8);
+    SearchLimits limits = new SearchLimits();
+    limits.setNodeLimit(50);
+    SolutionIterator iterator = solver.solutionIterator(Heuristics.binaryFirstFail(queens), 
+        queens, limits);
+    while (iterator.hasNext()) {
+      iterator.next();
+    }
+    assertFalse(iterator.stats().completed);
+    assertEquals(SearchLimits.Limit.NODES, limits.reachedLimit());
+  }
+
+  @Test
+  public void testInfeasible() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 3);
+    solver.add(Constraints.lowerEqual(x, -1));
+    assertEquals(0, solver.solutions(Heuristics.binaryFirstFail(new IntVar[]{x}), 
+        new IntVar[]{x}).count());
+  }
+}
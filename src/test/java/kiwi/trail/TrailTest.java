@@ -0,0 +1,324 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.trail;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Function;
+
+import kiwi.Solver;
+import kiwi.example.NQueens;
+import kiwi.modeling.Constraints;
+import kiwi.modeling.Heuristics;
+import kiwi.search.LubyRestarts;
+import kiwi.search.Objective;
+import kiwi.search.SearchStats;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class TrailTest {
+
+  private void testTrailedInts(Trail trail) {
+    TrailedInt x = new TrailedInt(trail, 1);
+    TrailedInt y = new TrailedInt(trail, 2);
+    trail.newLevel();
+    x.setValue(10);
+    x.setValue(11);
+    trail.newLevel();
+    y.setValue(20);
+    x.setValue(12);
+    assertEquals(12, x.getValue());
+    assertEquals(20, y.getValue());
+    trail.undoLevel();
+    assertEquals(11, x.getValue());
+    assertEquals(2, y.getValue());
+    trail.newLevel();
+    y.setValue(30);
+    trail.undoAll();
+    assertEquals(1, x.getValue());
+    assertEquals(2, y.getValue());
+    assertEquals(0, trail.getLevel());
+  }
+
+  private void testUndoUntilLevel(Trail trail) {
+    TrailedInt x = new TrailedInt(trail, 0);
+    for (int level = 1; level <= 5; level++) {
+      trail.newLevel();
+      x.setValue(level);
+    }
+    trail.undoUntilLevel(2);
+    assertEquals(2, trail.getLevel());
+    assertEquals(2, x.getValue());
+    trail.undoUntilLevel(3);
+    assertEquals(2, trail.getLevel());
+    trail.undoLevel();
+    assertEquals(1, x.getValue());
+    trail.undoUntilLevel(0);
+    assertEquals(0, trail.getLevel());
+    assertEquals(0, x.getValue());
+  }
+
+  @Test
+  public void testUndoUntilLevel() {
+    testUndoUntilLevel(new Trail());
+    testUndoUntilLevel(new Trail(true));
+    Trail trail = new Trail(true);
+    trail.setSnapshotInterval(2);
+    testUndoUntilLevel(trail);
+  }
+
+  @Test
+  public void testObjectTrail() {
+    testTrailedInts(new Trail());
+  }
+
+  @Test
+  public void testPrimitiveTrail() {
+    testTrailedInts(new Trail(true));
+  }
+
+  @Test
+  public void testPrimitiveTrailGrows() {
+    Trail trail = new Trail(true);
+    TrailedInt[] ints = new TrailedInt[100];
+    for (int i = 0; i < ints.length; i++) {
+      ints[i] = new TrailedInt(trail, i);
+    }
+    trail.newLevel();
+    for (int i = 0; i < ints.length; i++) {
+      ints[i].setValue(-i);
+    }
+    trail.undoLevel();
+    for (int i = 0; i < ints.length; i++) {
+      assertEquals(i, ints[i].getValue());
+    }
+  }
+
+  @Test
+  public void testPrimitiveSolver() {
+    for (boolean primitive : new boolean[]{false, true}) {
+      Solver solver = new Solver(primitive);
+      IntVar[] x = new IntVar[6];
+      for (int i = 0; i < x.length; i++) {
+        // Sparse set domains that rely on trailed integers.
+        x[i] = solver.intVar(0, 299);
+        solver.add(Constraints.lowerEqual(x[i], 5));
+      }
+      solver.add(Constraints.allDifferent(x));
+      assertEquals(720, solver.solve(Heuristics.binaryFirstFail(x)).nSolutions);
+    }
+  }
+
+  @Test
+  public void testSnapshotTrail() {
+    Trail trail = new Trail(true);
+    trail.setSnapshotInterval(2);
+    testTrailedInts(trail);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSnapshotRequiresPrimitive() {
+    new Trail().setSnapshotInterval(2);
+  }
+
+  private int bestTotal;
+
+  // Builds a permutation problem on sparse set domains, minimizing the 
+  // weighted sum of its first variables if optimize is true.
+  private SearchStats solvePermutation(int interval, boolean optimize, boolean restarts) {
+    Solver solver = new Solver(interval > 0);
+    if (interval > 0) {
+      solver.trail().setSnapshotInterval(interval);
+    }
+    IntVar[] x = new IntVar[7];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = solver.intVar(0, 299);
+      solver.add(Constraints.lowerEqual(x[i], 6));
+    }
+    solver.add(Constraints.allDifferent(x));
+    if (optimize) {
+      IntVar total = solver.intVar(0, 299);
+      solver.add(Constraints.sum(new IntVar[]{x[0], x[0], x[1]}, total, 0));
+      solver.setObjective(new Objective(total, true));
+      solver.onSolution(() -> bestTotal = total.min());
+    }
+    if (restarts) {
+      solver.setRestartPolicy(new LubyRestarts(2));
+    }
+    return solver.solve(Heuristics.binaryFirstFail(x));
+  }
+
+  @Test
+  public void testSnapshotSolver() {
+    SearchStats expected = solvePermutation(0, false, false);
+    assertEquals(5040, expected.nSolutions);
+    for (int interval : new int[]{1, 3, 100}) {
+      SearchStats stats = solvePermutation(interval, false, false);
+      assertEquals(expected.nSolutions, stats.nSolutions);
+      assertEquals(expected.nNodes, stats.nNodes);
+      assertEquals(expected.nFails, stats.nFails);
+    }
+  }
+
+  @Test
+  public void testSnapshotSolverOptimize() {
+    for (boolean restarts : new boolean[]{false, true}) {
+      for (int interval : new int[]{0, 1, 3, 100}) {
+        SearchStats stats = solvePermutation(interval, true, restarts);
+        assertTrue(stats.completed);
+        assertTrue(stats.nSolutions > 0);
+        assertEquals(1, bestTotal);
+      }
+    }
+  }
+
+  @Test
+  public void testSnapshotSerialization() throws Exception {
+    Trail trail = new Trail(true);
+    TrailedInt x = new TrailedInt(trail, 1);
+    TrailedInt y = new TrailedInt(trail, 2);
+    x.setValue(10);
+    y.setValue(20);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(trail.snapshot());
+    }
+    trail.newLevel();
+    x.setValue(11);
+    y.setValue(21);
+    trail.newLevel();
+    Snapshot snapshot;
+    try (ObjectInputStream in = new ObjectInputStream(
+        new ByteArrayInputStream(bytes.toByteArray()))) {
+      snapshot = (Snapshot) in.readObject();
+    }
+    assertEquals(2, snapshot.size());
+    trail.restore(snapshot);
+    assertEquals(10, x.getValue());
+    assertEquals(20, y.getValue());
+    x.setValue(12);
+    trail.undoLevel();
+    // The restoration is undone with the level.
+    assertEquals(11, x.getValue());
+    assertEquals(21, y.getValue());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSnapshotRequiresPrimitiveTrail() {
+    new Trail().snapshot();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSnapshotRejectsChanges() {
+    Trail trail = new Trail(true);
+    new TrailedBoolean(trail, true).setValue(false);
+    trail.snapshot();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRestoreRejectsOtherStores() {
+    Trail trail = new Trail(true);
+    Snapshot snapshot = trail.snapshot();
+    new TrailedInt(trail, 1);
+    trail.restore(snapshot);
+  }
+
+  private static String domains(IntVar[] variables) {
+    int[][] domains = new int[variables.length][];
+    for (int i = 0; i < variables.length; i++) {
+      domains[i] = new int[variables[i].size()];
+      variables[i].copyDomain(domains[i]);
+      Arrays.sort(domains[i]);
+    }
+    return Arrays.deepToString(domains);
+  }
+
+  // Snapshots the node in which the first variable of the model is assigned
+  // to value, restores it in a copy of the model in which the first variable
+  // is assigned to other, and checks that the copy solves the same node.
+  private void testSnapshotModel(Function<Solver, IntVar[]> model, int value, int other) {
+    Solver solver = new Solver(true);
+    IntVar[] x = model.apply(solver);
+    solver.trail().newLevel();
+    assertTrue(x[0].assign(value) && x[0].propagQueue().propagate());
+    Snapshot snapshot = solver.trail().snapshot();
+    String expectedDomains = domains(x);
+    SearchStats expected = solver.solve(Heuristics.binaryFirstFail(x));
+
+    Solver copy = new Solver(true);
+    IntVar[] y = model.apply(copy);
+    copy.trail().newLevel();
+    assertTrue(y[0].assign(other) && y[0].propagQueue().propagate());
+    String otherDomains = domains(y);
+    copy.trail().newLevel();
+    copy.trail().restore(snapshot);
+    assertEquals(expectedDomains, domains(y));
+    SearchStats stats = copy.solve(Heuristics.binaryFirstFail(y));
+    assertEquals(expected.nSolutions, stats.nSolutions);
+    assertEquals(expected.nNodes, stats.nNodes);
+    copy.trail().undoLevel();
+    assertEquals(otherDomains, domains(y));
+  }
+
+  @Test
+  public void testSnapshotQueens() {
+    // Bitset domains and propagators deactivated by the search.
+    testSnapshotModel(s -> NQueens.model(s, 8), 1, 3);
+  }
+
+  @Test
+  public void testSnapshotPermutation() {
+    // Sparse set domains.
+    testSnapshotModel(s -> {
+      IntVar[] x = new IntVar[7];
+      for (int i = 0; i < x.length; i++) {
+        x[i] = s.intVar(0, 299);
+        s.add(Constraints.lowerEqual(x[i], 6));
+      }
+      s.add(Constraints.allDifferent(x));
+      return x;
+    }, 2, 5);
+  }
+
+  @Test
+  public void testSnapshotTable() {
+    // Sparse bit sets and deltas of the domains.
+    testSnapshotModel(s -> {
+      Random random = new Random(42);
+      IntVar[] x = new IntVar[5];
+      for (int i = 0; i < x.length; i++) {
+        x[i] = s.intVar(0, 9);
+      }
+      int[][] tuples = new int[2000][x.length];
+      for (int[] tuple : tuples) {
+        for (int i = 0; i < tuple.length; i++) {
+          tuple[i] = random.nextInt(10);
+        }
+      }
+      s.add(Constraints.table(x, tuples));
+      s.add(Constraints.allDifferent(x));
+      return x;
+    }, 0, 7);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.trail;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TrailedSparseBitSetTest {
+
+  private static long[] bits(int nWords, int... bits) {
+    long[] words = new long[nWords];
+    for (int bit : bits) {
+      words[bit >>> 6] |= 1L << bit;
+    }
+    return words;
+  }
+
+  @Test
+  public void testIntersectAndRestore() {
+    Trail trail = new Trail();
+    TrailedSparseBitSet set = new TrailedSparseBitSet(trail, 130);
+    assertEquals(3, set.nWords());
+    assertEquals(0, set.intersectIndex(bits(3, 3, 129)));
+    trail.newLevel();
+    set.clearMask();
+    set.addToMask(bits(3, 70, 129));
+    set.intersectWithMask();
+    assertEquals(-1, set.intersectIndex(bits(3, 3)));
+    assertEquals(1, set.intersectIndex(bits(3, 3, 70)));
+    trail.newLevel();
+    set.clearMask();
+    set.addToMask(bits(3, 70, 129));
+    set.reverseMask();
+    set.intersectWithMask();
+    assertTrue(set.isEmpty());
+    trail.undoLevel();
+    assertFalse(set.isEmpty());
+    assertEquals(2, set.intersectIndex(bits(3, 129)));
+    trail.undoLevel();
+    assertEquals(0, set.intersectIndex(bits(3, 3)));
+    // Bits beyond the size are not in the set.
+    assertEquals(-1, set.intersectIndex(bits(3, 130)));
+  }
+}
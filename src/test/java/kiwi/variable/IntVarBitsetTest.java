@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.variable;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import kiwi.Solver;
+import kiwi.propagation.PropagationQueue;
+import kiwi.trail.Trail;
+import kiwi.variable.IntVar;
+
+import org.junit.Test;
+
+public class IntVarBitsetTest extends IntVarTest {
+
+  @Override
+  public IntVar intVar(Solver solver, int min, int max) {
+    return new IntVarBitset(new PropagationQueue(), solver.trail(), min, max);
+  }
+  
+  @Override
+  public IntVar intVar(Solver solver, int[] values) {
+    return new IntVarBitset(new PropagationQueue(), solver.trail(), values);
+  }
+
+  @Test
+  public void testMultipleWords() {
+    Solver solver = new Solver();
+    Trail trail = solver.trail();
+    IntVar x = intVar(solver, -10, 190);
+    trail.newLevel();
+    x.updateMin(60);
+    x.updateMax(130);
+    x.remove(64);
+    assertEquals(60, x.min());
+    assertEquals(130, x.max());
+    assertEquals(70, x.size());
+    trail.newLevel();
+    x.remove(60);
+    x.remove(130);
+    assertEquals(61, x.min());
+    assertEquals(129, x.max());
+    trail.undoLevel();
+    assertEquals(70, x.size());
+    trail.undoLevel();
+    assertEquals(-10, x.min());
+    assertEquals(190, x.max());
+    assertEquals(201, x.size());
+  }
+
+  @Test
+  public void testDelta() {
+    Solver solver = new Solver();
+    Trail trail = solver.trail();
+    IntVar x = intVar(solver, 0, 99);
+    int[] delta = new int[100];
+    trail.newLevel();
+    x.remove(50);
+    x.updateMax(69);
+    int size = x.size();
+    assertEquals(31, x.copyDelta(delta, 100));
+    trail.newLevel();
+    x.remove(3);
+    x.updateMin(2);
+    assertEquals(3, x.copyDelta(delta, size));
+    Arrays.sort(delta, 0, 3);
+    assertEquals(0, delta[0]);
+    assertEquals(1, delta[1]);
+    assertEquals(3, delta[2]);
+    trail.undoLevel();
+    x.remove(10);
+    assertEquals(1, x.copyDelta(delta, size));
+    assertEquals(10, delta[0]);
+  }
+
+  @Test
+  public void testDeltaMultipleWords() {
+    Solver solver = new Solver();
+    Trail trail = solver.trail();
+    IntVar x = intVar(solver, 0, 199);
+    int[] delta = new int[200];
+    trail.newLevel();
+    x.updateMin(60);
+    x.remove(130);
+    int size = x.size();
+    assertEquals(61, x.copyDelta(delta, 200));
+    trail.newLevel();
+    x.assign(70);
+    assertEquals(70, x.min());
+    assertEquals(70, x.max());
+    assertEquals(size - 1, x.copyDelta(delta, size));
+    Arrays.sort(delta, 0, size - 1);
+    assertEquals(60, delta[0]);
+    assertEquals(199, delta[size - 2]);
+    trail.undoLevel();
+    assertEquals(60, x.min());
+    assertEquals(199, x.max());
+    assertEquals(0, x.copyDelta(delta, size));
+    x.remove(199);
+    assertEquals(198, x.max());
+    assertEquals(1, x.copyDelta(delta, size));
+    assertEquals(199, delta[0]);
+  }
+}
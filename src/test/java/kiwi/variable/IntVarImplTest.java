@@ -16,17 +16,18 @@
 package kiwi.variable;
 
 import kiwi.Solver;
+import kiwi.propagation.PropagationQueue;
 import kiwi.variable.IntVar;
 
 public class IntVarImplTest extends IntVarTest {
 
   @Override
   public IntVar intVar(Solver solver, int min, int max) {
-    return solver.intVar(min, max);
+    return new IntVarImpl(new PropagationQueue(), solver.trail(), min, max);
   }
   
   @Override
   public IntVar intVar(Solver solver, int[] values) {
-    return solver.intVar(values);
+    return new IntVarImpl(new PropagationQueue(), solver.trail(), values);
   }
 }
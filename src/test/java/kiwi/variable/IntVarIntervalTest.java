@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.variable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import kiwi.Solver;
+import kiwi.modeling.Constraints;
+import kiwi.trail.Trail;
+
+import org.junit.Test;
+
+public class IntVarIntervalTest {
+
+  @Test
+  public void testRepresentation() {
+    Solver solver = new Solver();
+    assertTrue(solver.intervalVar(0, 100000000) instanceof IntVarInterval);
+    assertTrue(solver.intVar(0, 1000) instanceof IntVarImpl);
+    assertTrue(solver.intVar(0, 10) instanceof IntVarBitset);
+  }
+
+  @Test
+  public void testWidestSize() {
+    Solver solver = new Solver();
+    IntVar x = solver.intervalVar(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    assertEquals(Integer.MAX_VALUE, x.size());
+    assertTrue(x.updateMin(0));
+    assertEquals(Integer.MAX_VALUE, x.size());
+    assertTrue(x.updateMin(2));
+    assertEquals(Integer.MAX_VALUE - 1, x.size());
+  }
+
+  @Test
+  public void testBounds() {
+    Solver solver = new Solver();
+    Trail trail = solver.trail();
+    IntVar x = solver.intervalVar(-5, 100000000);
+    assertEquals(100000006, x.size());
+    trail.newLevel();
+    assertTrue(x.updateMin(10));
+    assertTrue(x.updateMax(20));
+    assertEquals(10, x.min());
+    assertEquals(20, x.max());
+    assertEquals(11, x.size());
+    assertFalse(x.contains(9));
+    assertFalse(x.updateMin(21));
+    trail.undoLevel();
+    assertEquals(-5, x.min());
+    assertEquals(100000000, x.max());
+  }
+
+  @Test
+  public void testRemove() {
+    Solver solver = new Solver();
+    IntVar x = solver.intervalVar(0, 10);
+    // Bounds can be removed.
+    assertTrue(x.remove(0));
+    assertTrue(x.remove(10));
+    assertEquals(1, x.min());
+    assertEquals(9, x.max());
+    // Values outside the domain are already removed.
+    assertTrue(x.remove(42));
+    assertTrue(x.assign(4));
+    assertTrue(x.isAssigned());
+    assertFalse(x.remove(4));
+    assertFalse(x.assign(5));
+  }
+
+  @Test
+  public void testRemoveInner() {
+    Solver solver = new Solver();
+    IntVar x = solver.intervalVar(0, 10);
+    // Inner values are kept.
+    assertTrue(x.remove(5));
+    assertTrue(x.contains(5));
+    assertEquals(11, x.size());
+    assertEquals(0, x.copyDelta(new int[11], 11));
+  }
+
+  @Test
+  public void testCopyDelta() {
+    Solver solver = new Solver();
+    Trail trail = solver.trail();
+    IntVar x = solver.intervalVar(0, 99);
+    int[] delta = new int[100];
+    trail.newLevel();
+    x.updateMin(10);
+    x.updateMax(69);
+    int size = x.size();
+    assertEquals(40, x.copyDelta(delta, 100));
+    assertEquals(0, delta[0]);
+    assertEquals(99, delta[10]);
+    trail.newLevel();
+    x.remove(10);
+    x.updateMax(67);
+    assertEquals(3, x.copyDelta(delta, size));
+    Arrays.sort(delta, 0, 3);
+    assertEquals(10, delta[0]);
+    assertEquals(68, delta[1]);
+    assertEquals(69, delta[2]);
+    assertEquals(0, x.copyDelta(delta, x.size()));
+    trail.undoLevel();
+    x.assign(20);
+    assertEquals(59, x.copyDelta(delta, size));
+    trail.undoLevel();
+    assertEquals(0, x.copyDelta(delta, 100));
+  }
+
+  @Test
+  public void testWideSum() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[]{solver.intervalVar(0, 50000000), solver.intervalVar(0, 50000000)};
+    IntVar total = solver.intervalVar(0, 200000000);
+    assertTrue(solver.add(Constraints.sum(x, total, 7)));
+    assertEquals(7, total.min());
+    assertEquals(100000007, total.max());
+    assertTrue(solver.add(Constraints.lowerEqual(total, 1007)));
+    assertEquals(1000, x[0].max());
+    assertEquals(1000, x[1].max());
+  }
+
+  @Test
+  public void testWideSumVariable() {
+    Solver solver = new Solver();
+    IntVar[] x = new IntVar[]{solver.intervalVar(0, 50000000), solver.intervalVar(0, 50000000)};
+    IntVar total = Constraints.sum(solver, x, 7);
+    assertTrue(total instanceof IntVarInterval);
+    assertEquals(7, total.min());
+    assertEquals(100000007, total.max());
+    IntVar small = Constraints.sum(solver, new IntVar[]{solver.intVar(0, 9)}, 0);
+    assertFalse(small instanceof IntVarInterval);
+  }
+}
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertTrue;
 import java.util.Arrays;
 
 import kiwi.Solver;
+import kiwi.propagation.Propagator;
 import kiwi.trail.Trail;
 import kiwi.variable.IntVar;
 
@@ -436,4 +437,124 @@ public abstract class IntVarTest {
       assertEquals(values2[i], domain2[i]);
     }
   }
+
+  // Records the advised events and the number of propagations.
+  private static class EventRecorder extends Propagator {
+    int lastIndex = -1;
+    int lastEvents = 0;
+    int nPropagations = 0;
+    boolean schedule = true;
+
+    @Override public boolean setup() {
+      return true;
+    }
+
+    @Override public boolean advise(int index, int events) {
+      lastIndex = index;
+      lastEvents = events;
+      return schedule;
+    }
+
+    @Override public boolean propagate() {
+      nPropagations++;
+      return true;
+    }
+
+    void deactivate(IntVar x) {
+      deactivate(x.trail());
+    }
+  }
+
+  // Propagators should only be advised and scheduled on the watched events
+  @Test
+  public void testEvents() {
+    Solver solver = new Solver();
+    IntVar x = intVar(solver, 5, 15);
+    EventRecorder assign = new EventRecorder();
+    EventRecorder bounds = new EventRecorder();
+    EventRecorder domain = new EventRecorder();
+    x.watch(EventMask.ASSIGN, assign, 0);
+    x.watch(EventMask.BOUNDS, bounds, 1);
+    x.watch(EventMask.DOMAIN, domain, 2);
+    assertTrue(x.remove(10));
+    assertTrue(x.propagQueue().propagate());
+    assertEquals(0, assign.nPropagations);
+    assertEquals(0, bounds.nPropagations);
+    assertEquals(1, domain.nPropagations);
+    assertEquals(2, domain.lastIndex);
+    assertEquals(EventMask.DOMAIN, domain.lastEvents);
+    assertTrue(x.updateMin(7));
+    assertTrue(x.propagQueue().propagate());
+    assertEquals(0, assign.nPropagations);
+    assertEquals(1, bounds.nPropagations);
+    assertEquals(1, bounds.lastIndex);
+    assertEquals(EventMask.BOUNDS | EventMask.DOMAIN, bounds.lastEvents);
+    assertTrue(x.assign(8));
+    assertTrue(x.propagQueue().propagate());
+    assertEquals(1, assign.nPropagations);
+    assertEquals(EventMask.ASSIGN | EventMask.BOUNDS | EventMask.DOMAIN, 
+        assign.lastEvents);
+    assertEquals(2, bounds.nPropagations);
+    assertEquals(3, domain.nPropagations);
+  }
+
+  // Propagators should not be scheduled if their advice is negative
+  @Test
+  public void testNegativeAdvice() {
+    Solver solver = new Solver();
+    IntVar x = intVar(solver, 5, 15);
+    EventRecorder recorder = new EventRecorder();
+    recorder.schedule = false;
+    x.watch(EventMask.DOMAIN, recorder, 3);
+    assertTrue(x.updateMax(10));
+    assertTrue(x.propagQueue().propagate());
+    assertEquals(3, recorder.lastIndex);
+    assertEquals(0, recorder.nPropagations);
+    // Propagators without index are always scheduled.
+    x.watchChange(recorder);
+    assertTrue(x.updateMax(9));
+    assertTrue(x.propagQueue().propagate());
+    assertEquals(1, recorder.nPropagations);
+  }
+
+  // Propagators should be listed once however many times they watch
+  @Test
+  public void testDistinctPropagators() {
+    Solver solver = new Solver();
+    IntVar x = intVar(solver, 5, 15);
+    EventRecorder first = new EventRecorder();
+    EventRecorder second = new EventRecorder();
+    x.watch(EventMask.BOUNDS, first, 0);
+    x.watch(EventMask.ASSIGN, first, 0);
+    x.watch(EventMask.DOMAIN, second, 1);
+    x.watch(EventMask.DOMAIN, first, 2);
+    assertEquals(2, x.propagators().getSize());
+    assertTrue(x.propagators().get(0) == first);
+    assertTrue(x.propagators().get(1) == second);
+  }
+
+  // Inactive propagators should not be advised until they are reactivated
+  @Test
+  public void testInactiveWatchers() {
+    Solver solver = new Solver();
+    IntVar x = intVar(solver, 5, 15);
+    EventRecorder active = new EventRecorder();
+    EventRecorder inactive = new EventRecorder();
+    x.watch(EventMask.DOMAIN, inactive, 1);
+    x.watch(EventMask.DOMAIN, active, 0);
+    solver.trail().newLevel();
+    inactive.deactivate(x);
+    assertTrue(x.remove(10));
+    assertTrue(x.remove(11));
+    assertTrue(x.propagQueue().propagate());
+    assertEquals(-1, inactive.lastIndex);
+    assertEquals(0, inactive.nPropagations);
+    assertEquals(1, active.nPropagations);
+    solver.trail().undoLevel();
+    assertTrue(x.remove(12));
+    assertTrue(x.propagQueue().propagate());
+    assertEquals(1, inactive.lastIndex);
+    assertEquals(1, inactive.nPropagations);
+    assertEquals(2, active.nPropagations);
+  }
 }
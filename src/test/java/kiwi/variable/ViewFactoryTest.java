@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016, Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package kiwi.variable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import kiwi.Solver;
+
+import org.junit.Test;
+
+public class ViewFactoryTest {
+
+  // Asking twice for the same offset view should return the same view
+  @Test
+  public void test1() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 10);
+    assertSame(solver.offset(x, 3), solver.offset(x, 3));
+    assertNotSame(solver.offset(x, 3), solver.offset(x, 4));
+  }
+
+  // Asking twice for the same opposite view should return the same view
+  @Test
+  public void test2() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 10);
+    assertSame(solver.opposite(x), solver.opposite(x));
+  }
+
+  // The opposite of an opposite view should be the variable itself
+  @Test
+  public void test3() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 10);
+    assertSame(x, solver.opposite(solver.opposite(x)));
+  }
+
+  // The offset of an offset view should be a single offset view
+  @Test
+  public void test4() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 10);
+    IntVar y = solver.offset(solver.offset(x, 3), 4);
+    assertSame(solver.offset(x, 7), y);
+    assertSame(x, ((IntVarOffset) y).variable());
+    assertEquals(7, y.min());
+    assertEquals(17, y.max());
+    assertSame(x, solver.offset(solver.offset(x, 3), -3));
+  }
+
+  // The opposite of an offset view should be an offset on the opposite view
+  @Test
+  public void test5() {
+    Solver solver = new Solver();
+    IntVar x = solver.intVar(0, 10);
+    IntVar y = solver.opposite(solver.offset(x, 3));
+    assertSame(solver.offset(solver.opposite(x), -3), y);
+    assertEquals(-13, y.min());
+    assertEquals(-3, y.max());
+    assertTrue(y.updateMax(-5));
+    assertEquals(2, x.min());
+  }
+
+  // Views of different solvers should be different
+  @Test
+  public void test6() {
+    Solver solver1 = new Solver();
+    Solver solver2 = new Solver();
+    IntVar x = solver1.intVar(0, 10);
+    assertNotSame(solver1.offset(x, 3), solver2.offset(x, 3));
+  }
+}